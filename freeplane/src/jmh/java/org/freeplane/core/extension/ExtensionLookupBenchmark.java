@@ -0,0 +1,99 @@
+package org.freeplane.core.extension;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares extension lookups of SmallExtensionMap and IndexedExtensionMap.
+ *
+ * Each node holds the given number of extensions, nodes usually have up to six of them.
+ * The looked up classes are half contained and half missing, like the checks done while painting and writing.
+ *
+ * Run with {@code gradle :freeplane:jmh --args='ExtensionLookupBenchmark'}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExtensionLookupBenchmark {
+	static class E0 implements IExtension {}
+	static class E1 implements IExtension {}
+	static class E2 implements IExtension {}
+	static class E3 implements IExtension {}
+	static class E4 implements IExtension {}
+	static class E5 implements IExtension {}
+	static class E6 implements IExtension {}
+	static class E7 implements IExtension {}
+	static class E8 implements IExtension {}
+	static class E9 implements IExtension {}
+	static class E10 implements IExtension {}
+	static class E11 implements IExtension {}
+
+	private static final IExtension[] EXTENSIONS = { new E0(), new E1(), new E2(), new E3(), new E4(), new E5(),
+	        new E6(), new E7(), new E8(), new E9(), new E10(), new E11() };
+	private static final int NODE_COUNT = 1024;
+
+	@Param({ "1", "3", "6" })
+	public int extensionCount;
+
+	private Map<Class<? extends IExtension>, IExtension>[] smallMaps;
+	private Map<Class<? extends IExtension>, IExtension>[] indexedMaps;
+	private Class<?>[] lookedUpClasses;
+
+	@SuppressWarnings("unchecked")
+	@Setup
+	public void setup() {
+		smallMaps = new Map[NODE_COUNT];
+		indexedMaps = new Map[NODE_COUNT];
+		for (int node = 0; node < NODE_COUNT; node++) {
+			smallMaps[node] = fill(new SmallExtensionMap(), node);
+			indexedMaps[node] = fill(new IndexedExtensionMap(), node);
+		}
+		lookedUpClasses = new Class<?>[2 * extensionCount];
+		for (int i = 0; i < lookedUpClasses.length; i++) {
+			lookedUpClasses[i] = EXTENSIONS[i].getClass();
+		}
+	}
+
+	private Map<Class<? extends IExtension>, IExtension> fill(final Map<Class<? extends IExtension>, IExtension> map,
+	                                                          final int node) {
+		for (int i = 0; i < extensionCount; i++) {
+			final IExtension extension = EXTENSIONS[(node + i) % (2 * extensionCount)];
+			map.put(extension.getClass(), extension);
+		}
+		return map;
+	}
+
+	@Benchmark
+	public void smallExtensionMap(final Blackhole blackhole) {
+		lookup(smallMaps, blackhole);
+	}
+
+	@Benchmark
+	public void indexedExtensionMap(final Blackhole blackhole) {
+		lookup(indexedMaps, blackhole);
+	}
+
+	private void lookup(final Map<Class<? extends IExtension>, IExtension>[] maps, final Blackhole blackhole) {
+		for (final Map<Class<? extends IExtension>, IExtension> map : maps) {
+			for (final Class<?> clazz : lookedUpClasses) {
+				blackhole.consume(map.get(clazz));
+			}
+		}
+	}
+}
@@ -0,0 +1,21 @@
+package org.freeplane.core.extension;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Assigns each extension class a small slot number when it is used for the first time.
+ * Slot numbers stay the same until the class is unloaded.
+ */
+class ExtensionSlots {
+	private static final AtomicInteger slotCounter = new AtomicInteger();
+	private static final ClassValue<Integer> slots = new ClassValue<Integer>() {
+		@Override
+		protected Integer computeValue(final Class<?> type) {
+			return slotCounter.getAndIncrement();
+		}
+	};
+
+	static int slotOf(final Class<?> clazz) {
+		return slots.get(clazz);
+	}
+}
@@ -0,0 +1,181 @@
+package org.freeplane.core.extension;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Extension map for node data looking extensions up by their class slot in constant time.
+ *
+ * A bit set marks the slots of the contained extension classes.
+ * The rank of a slot bit, i.e. the number of lower bits set, is the index into a packed position array,
+ * which points to the extension in the insertion ordered extension array.
+ * Values are returned in insertion order, so that writing the extensions does not depend on slot numbers.
+ */
+public class IndexedExtensionMap implements Map<Class<? extends IExtension>, IExtension> {
+	private static final long[] NO_SLOTS = new long[0];
+	private static final byte[] NO_POSITIONS = new byte[0];
+	private static final IExtension[] NO_EXTENSIONS = new IExtension[0];
+	private static final int MAX_SIZE = 256;
+
+	private long[] slotBits = NO_SLOTS;
+	private byte[] positions = NO_POSITIONS;
+	private IExtension[] extensions = NO_EXTENSIONS;
+
+	public void clear() {
+		slotBits = NO_SLOTS;
+		positions = NO_POSITIONS;
+		extensions = NO_EXTENSIONS;
+	}
+
+	public boolean containsKey(final Object key) {
+		return indexOf(key) >= 0;
+	}
+
+	public boolean containsValue(final Object value) {
+		if (!(value instanceof IExtension)) {
+			return false;
+		}
+		for (final IExtension extension : extensions) {
+			if (value.equals(extension)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public Set<java.util.Map.Entry<Class<? extends IExtension>, IExtension>> entrySet() {
+		throw new NoSuchMethodError();
+	}
+
+	/** returns the index of the extension in the insertion ordered array or -1 */
+	private int indexOf(final Object key) {
+		if (extensions.length == 0 || !(key instanceof Class<?>)) {
+			return -1;
+		}
+		final int rank = rank(ExtensionSlots.slotOf((Class<?>) key));
+		return rank >= 0 ? positions[rank] & 0xFF : -1;
+	}
+
+	/** returns the number of contained slots lower than the given one, or -1 if the slot is not contained */
+	private int rank(final int slot) {
+		final int word = slot >>> 6;
+		if (word >= slotBits.length) {
+			return -1;
+		}
+		final long bit = 1L << slot;
+		final long bits = slotBits[word];
+		if ((bits & bit) == 0) {
+			return -1;
+		}
+		return lowerSlotCount(word, bit);
+	}
+
+	private int lowerSlotCount(final int word, final long bit) {
+		int count = Long.bitCount(slotBits[word] & (bit - 1));
+		for (int i = 0; i < word; i++) {
+			count += Long.bitCount(slotBits[i]);
+		}
+		return count;
+	}
+
+	public IExtension get(final Object key) {
+		final int index = indexOf(key);
+		return index >= 0 ? extensions[index] : null;
+	}
+
+	public boolean isEmpty() {
+		return extensions.length == 0;
+	}
+
+	public Set<Class<? extends IExtension>> keySet() {
+		throw new NoSuchMethodError();
+	}
+
+	public IExtension put(final Class<? extends IExtension> key, final IExtension value) {
+		final int index = indexOf(key);
+		if (index >= 0) {
+			final IExtension oldValue = extensions[index];
+			final IExtension[] newExtensions = extensions.clone();
+			newExtensions[index] = value;
+			extensions = newExtensions;
+			return oldValue;
+		}
+		if (!key.equals(value.getClass())) {
+			throw new ClassCastException();
+		}
+		final int size = extensions.length;
+		if (size == MAX_SIZE) {
+			throw new IllegalStateException("too many extensions");
+		}
+		final int slot = ExtensionSlots.slotOf(key);
+		final int word = slot >>> 6;
+		final long bit = 1L << slot;
+		if (word >= slotBits.length) {
+			slotBits = Arrays.copyOf(slotBits, word + 1);
+		}
+		slotBits[word] |= bit;
+		final int rank = lowerSlotCount(word, bit);
+		final byte[] newPositions = new byte[size + 1];
+		System.arraycopy(positions, 0, newPositions, 0, rank);
+		newPositions[rank] = (byte) size;
+		System.arraycopy(positions, rank, newPositions, rank + 1, size - rank);
+		positions = newPositions;
+		final IExtension[] newExtensions = Arrays.copyOf(extensions, size + 1);
+		newExtensions[size] = value;
+		extensions = newExtensions;
+		return null;
+	}
+
+	public void putAll(final Map<? extends Class<? extends IExtension>, ? extends IExtension> source) {
+		for (final Entry<? extends Class<? extends IExtension>, ? extends IExtension> entry : source.entrySet()) {
+			final Class<? extends IExtension> key = entry.getKey();
+			final IExtension value = entry.getValue();
+			put(key, value);
+		}
+	}
+
+	public IExtension remove(final Object key) {
+		if (extensions.length == 0 || !(key instanceof Class<?>)) {
+			return null;
+		}
+		final int slot = ExtensionSlots.slotOf((Class<?>) key);
+		final int rank = rank(slot);
+		if (rank == -1) {
+			return null;
+		}
+		final int size = extensions.length;
+		if (size == 1) {
+			final IExtension removed = extensions[0];
+			clear();
+			return removed;
+		}
+		final int index = positions[rank] & 0xFF;
+		final IExtension removed = extensions[index];
+		final byte[] newPositions = new byte[size - 1];
+		for (int i = 0, j = 0; i < size; i++) {
+			if (i != rank) {
+				final int position = positions[i] & 0xFF;
+				newPositions[j++] = (byte) (position > index ? position - 1 : position);
+			}
+		}
+		positions = newPositions;
+		final IExtension[] newExtensions = new IExtension[size - 1];
+		System.arraycopy(extensions, 0, newExtensions, 0, index);
+		System.arraycopy(extensions, index + 1, newExtensions, index, size - index - 1);
+		extensions = newExtensions;
+		slotBits[slot >>> 6] &= ~(1L << slot);
+		return removed;
+	}
+
+	public int size() {
+		return extensions.length;
+	}
+
+	/** returns an unmodifiable snapshot, later changes of the map are not reflected */
+	public Collection<IExtension> values() {
+		return Collections.unmodifiableList(Arrays.asList(extensions));
+	}
+}
@@ -0,0 +1,9 @@
+package org.freeplane.core.io;
+
+import java.io.Reader;
+
+import org.freeplane.n3.nanoxml.XMLException;
+
+public interface ITreeReader {
+	void load(Object currentElement, Reader reader) throws XMLException;
+}
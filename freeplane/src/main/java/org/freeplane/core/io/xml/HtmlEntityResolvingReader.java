@@ -0,0 +1,163 @@
+package org.freeplane.core.io.xml;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang.StringEscapeUtils;
+
+/**
+ * Replaces named html entities like &amp;nbsp; by character references.
+ *
+ * TreeXmlReader keeps rich content unparsed, so maps may contain entities which are not defined in xml.
+ * Unknown entities are escaped and kept as text.
+ *
+ * The original text of the characters read is kept until it is discarded,
+ * so that element content can be passed unparsed like TreeXmlReader does.
+ */
+class HtmlEntityResolvingReader extends Reader {
+	private static final int MAX_ENTITY_LENGTH = 32;
+	private final Reader in;
+	private final char[] buffer = new char[8192];
+	private int position = 0;
+	private int limit = 0;
+	private String replacement = null;
+	private int replacementPosition = 0;
+	private boolean endOfInput = false;
+	private int readCount = 0;
+	private final StringBuilder originalText = new StringBuilder();
+	private int originalTextStart = 0;
+	/** positions and length differences of the entities replaced since originalTextStart */
+	private final List<int[]> replacements = new ArrayList<int[]>();
+
+	HtmlEntityResolvingReader(final Reader in) {
+		super(in);
+		this.in = in;
+	}
+
+	@Override
+	public int read(final char[] cbuf, final int off, final int len) throws IOException {
+		int count = 0;
+		while (count < len) {
+			if (replacement != null) {
+				cbuf[off + count++] = replacement.charAt(replacementPosition++);
+				readCount++;
+				if (replacementPosition == replacement.length()) {
+					replacement = null;
+				}
+				continue;
+			}
+			if (position == limit || !endOfInput && buffer[position] == '&' && limit - position < MAX_ENTITY_LENGTH) {
+				fill();
+				if (position == limit) {
+					break;
+				}
+			}
+			final char c = buffer[position];
+			if (c == '&') {
+				final int entityStart = position;
+				replacement = replaceEntity();
+				if (replacement != null) {
+					replacementPosition = 0;
+					originalText.append(buffer, entityStart, position - entityStart);
+					replacements.add(new int[] { readCount, position - entityStart - replacement.length() });
+					continue;
+				}
+			}
+			cbuf[off + count++] = c;
+			originalText.append(c);
+			readCount++;
+			position++;
+		}
+		return count == 0 && len > 0 ? -1 : count;
+	}
+
+	private void fill() throws IOException {
+		final int remaining = limit - position;
+		System.arraycopy(buffer, position, buffer, 0, remaining);
+		position = 0;
+		limit = remaining;
+		while (!endOfInput && limit < MAX_ENTITY_LENGTH) {
+			final int n = in.read(buffer, limit, buffer.length - limit);
+			if (n < 0) {
+				endOfInput = true;
+			}
+			else {
+				limit += n;
+			}
+		}
+	}
+
+	private String replaceEntity() {
+		final int end = Math.min(limit, position + MAX_ENTITY_LENGTH);
+		for (int i = position + 1; i < end; i++) {
+			final char c = buffer[i];
+			if (c == ';') {
+				final String name = new String(buffer, position + 1, i - position - 1);
+				if (name.isEmpty() || name.charAt(0) == '#' || isPredefined(name)) {
+					return null;
+				}
+				position = i + 1;
+				final String entity = '&' + name + ';';
+				final String value = StringEscapeUtils.unescapeHtml(entity);
+				if (value.equals(entity)) {
+					return "&amp;" + name + ';';
+				}
+				return "&#" + value.codePointAt(0) + ';';
+			}
+			if (!Character.isLetterOrDigit(c)) {
+				return null;
+			}
+		}
+		return null;
+	}
+
+	private boolean isPredefined(final String name) {
+		return name.equals("amp") || name.equals("lt") || name.equals("gt") || name.equals("quot")
+		        || name.equals("apos");
+	}
+
+	/**
+	 * returns the text read between the given positions as it was before the entities were replaced,
+	 * with line ends normalized like LineNumberReader used by TreeXmlReader does.
+	 */
+	String getOriginalText(final int start, final int end) {
+		final String text = originalText.substring(originalTextIndex(start), originalTextIndex(end));
+		return text.indexOf('\r') == -1 ? text : text.replace("\r\n", "\n").replace('\r', '\n');
+	}
+
+	/** the original text before the given position is not needed any more */
+	void discardOriginalText(final int end) {
+		final int endIndex = originalTextIndex(end);
+		if (endIndex < buffer.length || endIndex < originalText.length() / 2) {
+			return;
+		}
+		originalText.delete(0, endIndex);
+		originalTextStart = end;
+		int replacementCount = 0;
+		while (replacementCount < replacements.size() && replacements.get(replacementCount)[0] < end) {
+			replacementCount++;
+		}
+		replacements.subList(0, replacementCount).clear();
+	}
+
+	private int originalTextIndex(final int position) {
+		if (position < originalTextStart || position > readCount) {
+			throw new IndexOutOfBoundsException("Position " + position + " is not in the kept text");
+		}
+		int index = position - originalTextStart;
+		for (final int[] replacement : replacements) {
+			if (replacement[0] >= position) {
+				break;
+			}
+			index += replacement[1];
+		}
+		return index;
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+}
@@ -0,0 +1,385 @@
+package org.freeplane.core.io.xml;
+
+import java.io.Reader;
+import java.util.Enumeration;
+import java.util.Hashtable;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.freeplane.core.io.IAttributeHandler;
+import org.freeplane.core.io.IElementContentHandler;
+import org.freeplane.core.io.IElementDOMHandler;
+import org.freeplane.core.io.IElementHandler;
+import org.freeplane.core.io.ITreeReader;
+import org.freeplane.core.io.ReadManager;
+import org.freeplane.core.util.LogUtils;
+import org.freeplane.n3.nanoxml.XMLElement;
+import org.freeplane.n3.nanoxml.XMLException;
+
+/**
+ * Streaming counterpart of {@link TreeXmlReader} based on javax.xml.stream.
+ *
+ * Elements are passed to the handlers registered in the {@link ReadManager} while they are read.
+ * XMLElement objects are only built where a handler can see them: for choosing between several handlers,
+ * for IElementDOMHandler and IElementContentHandler elements together with their unknown attributes and
+ * child elements, and as name only placeholders for the parents of such elements.
+ * Everything else is skipped without creating any objects.
+ */
+public class StaxTreeXmlReader implements ITreeReader {
+	private static class ElementFrame {
+		final ElementFrame parent;
+		final Object element;
+		final String name;
+		final boolean keepsUnknownElements;
+		private XMLElement dom;
+
+		ElementFrame(final ElementFrame parent, final Object element, final String name, final XMLElement dom,
+		             final boolean keepsUnknownElements) {
+			this.parent = parent;
+			this.element = element;
+			this.name = name;
+			this.dom = dom;
+			this.keepsUnknownElements = keepsUnknownElements;
+		}
+
+		XMLElement dom() {
+			if (dom == null && name != null) {
+				dom = new XMLElement(name);
+				attach(parent, dom);
+			}
+			return dom;
+		}
+	}
+
+	private static XMLInputFactory createInputFactory() {
+		final XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+		factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+		factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+		return factory;
+	}
+
+	private static void attach(final ElementFrame parent, final XMLElement dom) {
+		final XMLElement parentDom = parent.dom();
+		if (parentDom != null) {
+			parentDom.addChild(dom);
+		}
+	}
+
+	private static void detach(final XMLElement dom) {
+		final XMLElement parentDom = dom.getParent();
+		if (parentDom != null && parentDom.hasChildren()) {
+			final int lastChildIndex = parentDom.getChildrenCount() - 1;
+			if (parentDom.getChildAtIndex(lastChildIndex) == dom) {
+				parentDom.removeChildAtIndex(lastChildIndex);
+			}
+		}
+	}
+
+	final private ReadManager parseManager;
+	private HtmlEntityResolvingReader input;
+	private XMLStreamReader reader;
+
+	public StaxTreeXmlReader(final ReadManager parseManager) {
+		super();
+		this.parseManager = parseManager;
+	}
+
+	public void load(final Reader pReader) throws XMLException {
+		load(null, pReader);
+	}
+
+	@Override
+	public void load(final Object currentElement, final Reader pReader) throws XMLException {
+		try {
+			input = new HtmlEntityResolvingReader(pReader);
+			reader = createInputFactory().createXMLStreamReader(input);
+			try {
+				final ElementFrame root = new ElementFrame(null, currentElement, null, null, false);
+				while (reader.hasNext()) {
+					if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+						readElement(root);
+					}
+				}
+			}
+			finally {
+				reader.close();
+				reader = null;
+			}
+		}
+		catch (final XMLStreamException e) {
+			final Location location = e.getLocation();
+			if (location != null) {
+				throw new XMLException(location.getSystemId(), location.getLineNumber(), e);
+			}
+			throw new XMLException(e);
+		}
+	}
+
+	/** called at START_ELEMENT, returns after the matching END_ELEMENT */
+	private void readElement(final ElementFrame parent) throws XMLStreamException {
+		input.discardOriginalText(reader.getLocation().getCharacterOffset());
+		final String tag = reader.getLocalName();
+		final List<IElementHandler> handlers = parseManager.getElementHandlers().list(tag);
+		final Hashtable<String, IAttributeHandler> attributeHandlersForTag = parseManager.getAttributeHandlers()
+		    .get(tag);
+		Object element = null;
+		IElementHandler nodeCreator = null;
+		XMLElement dom = null;
+		boolean readContentAsString = false;
+		if (handlers != null && handlers.size() == 1) {
+			nodeCreator = handlers.get(0);
+			try {
+				element = nodeCreator.createElement(parent.element, tag, null);
+			}
+			catch (final Exception e) {
+				LogUtils.severe("Can not process element" + tag, e);
+			}
+			if (element != null) {
+				if (needsDom(nodeCreator)) {
+					dom = createElement();
+					attach(parent, dom);
+				}
+				addAttributes(element, attributeHandlersForTag, dom);
+				readContentAsString = nodeCreator instanceof IElementContentHandler;
+			}
+		}
+		if (element == null) {
+			dom = createElement();
+			addAttributes(null, null, dom);
+			attach(parent, dom);
+			nodeCreator = null;
+			if (handlers != null) {
+				for (final Iterator<IElementHandler> iterator = handlers.iterator(); iterator.hasNext()
+				        && element == null;) {
+					nodeCreator = iterator.next();
+					try {
+						element = nodeCreator.createElement(parent.element, tag, dom);
+					}
+					catch (final Exception e) {
+						LogUtils.severe("Can not process element" + tag, e);
+					}
+				}
+			}
+			if (element == null) {
+				if (parent.keepsUnknownElements) {
+					readUnknownElementContent(dom);
+				}
+				else {
+					detach(dom);
+					skipElementContent();
+				}
+				return;
+			}
+			readContentAsString = nodeCreator instanceof IElementContentHandler
+			        && ((IElementContentHandler) nodeCreator).containsXml(dom);
+			if (attributeHandlersForTag != null) {
+				final Enumeration<String> attributeNames = dom.enumerateAttributeNames();
+				while (attributeNames.hasMoreElements()) {
+					final String atName = attributeNames.nextElement();
+					if (setAttribute(element, attributeHandlersForTag, atName, dom.getAttribute(atName, null))) {
+						dom.removeAttribute(atName);
+					}
+				}
+			}
+		}
+		final ElementFrame frame = new ElementFrame(parent, element, fullName(), dom, needsDom(nodeCreator));
+		final String content;
+		if (readContentAsString) {
+			content = readContentAsString();
+		}
+		else {
+			content = null;
+			readChildElements(frame);
+		}
+		endElement(parent, tag, element, nodeCreator, frame.dom, content);
+		if (frame.dom != null) {
+			detach(frame.dom);
+		}
+	}
+
+	private void endElement(final ElementFrame parent, final String tag, final Object element,
+	                        final IElementHandler nodeCreator, final XMLElement dom, final String content) {
+		try {
+			if (nodeCreator instanceof IElementContentHandler) {
+				final IElementContentHandler contentHandler = (IElementContentHandler) nodeCreator;
+				contentHandler.endElement(parent.element, tag, element, dom,
+				    contentHandler.containsXml(dom) ? content : dom.getContent());
+			}
+			else if (nodeCreator instanceof IElementDOMHandler) {
+				((IElementDOMHandler) nodeCreator).endElement(parent.element, tag, element, dom);
+			}
+		}
+		catch (final Exception e) {
+			LogUtils.severe("Can not process element" + tag, e);
+		}
+	}
+
+	private boolean needsDom(final IElementHandler nodeCreator) {
+		return nodeCreator instanceof IElementDOMHandler || nodeCreator instanceof IElementContentHandler;
+	}
+
+	private XMLElement createElement() {
+		final Location location = reader.getLocation();
+		return new XMLElement(fullName(), reader.getNamespaceURI(), location.getSystemId(),
+		    location.getLineNumber());
+	}
+
+	private String fullName() {
+		return fullName(reader.getPrefix(), reader.getLocalName());
+	}
+
+	private String fullName(final String prefix, final String localName) {
+		if (prefix == null || prefix.isEmpty()) {
+			return localName;
+		}
+		return prefix + ':' + localName;
+	}
+
+	private void addAttributes(final Object element, final Hashtable<String, IAttributeHandler> attributeHandlers,
+	                           final XMLElement dom) {
+		final int attributeCount = reader.getAttributeCount();
+		for (int i = 0; i < attributeCount; i++) {
+			final String key = reader.getAttributeLocalName(i);
+			final String value = reader.getAttributeValue(i);
+			if (setAttribute(element, attributeHandlers, key, value) || dom == null) {
+				continue;
+			}
+			final String prefix = reader.getAttributePrefix(i);
+			if (prefix == null || prefix.isEmpty()) {
+				dom.setAttribute(key, value);
+			}
+			else {
+				dom.setAttribute(fullName(prefix, key), reader.getAttributeNamespace(i), value);
+			}
+		}
+	}
+
+	private boolean setAttribute(final Object element, final Hashtable<String, IAttributeHandler> attributeHandlers,
+	                             final String key, final String value) {
+		if (attributeHandlers != null) {
+			final IAttributeHandler attributeHandler = attributeHandlers.get(key);
+			if (attributeHandler != null) {
+				try {
+					attributeHandler.setAttribute(element, value);
+					return true;
+				}
+				catch (final Exception e) {
+					LogUtils.severe("Can not process attribute" + key + " = '" + value + "'", e);
+				}
+			}
+		}
+		return false;
+	}
+
+	private void readChildElements(final ElementFrame frame) throws XMLStreamException {
+		for (;;) {
+			switch (reader.next()) {
+				case XMLStreamConstants.START_ELEMENT:
+					readElement(frame);
+					break;
+				case XMLStreamConstants.CHARACTERS:
+				case XMLStreamConstants.CDATA:
+				case XMLStreamConstants.SPACE:
+					if (frame.keepsUnknownElements) {
+						addText(frame.dom());
+					}
+					break;
+				case XMLStreamConstants.END_ELEMENT:
+					if (frame.keepsUnknownElements) {
+						moveSingleTextChildToContent(frame.dom());
+					}
+					return;
+				default:
+					break;
+			}
+		}
+	}
+
+	private void readUnknownElementContent(final XMLElement dom) throws XMLStreamException {
+		for (;;) {
+			switch (reader.next()) {
+				case XMLStreamConstants.START_ELEMENT:
+					final XMLElement child = createElement();
+					addAttributes(null, null, child);
+					dom.addChild(child);
+					readUnknownElementContent(child);
+					break;
+				case XMLStreamConstants.CHARACTERS:
+				case XMLStreamConstants.CDATA:
+				case XMLStreamConstants.SPACE:
+					addText(dom);
+					break;
+				case XMLStreamConstants.END_ELEMENT:
+					moveSingleTextChildToContent(dom);
+					return;
+				default:
+					break;
+			}
+		}
+	}
+
+	private void addText(final XMLElement dom) {
+		if (reader.isWhiteSpace()) {
+			return;
+		}
+		final Location location = reader.getLocation();
+		final XMLElement text = new XMLElement(null, location.getSystemId(), location.getLineNumber());
+		text.setContent(reader.getText());
+		dom.addChild(text);
+	}
+
+	private void moveSingleTextChildToContent(final XMLElement dom) {
+		if (dom.getChildrenCount() == 1) {
+			final XMLElement child = dom.getChildAtIndex(0);
+			if (child.getName() == null) {
+				dom.setContent(child.getContent());
+				dom.removeChildAtIndex(0);
+			}
+		}
+	}
+
+	private void skipElementContent() throws XMLStreamException {
+		int level = 1;
+		while (level > 0) {
+			switch (reader.next()) {
+				case XMLStreamConstants.START_ELEMENT:
+					level++;
+					break;
+				case XMLStreamConstants.END_ELEMENT:
+					level--;
+					break;
+				default:
+					break;
+			}
+		}
+	}
+
+	/**
+	 * returns the element content as it is written in the map like TreeXmlReader does,
+	 * or null for empty element tags.
+	 * The JDK StAX parser reports the position after the start and the end tag of an element.
+	 */
+	private String readContentAsString() throws XMLStreamException {
+		final String endTag = "</" + fullName();
+		final int contentStart = reader.getLocation().getCharacterOffset();
+		skipElementContent();
+		final int elementEnd = reader.getLocation().getCharacterOffset();
+		if (elementEnd == contentStart) {
+			return null;
+		}
+		final String elementContent = input.getOriginalText(contentStart, elementEnd);
+		final int contentEnd = elementContent.lastIndexOf(endTag, elementContent.length() - endTag.length() - 1);
+		if (contentEnd == -1) {
+			throw new XMLStreamException("End tag of element " + fullName() + " not found", reader.getLocation());
+		}
+		return elementContent.substring(0, contentEnd);
+	}
+}
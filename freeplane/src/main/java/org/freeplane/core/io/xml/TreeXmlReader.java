@@ -35,6 +35,7 @@ import org.freeplane.core.io.IAttributeHandler;
 import org.freeplane.core.io.IElementContentHandler;
 import org.freeplane.core.io.IElementDOMHandler;
 import org.freeplane.core.io.IElementHandler;
+import org.freeplane.core.io.ITreeReader;
 import org.freeplane.core.io.ListHashTable;
 import org.freeplane.core.io.ReadManager;
 import org.freeplane.core.util.LogUtils;
@@ -45,7 +46,7 @@ import org.freeplane.n3.nanoxml.StdXMLReader;
 import org.freeplane.n3.nanoxml.XMLElement;
 import org.freeplane.n3.nanoxml.XMLException;
 
-public class TreeXmlReader implements IXMLBuilder {
+public class TreeXmlReader implements IXMLBuilder, ITreeReader {
 	public static boolean xmlToBoolean(final String string) {
 		if (string == null) {
 			return false;
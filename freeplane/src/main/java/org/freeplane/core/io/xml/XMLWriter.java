@@ -218,6 +218,11 @@ class XMLWriter {
 	 * Writes a string encoding reserved characters.
 	 */
 	private void writeEncoded(final String str, final boolean atributeValue, final boolean xmlInclude) {
+		if (xmlInclude && !restrictedCharset) {
+			// nothing to encode, the string is passed to the writer as a whole
+			writer.write(str);
+			return;
+		}
 		for (int i = 0; i < str.length(); i++) {
 			final char c = str.charAt(i);
 			if (c > 0x7E) {
@@ -76,4 +76,13 @@ public class CompoundActor implements IActor {
 	public boolean isEmpty() {
 		return actors.size() == 0;
 	}
+
+	@Override
+	public long getEstimatedSize() {
+		long size = DEFAULT_ESTIMATED_SIZE;
+		for (final IActor a : actors) {
+			size += a.getEstimatedSize();
+		}
+		return size;
+	}
 }
@@ -20,6 +20,9 @@
 package org.freeplane.core.undo;
 
 public interface IActor {
+	/** approximate number of bytes kept by an actor without large payloads */
+	long DEFAULT_ESTIMATED_SIZE = 256;
+
 	void act();
 
 	String getDescription();
@@ -29,4 +32,13 @@ public interface IActor {
 	default boolean isReadonly() {
 		return false;
 	}
+
+	/** approximate number of bytes the undo history keeps alive by holding this actor */
+	default long getEstimatedSize() {
+		return DEFAULT_ESTIMATED_SIZE;
+	}
+
+	static long estimatedSizeOf(final Object text) {
+		return text instanceof CharSequence ? 2L * ((CharSequence) text).length() : 0;
+	}
 }
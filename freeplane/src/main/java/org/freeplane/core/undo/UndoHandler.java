@@ -28,6 +28,7 @@ import java.util.ListIterator;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 
+import org.freeplane.core.resources.ResourceController;
 import org.freeplane.core.util.LogUtils;
 import org.freeplane.features.map.IMapSelection;
 import org.freeplane.features.map.MapModel;
@@ -54,12 +55,13 @@ public class UndoHandler implements IUndoHandler {
 	private static class ActorList extends LinkedList<CompoundActor> {
 		private static final long serialVersionUID = 1L;
 		int commitDelay = COMMIT_DELAY;
+		long estimatedSize = 0;
 	}
 
-	/**
-	 *
-	 */
+	private static final String UNDO_LEVELS_PROPERTY = "undo_levels";
+	private static final String UNDO_MEMORY_LIMIT_PROPERTY = "undo_memory_limit";
 	private static final int MAX_ENTRIES = 100;
+	private static final long MEGABYTE = 1024 * 1024;
 	private static final long TIME_TO_BEGIN_NEW_ACTION = 100;
 	private boolean actionFrameStarted;
 	private ListIterator<CompoundActor> actorIterator;
@@ -112,6 +114,7 @@ public class UndoHandler implements IUndoHandler {
 			else {
 				if (actorList.size() > 0) {
 					actorList.clear();
+					actorList.estimatedSize = 0;
 					actorIterator = actorList.listIterator();
 				}
 				return;
@@ -122,6 +125,7 @@ public class UndoHandler implements IUndoHandler {
 			CompoundActor compoundActor = actorIterator.previous();
 			compoundActor.add(actor);
 			actorIterator.next();
+			actorList.estimatedSize += actor.getEstimatedSize();
 		}
 		else {
 			CompoundActor compoundActor = new CompoundActor();
@@ -133,17 +137,30 @@ public class UndoHandler implements IUndoHandler {
 			}
 			compoundActor.add(actor);
 			actorIterator.add(compoundActor);
-			final int maxEntries = UndoHandler.MAX_ENTRIES;
-			while (actorList.size() > maxEntries) {
-				actorList.removeFirst();
-				actorIterator = actorList.listIterator(actorList.size());
-			}
+			actorList.estimatedSize += compoundActor.getEstimatedSize();
 		}
+		removeOldestEntries();
 		startActionFrame();
 		timeOfLastAdd = currentTime;
 		fireStateChanged();
 	}
 
+	/** keeps the latest entry even if it alone exceeds the memory limit */
+	private void removeOldestEntries() {
+		final ResourceController resourceController = ResourceController.getResourceController();
+		final int maxEntries = resourceController.getIntProperty(UNDO_LEVELS_PROPERTY, MAX_ENTRIES);
+		final long maxSize = resourceController.getLongProperty(UNDO_MEMORY_LIMIT_PROPERTY, 0) * MEGABYTE;
+		boolean removed = false;
+		while (actorList.size() > 1
+		        && (actorList.size() > maxEntries || maxSize > 0 && actorList.estimatedSize > maxSize)) {
+			actorList.estimatedSize -= actorList.removeFirst().getEstimatedSize();
+			removed = true;
+		}
+		if (removed) {
+			actorIterator = actorList.listIterator(actorList.size());
+		}
+	}
+
 	private void fireStateChanged() {
 		for (final ChangeListener listener : listeners) {
 			listener.stateChanged(event);
@@ -253,7 +270,7 @@ public class UndoHandler implements IUndoHandler {
 
 	public void resetRedo() {
 		while (canRedo()) {
-			actorIterator.next();
+			actorList.estimatedSize -= actorIterator.next().getEstimatedSize();
 			actorIterator.remove();
 		}
 		fireStateChanged();
@@ -0,0 +1,109 @@
+package org.freeplane.core.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.BaseStream;
+import java.util.stream.Stream;
+
+/**
+ * Fork join pool for work which is split between the processors.
+ *
+ * The worker threads of {@link ForkJoinPool#commonPool()} have no permissions if a security manager is installed.
+ * The threads of this pool are created with the permissions of the freeplane core.
+ * Parallel streams started by a task of this pool run on this pool too.
+ */
+public class WorkerPool {
+	private static final AtomicInteger workerCounter = new AtomicInteger();
+	private static final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(),
+	    WorkerPool::newWorkerThread, null, false);
+
+	private static ForkJoinWorkerThread newWorkerThread(final ForkJoinPool pool) {
+		return AccessController.doPrivileged(new PrivilegedAction<ForkJoinWorkerThread>() {
+			@Override
+			public ForkJoinWorkerThread run() {
+				final ForkJoinWorkerThread thread = new ForkJoinWorkerThread(pool) {
+					// the constructor is protected
+				};
+				thread.setName("worker " + workerCounter.incrementAndGet());
+				return thread;
+			}
+		});
+	}
+
+	public static <T> ForkJoinTask<T> submit(final Callable<T> task) {
+		return pool.submit(task);
+	}
+
+	/** runs the task on the pool and waits for its completion, runtime exceptions thrown by the task are rethrown */
+	public static void invoke(final Runnable task) {
+		pool.invoke(ForkJoinTask.adapt(task));
+	}
+
+	/**
+	 * Returns a stream whose terminal operations run on this pool,
+	 * also for the streams returned by its intermediate operations.
+	 * Iterators and spliterators of the stream are evaluated by the calling thread.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> Stream<T> runTerminalOperationsOnPool(final Stream<T> stream) {
+		return (Stream<T>) runTerminalOperationsOnPool(Stream.class, stream);
+	}
+
+	private static Object runTerminalOperationsOnPool(final Class<?> streamInterface, final Object stream) {
+		return Proxy.newProxyInstance(WorkerPool.class.getClassLoader(), new Class<?>[] { streamInterface },
+		    new PoolStreamHandler(streamInterface, stream));
+	}
+
+	private static class PoolStreamHandler implements InvocationHandler {
+		private final Class<?> streamInterface;
+		private final Object stream;
+
+		PoolStreamHandler(final Class<?> streamInterface, final Object stream) {
+			this.streamInterface = streamInterface;
+			this.stream = stream;
+		}
+
+		@Override
+		public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+			final Class<?> returnType = method.getReturnType();
+			if (BaseStream.class.isAssignableFrom(returnType)) {
+				// methods like parallel() declared by BaseStream return the stream type of the proxy
+				final Class<?> resultInterface = returnType.isAssignableFrom(streamInterface) ? streamInterface
+				        : returnType;
+				return runTerminalOperationsOnPool(resultInterface, invokeOnStream(method, args));
+			}
+			final Class<?> declaringClass = method.getDeclaringClass();
+			if (declaringClass == Object.class || declaringClass == BaseStream.class
+			        || declaringClass == AutoCloseable.class || ForkJoinTask.getPool() == pool)
+				return invokeOnStream(method, args);
+			try {
+				return pool.submit(() -> invokeOnStream(method, args)).get();
+			}
+			catch (final ExecutionException e) {
+				throw e.getCause();
+			}
+		}
+
+		private Object invokeOnStream(final Method method, final Object[] args) throws Exception {
+			try {
+				return method.invoke(stream, args);
+			}
+			catch (final InvocationTargetException e) {
+				final Throwable cause = e.getCause();
+				if (cause instanceof Error)
+					throw (Error) cause;
+				throw (Exception) cause;
+			}
+		}
+	}
+}
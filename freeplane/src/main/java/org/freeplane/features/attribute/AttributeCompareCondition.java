@@ -105,6 +105,11 @@ public class AttributeCompareCondition extends CompareConditionAdapter {
 		return false;
 	}
 
+	@Override
+	public boolean checksLineageOnly() {
+		return true;
+	}
+
 	private boolean checkContent(Object content) {
 		compareTo(content);
 	    return isComparisonOK() &&  succeed == (getComparisonResult() == comparationResult);
@@ -91,6 +91,11 @@ public class AttributeContainsCondition extends StringConditionAdapter {
 		return false;
 	}
 
+	@Override
+	public boolean checksLineageOnly() {
+		return true;
+	}
+
 	private boolean checkText(String text) {
 	    return stringMatchingStrategy.matches(normalizedValue(), normalize(text), true);
     }
@@ -66,6 +66,11 @@ public class AttributeExistsCondition extends ASelectableCondition {
 		return false;
 	}
 
+	@Override
+	public boolean checksLineageOnly() {
+		return true;
+	}
+
 	@Override
 	protected String createDescription() {
 		final String simpleCondition = TextUtils.getText(ConditionFactory.FILTER_EXIST);
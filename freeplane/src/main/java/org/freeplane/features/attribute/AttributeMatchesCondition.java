@@ -90,6 +90,11 @@ public class AttributeMatchesCondition extends ASelectableCondition {
 		return false;
 	}
 
+	@Override
+	public boolean checksLineageOnly() {
+		return true;
+	}
+
 	private boolean checkText(String text) {
 	    return searchPattern.matcher(text).find();
     }
@@ -114,6 +114,8 @@ enum ExploringStep {
 		@Override
 		List<NodeModel> getNodes(NodeModel start, final NodeMatcher nodeMatcher, AccessedNodes accessedNodes) {
 			accessedNodes.accessBranch(start);
+			if(NodeTextIndex.isEnabled())
+				return NodeTextIndex.of(start.getMap()).findDescendants(start, nodeMatcher);
 			return NodeStream.of(start).skip(1).filter(nodeMatcher::matches).collect(Collectors.toList());
 		}
 	};
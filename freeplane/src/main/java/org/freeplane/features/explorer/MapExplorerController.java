@@ -27,6 +27,9 @@ public class MapExplorerController  implements IExtension{
 		final ReadManager readManager = mapController.getReadManager();
 		final WriteManager writeManager = mapController.getWriteManager();
 		final MapReader mapReader = mapController.getMapReader();
+		final NodeTextIndex.Updater indexUpdater = new NodeTextIndex.Updater();
+		mapController.addNodeChangeListener(indexUpdater);
+		mapController.addMapChangeListener(indexUpdater);
 		readManager.addAttributeHandler(NodeBuilder.XML_NODE, ALIAS, new IAttributeHandler() {
 			@Override
 			public void setAttribute(final Object node, final String value) {
@@ -1,6 +1,7 @@
 package org.freeplane.features.explorer;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
@@ -90,6 +91,19 @@ class NodeMatcher {
 			return matches(HtmlUtils.htmlToPlain(node.getText()));
 	}
 
+	Collection<NodeModel> indexedCandidates(NodeTextIndex index) {
+		switch (matchedElement) {
+		case ALIAS:
+			return index.nodesWithAlias(matchedString);
+		case TEXT:
+			return index.nodesWithText(matchedString);
+		case START:
+			return index.nodesWithTextStartingWith(matchedString);
+		default:
+			throw new IllegalArgumentException("Can not match nodes by index");
+		}
+	}
+
 	private boolean matches(NodeAlias alias) {
 		return alias != null && matchedString.equals(alias.value);
 	}
@@ -0,0 +1,177 @@
+package org.freeplane.features.explorer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.freeplane.core.extension.IExtension;
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.core.util.HtmlUtils;
+import org.freeplane.features.map.IMapChangeListener;
+import org.freeplane.features.map.INodeChangeListener;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeChangeEvent;
+import org.freeplane.features.map.NodeDeletionEvent;
+import org.freeplane.features.map.NodeModel;
+
+/**
+ * Inverted index of plain node texts and node aliases of a map used by map explorer descendant lookups.
+ *
+ * The index is built on its first use. After that it is kept up to date by node change events
+ * of the changed nodes and by insertions and deletions of branches. Found nodes are checked again
+ * by the node matcher and returned in the order of a depth first traversal.
+ */
+class NodeTextIndex implements IExtension {
+	static final String NODE_TEXT_INDEX_PROPERTY = "map_explorer_text_index";
+
+	static class Updater implements INodeChangeListener, IMapChangeListener {
+		@Override
+		public void nodeChanged(final NodeChangeEvent event) {
+			final NodeTextIndex index = existingIndex(event.getNode().getMap());
+			if (index != null)
+				index.updateIndexed(event.getNode());
+		}
+
+		@Override
+		public void onNodeInserted(final NodeModel parent, final NodeModel child, final int newIndex) {
+			final NodeTextIndex index = existingIndex(parent.getMap());
+			if (index != null)
+				index.addBranch(child);
+		}
+
+		@Override
+		public void onNodeDeleted(final NodeDeletionEvent nodeDeletionEvent) {
+			final NodeTextIndex index = existingIndex(nodeDeletionEvent.parent.getMap());
+			if (index != null)
+				index.removeBranch(nodeDeletionEvent.node);
+		}
+
+		private NodeTextIndex existingIndex(final MapModel map) {
+			return map != null ? map.getExtension(NodeTextIndex.class) : null;
+		}
+	}
+
+	private static class IndexedNode {
+		final String text;
+		final String alias;
+
+		IndexedNode(final String text, final String alias) {
+			this.text = text;
+			this.alias = alias;
+		}
+	}
+
+	private final TreeMap<String, Set<NodeModel>> nodesByText = new TreeMap<>();
+	private final Map<String, Set<NodeModel>> nodesByAlias = new HashMap<>();
+	private final Map<NodeModel, IndexedNode> indexedNodes = new HashMap<>();
+
+	static boolean isEnabled() {
+		return ResourceController.getResourceController().getBooleanProperty(NODE_TEXT_INDEX_PROPERTY);
+	}
+
+	static NodeTextIndex of(final MapModel map) {
+		synchronized (map) {
+			NodeTextIndex index = map.getExtension(NodeTextIndex.class);
+			if (index == null) {
+				index = new NodeTextIndex();
+				index.addBranch(map.getRootNode());
+				map.addExtension(index);
+			}
+			return index;
+		}
+	}
+
+	synchronized Collection<NodeModel> nodesWithText(final String text) {
+		return copyOf(nodesByText.get(text));
+	}
+
+	synchronized Collection<NodeModel> nodesWithTextStartingWith(final String prefix) {
+		final List<NodeModel> nodes = new ArrayList<>();
+		for (final Map.Entry<String, Set<NodeModel>> entry : nodesByText.tailMap(prefix).entrySet()) {
+			if (!entry.getKey().startsWith(prefix))
+				break;
+			nodes.addAll(entry.getValue());
+		}
+		return nodes;
+	}
+
+	synchronized Collection<NodeModel> nodesWithAlias(final String alias) {
+		return copyOf(nodesByAlias.get(alias));
+	}
+
+	/** returns matching descendants of the start node in depth first order */
+	List<NodeModel> findDescendants(final NodeModel start, final NodeMatcher nodeMatcher) {
+		final List<NodeModel> nodes = new ArrayList<>();
+		for (final NodeModel node : nodeMatcher.indexedCandidates(this)) {
+			if (node.isDescendantOf(start) && nodeMatcher.matches(node))
+				nodes.add(node);
+		}
+		if (nodes.size() > 1)
+			nodes.sort(NodeTextIndex::compareTreePositions);
+		return nodes;
+	}
+
+	private static int compareTreePositions(final NodeModel first, final NodeModel second) {
+		final NodeModel[] firstPath = first.getPathToRoot();
+		final NodeModel[] secondPath = second.getPathToRoot();
+		final int commonLength = Math.min(firstPath.length, secondPath.length);
+		for (int i = 1; i < commonLength; i++) {
+			if (firstPath[i] != secondPath[i]) {
+				final NodeModel parent = firstPath[i - 1];
+				return Integer.compare(parent.getIndex(firstPath[i]), parent.getIndex(secondPath[i]));
+			}
+		}
+		return Integer.compare(firstPath.length, secondPath.length);
+	}
+
+	private static Collection<NodeModel> copyOf(final Set<NodeModel> nodes) {
+		return nodes == null ? Collections.<NodeModel>emptyList() : new ArrayList<>(nodes);
+	}
+
+	synchronized void addBranch(final NodeModel node) {
+		update(node);
+		for (final NodeModel child : node.getChildren())
+			addBranch(child);
+	}
+
+	synchronized void removeBranch(final NodeModel node) {
+		remove(node);
+		for (final NodeModel child : node.getChildren())
+			removeBranch(child);
+	}
+
+	synchronized void updateIndexed(final NodeModel node) {
+		if (indexedNodes.containsKey(node))
+			update(node);
+	}
+
+	private void update(final NodeModel node) {
+		remove(node);
+		final IndexedNode indexedNode = new IndexedNode(HtmlUtils.htmlToPlain(node.getText()), NodeAlias.getAlias(node));
+		indexedNodes.put(node, indexedNode);
+		nodesByText.computeIfAbsent(indexedNode.text, key -> new HashSet<>()).add(node);
+		if (!indexedNode.alias.isEmpty())
+			nodesByAlias.computeIfAbsent(indexedNode.alias, key -> new HashSet<>()).add(node);
+	}
+
+	private void remove(final NodeModel node) {
+		final IndexedNode indexedNode = indexedNodes.remove(node);
+		if (indexedNode == null)
+			return;
+		removeFrom(nodesByText, indexedNode.text, node);
+		if (!indexedNode.alias.isEmpty())
+			removeFrom(nodesByAlias, indexedNode.alias, node);
+	}
+
+	private static void removeFrom(final Map<String, Set<NodeModel>> index, final String key, final NodeModel node) {
+		final Set<NodeModel> nodes = index.get(key);
+		if (nodes != null && nodes.remove(node) && nodes.isEmpty())
+			index.remove(key);
+	}
+}
@@ -0,0 +1,132 @@
+package org.freeplane.features.export.mindmapmode;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+import org.freeplane.features.map.MapWriter;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.DTDHandler;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXNotRecognizedException;
+import org.xml.sax.SAXNotSupportedException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.ext.LexicalHandler;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Reports the xml of the branches to the transformer while the branches are written,
+ * instead of parsing xml text written before.
+ */
+class BranchXmlReader implements XMLReader {
+	private static final String NAMESPACES_FEATURE = "http://xml.org/sax/features/namespaces";
+	private static final String NAMESPACE_PREFIXES_FEATURE = "http://xml.org/sax/features/namespace-prefixes";
+	private static final String LEXICAL_HANDLER_PROPERTY = "http://xml.org/sax/properties/lexical-handler";
+	private final BranchXmlWriter branchXmlWriter;
+	private final MapWriter.Mode mode;
+	private ContentHandler contentHandler;
+	private LexicalHandler lexicalHandler;
+	private DTDHandler dtdHandler;
+	private EntityResolver entityResolver;
+	private ErrorHandler errorHandler;
+
+	BranchXmlReader(BranchXmlWriter branchXmlWriter, MapWriter.Mode mode) {
+		this.branchXmlWriter = branchXmlWriter;
+		this.mode = mode;
+	}
+
+	@Override
+	public boolean getFeature(String name) throws SAXNotRecognizedException {
+		if (NAMESPACES_FEATURE.equals(name))
+			return true;
+		if (NAMESPACE_PREFIXES_FEATURE.equals(name))
+			return false;
+		throw new SAXNotRecognizedException(name);
+	}
+
+	@Override
+	public void setFeature(String name, boolean value) throws SAXNotRecognizedException, SAXNotSupportedException {
+		if (getFeature(name) != value)
+			throw new SAXNotSupportedException(name + "=" + value);
+	}
+
+	@Override
+	public Object getProperty(String name) throws SAXNotRecognizedException {
+		if (LEXICAL_HANDLER_PROPERTY.equals(name))
+			return lexicalHandler;
+		throw new SAXNotRecognizedException(name);
+	}
+
+	@Override
+	public void setProperty(String name, Object value) throws SAXNotRecognizedException, SAXNotSupportedException {
+		if (! LEXICAL_HANDLER_PROPERTY.equals(name))
+			throw new SAXNotRecognizedException(name);
+		if (value != null && ! (value instanceof LexicalHandler))
+			throw new SAXNotSupportedException(name);
+		lexicalHandler = (LexicalHandler) value;
+	}
+
+	@Override
+	public void setEntityResolver(EntityResolver resolver) {
+		this.entityResolver = resolver;
+	}
+
+	@Override
+	public EntityResolver getEntityResolver() {
+		return entityResolver;
+	}
+
+	@Override
+	public void setDTDHandler(DTDHandler handler) {
+		this.dtdHandler = handler;
+	}
+
+	@Override
+	public DTDHandler getDTDHandler() {
+		return dtdHandler;
+	}
+
+	@Override
+	public void setContentHandler(ContentHandler handler) {
+		this.contentHandler = handler;
+	}
+
+	@Override
+	public ContentHandler getContentHandler() {
+		return contentHandler;
+	}
+
+	@Override
+	public void setErrorHandler(ErrorHandler handler) {
+		this.errorHandler = handler;
+	}
+
+	@Override
+	public ErrorHandler getErrorHandler() {
+		return errorHandler;
+	}
+
+	@Override
+	public void parse(InputSource input) throws IOException, SAXException {
+		parse();
+	}
+
+	@Override
+	public void parse(String systemId) throws IOException, SAXException {
+		parse();
+	}
+
+	private void parse() throws IOException, SAXException {
+		final ContentHandler handler = contentHandler != null ? contentHandler : new DefaultHandler();
+		handler.startDocument();
+		final SaxEventsWriter saxEventsWriter = new SaxEventsWriter(handler, lexicalHandler);
+		try (Writer writer = new BufferedWriter(saxEventsWriter)) {
+			branchXmlWriter.writeXml(writer, mode);
+		}
+		saxEventsWriter.checkFailure();
+		handler.endDocument();
+	}
+}
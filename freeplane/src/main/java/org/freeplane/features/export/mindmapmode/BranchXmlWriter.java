@@ -4,9 +4,16 @@ import java.io.IOException;
 import java.io.Writer;
 import java.util.List;
 
+import javax.xml.transform.Result;
+import javax.xml.transform.Source;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.sax.SAXSource;
+
 import org.freeplane.features.map.MapWriter;
 import org.freeplane.features.map.NodeModel;
 import org.freeplane.features.mode.Controller;
+import org.xml.sax.InputSource;
 
 class BranchXmlWriter{
 	private final List<NodeModel> branches;
@@ -32,4 +39,16 @@ class BranchXmlWriter{
 			throw new RuntimeException(e);
 		}
 	}
+
+	/**
+	 * The transformer receives the branches while they are written, so that the whole xml text is never kept in memory.
+	 * Each transformation writes the branches again.
+	 */
+	Source toSource(MapWriter.Mode mode) {
+		return new SAXSource(new BranchXmlReader(this, mode), new InputSource());
+	}
+
+	void transform(Transformer transformer, Result result, MapWriter.Mode mode) throws TransformerException {
+		transformer.transform(toSource(mode), result);
+	}
 }
@@ -84,6 +84,9 @@ public class ExportToImage implements IExportEngine {
 		catch (final OutOfMemoryError ex) {
 			UITools.errorMessage(TextUtils.getText("out_of_memory"));
 		}
+		finally {
+			ImageCreator.release(image);
+		}
 	}
 
 	public boolean exportToImage(final RenderedImage image, File chosenFile) {
@@ -102,7 +105,7 @@ public class ExportToImage implements IExportEngine {
 				try ( final FileOutputStream outFile = new FileOutputStream(chosenFile);
 		              final ImageOutputStream stream = ImageIO.createImageOutputStream(outFile);
 				){
-					writer.setOutput(ImageIO.createImageOutputStream(outFile));
+					writer.setOutput(stream);
 					writer.write(metadata, new IIOImage(image, null, metadata), writeParam);
 					break;
 				}
@@ -18,15 +18,11 @@
 package org.freeplane.features.export.mindmapmode;
 
 import java.awt.image.RenderedImage;
-import java.io.BufferedInputStream;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStreamWriter;
-import java.io.StringReader;
-import java.io.StringWriter;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
@@ -42,12 +38,9 @@ import javax.swing.JOptionPane;
 import javax.swing.ListModel;
 import javax.swing.filechooser.FileFilter;
 import javax.xml.transform.Result;
-import javax.xml.transform.Source;
 import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.TransformerFactoryConfigurationError;
 import javax.xml.transform.stream.StreamResult;
-import javax.xml.transform.stream.StreamSource;
 
 import org.apache.commons.lang.StringUtils;
 import org.freeplane.core.resources.ResourceController;
@@ -165,6 +158,9 @@ public class ExportWithXSLT implements IExportEngine {
 			LogUtils.severe(e1);
 			return false;
 		}
+		finally {
+			ImageCreator.release(image);
+		}
 	}
 
 	/**
@@ -178,12 +174,6 @@ public class ExportWithXSLT implements IExportEngine {
 		return areaCode;
 	}
 
-	private String getMapXml(List<NodeModel> nodes, final Mode mode) throws IOException {
-		final StringWriter writer = new StringWriter();
-		new BranchXmlWriter(nodes).writeXml(writer, mode);
-		return writer.getBuffer().toString();
-	}
-
 	String getProperty(final String key) {
 		final String property = getProperty(key, null);
 		if (property == null)
@@ -273,19 +263,15 @@ public class ExportWithXSLT implements IExportEngine {
 	private boolean transformMapWithXslt(List<NodeModel> nodes, final String xsltFileName, final File saveFile, final String areaCode,
 										 final Mode mode, String[] parameters) throws IOException,
             TransformerFactoryConfigurationError {
-	    final String map = getMapXml(nodes, mode);
-		final StringReader reader = new StringReader(map);
 		ResourceController resourceController = ResourceController.getResourceController();
 		final URL xsltUrl = resourceController.getResource(xsltFileName);
 		if (xsltUrl == null) {
 			LogUtils.severe("Can't find " + xsltFileName + " as resource.");
 			throw new IllegalArgumentException("Can't find " + xsltFileName + " as resource.");
 		}
-		try (InputStream xsltFile = new BufferedInputStream(xsltUrl.openStream())){
-            final Source xsltSource = new StreamSource(xsltFile);
+		try {
             final Result result = new StreamResult(saveFile);
-			final TransformerFactory transFact = TransformerFactory.newInstance();
-			final Transformer trans = transFact.newTransformer(xsltSource);
+			final Transformer trans = XsltTemplatesCache.getTemplates(xsltUrl).newTransformer();
 			trans.setParameter("file_ref", saveFile.getAbsoluteFile().toURI().toString());
 			final String fileName = saveFile.getName();
 			final String fileNameEncoded = toRelativeUri(fileName);
@@ -305,7 +291,7 @@ public class ExportWithXSLT implements IExportEngine {
 
 			}
 			trans.setParameter("propertyList", sb.toString());
-			trans.transform(new StreamSource(reader), result);
+			new BranchXmlWriter(nodes).transform(trans, result, mode);
 		}
 		catch (final Exception e) {
 			LogUtils.warn(e);
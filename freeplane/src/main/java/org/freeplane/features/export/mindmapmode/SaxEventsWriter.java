@@ -0,0 +1,353 @@
+package org.freeplane.features.export.mindmapmode;
+
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.ext.LexicalHandler;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.NamespaceSupport;
+
+/**
+ * Turns xml text into SAX events while it is written, so that the xml never has to be kept in memory as a whole.
+ *
+ * It understands the markup written by the map writer: elements, character and entity references,
+ * CDATA sections, comments, processing instructions and a DOCTYPE declaring the nbsp entity.
+ * Markup is reported as soon as it is complete, text as soon as the following markup starts.
+ *
+ * Because the map writer ignores exceptions of its writer, failures are kept until {@link #checkFailure()}.
+ */
+class SaxEventsWriter extends Writer {
+	private static final Map<String, String> ENTITIES;
+	static {
+		final Map<String, String> entities = new HashMap<>();
+		entities.put("lt", "<");
+		entities.put("gt", ">");
+		entities.put("amp", "&");
+		entities.put("apos", "'");
+		entities.put("quot", "\"");
+		entities.put("nbsp", "\u00a0");
+		ENTITIES = Collections.unmodifiableMap(entities);
+	}
+
+	private final ContentHandler contentHandler;
+	private final LexicalHandler lexicalHandler;
+	private final StringBuilder buffer;
+	private final Deque<String> openElements;
+	private final NamespaceSupport namespaces;
+	private SAXException failure;
+	private boolean closed;
+	private boolean rootElementStarted;
+
+	SaxEventsWriter(ContentHandler contentHandler, LexicalHandler lexicalHandler) {
+		this.contentHandler = contentHandler;
+		this.lexicalHandler = lexicalHandler;
+		this.buffer = new StringBuilder();
+		this.openElements = new ArrayDeque<>();
+		this.namespaces = new NamespaceSupport();
+	}
+
+	@Override
+	public void write(char[] cbuf, int off, int len) {
+		if (failure != null || closed)
+			return;
+		buffer.append(cbuf, off, len);
+		processBuffer(false);
+	}
+
+	@Override
+	public void flush() {
+	}
+
+	@Override
+	public void close() {
+		if (closed)
+			return;
+		if (failure == null) {
+			processBuffer(true);
+			if (failure == null && ! openElements.isEmpty())
+				failure = new SAXException("Element " + openElements.peek() + " is not closed");
+		}
+		closed = true;
+	}
+
+	void checkFailure() throws SAXException {
+		if (failure != null)
+			throw failure;
+	}
+
+	private void processBuffer(boolean atEnd) {
+		int position = 0;
+		try {
+			while (position < buffer.length()) {
+				final int next;
+				if (buffer.charAt(position) == '<')
+					next = processMarkup(position);
+				else {
+					int textEnd = buffer.indexOf("<", position);
+					if (textEnd == -1) {
+						if (! atEnd)
+							break;
+						textEnd = buffer.length();
+					}
+					processText(position, textEnd);
+					next = textEnd;
+				}
+				if (next == -1)
+					break;
+				position = next;
+			}
+			buffer.delete(0, position);
+			if (atEnd && buffer.length() > 0)
+				throw new SAXException("Incomplete markup " + buffer);
+		}
+		catch (SAXException e) {
+			failure = e;
+			buffer.setLength(0);
+		}
+	}
+
+	/** @return the position after the markup or -1 if the markup is not complete yet */
+	private int processMarkup(int start) throws SAXException {
+		if (startsWith(start, "<!--")) {
+			final int end = buffer.indexOf("-->", start + 4);
+			if (end == -1)
+				return -1;
+			if (lexicalHandler != null) {
+				final char[] comment = buffer.substring(start + 4, end).toCharArray();
+				lexicalHandler.comment(comment, 0, comment.length);
+			}
+			return end + 3;
+		}
+		if (startsWith(start, "<![CDATA[")) {
+			final int end = buffer.indexOf("]]>", start + 9);
+			if (end == -1)
+				return -1;
+			checkInsideRootElement();
+			if (lexicalHandler != null)
+				lexicalHandler.startCDATA();
+			characters(normalizeLineEnds(buffer.substring(start + 9, end)));
+			if (lexicalHandler != null)
+				lexicalHandler.endCDATA();
+			return end + 3;
+		}
+		if (startsWith(start, "<!DOCTYPE"))
+			return skipDoctype(start);
+		if (startsWith(start, "<?")) {
+			final int end = buffer.indexOf("?>", start + 2);
+			if (end == -1)
+				return -1;
+			processInstruction(buffer.substring(start + 2, end));
+			return end + 2;
+		}
+		if (startsWith(start, "</")) {
+			final int end = buffer.indexOf(">", start + 2);
+			if (end == -1)
+				return -1;
+			endElement(buffer.substring(start + 2, end).trim());
+			return end + 1;
+		}
+		return processStartTag(start);
+	}
+
+	private boolean startsWith(int start, String prefix) {
+		final int end = start + prefix.length();
+		return end <= buffer.length() && buffer.substring(start, end).equals(prefix);
+	}
+
+	/** the only declarations written by the map writer are the predefined nbsp entity */
+	private int skipDoctype(int start) {
+		final int end = buffer.indexOf(">", start);
+		if (end == -1)
+			return -1;
+		final int subsetStart = buffer.indexOf("[", start);
+		if (subsetStart == -1 || subsetStart > end)
+			return end + 1;
+		for (int subsetEnd = buffer.indexOf("]", subsetStart); subsetEnd != -1; subsetEnd = buffer.indexOf("]", subsetEnd + 1)) {
+			int position = subsetEnd + 1;
+			while (position < buffer.length() && Character.isWhitespace(buffer.charAt(position)))
+				position++;
+			if (position < buffer.length() && buffer.charAt(position) == '>')
+				return position + 1;
+		}
+		return -1;
+	}
+
+	private void processInstruction(String instruction) throws SAXException {
+		int targetEnd = 0;
+		while (targetEnd < instruction.length() && ! Character.isWhitespace(instruction.charAt(targetEnd)))
+			targetEnd++;
+		final String target = instruction.substring(0, targetEnd);
+		if (target.equals("xml"))
+			return;
+		contentHandler.processingInstruction(target, instruction.substring(targetEnd).trim());
+	}
+
+	private int processStartTag(int start) throws SAXException {
+		char quote = 0;
+		for (int position = start + 1; position < buffer.length(); position++) {
+			final char c = buffer.charAt(position);
+			if (quote != 0) {
+				if (c == quote)
+					quote = 0;
+			}
+			else if (c == '"' || c == '\'')
+				quote = c;
+			else if (c == '>') {
+				final boolean isEmpty = buffer.charAt(position - 1) == '/';
+				final String qName = startElement(buffer.substring(start + 1, isEmpty ? position - 1 : position));
+				if (isEmpty)
+					endElement(qName);
+				return position + 1;
+			}
+		}
+		return -1;
+	}
+
+	private String startElement(String tag) throws SAXException {
+		int position = 0;
+		while (position < tag.length() && ! Character.isWhitespace(tag.charAt(position)))
+			position++;
+		final String qName = tag.substring(0, position);
+		if (qName.isEmpty())
+			throw new SAXException("Element name expected in <" + tag + ">");
+		if (openElements.isEmpty() && rootElementStarted)
+			throw new SAXException("Second root element " + qName);
+		namespaces.pushContext();
+		final AttributesImpl rawAttributes = new AttributesImpl();
+		for (;;) {
+			while (position < tag.length() && Character.isWhitespace(tag.charAt(position)))
+				position++;
+			if (position == tag.length())
+				break;
+			final int nameStart = position;
+			while (position < tag.length() && tag.charAt(position) != '=' && ! Character.isWhitespace(tag.charAt(position)))
+				position++;
+			final String name = tag.substring(nameStart, position);
+			while (position < tag.length() && Character.isWhitespace(tag.charAt(position)))
+				position++;
+			if (position + 1 >= tag.length() || tag.charAt(position) != '=')
+				throw new SAXException("Value of attribute " + name + " expected in <" + tag + ">");
+			position++;
+			while (position < tag.length() && Character.isWhitespace(tag.charAt(position)))
+				position++;
+			final char quote = position < tag.length() ? tag.charAt(position) : 0;
+			final int valueEnd = quote == '"' || quote == '\'' ? tag.indexOf(quote, position + 1) : -1;
+			if (valueEnd == -1)
+				throw new SAXException("Quoted value of attribute " + name + " expected in <" + tag + ">");
+			final String value = resolveReferences(tag.substring(position + 1, valueEnd), true);
+			position = valueEnd + 1;
+			if (name.equals("xmlns") || name.startsWith("xmlns:")) {
+				final String prefix = name.equals("xmlns") ? "" : name.substring(6);
+				namespaces.declarePrefix(prefix, value);
+				contentHandler.startPrefixMapping(prefix, value);
+			}
+			else
+				rawAttributes.addAttribute("", "", name, "CDATA", value);
+		}
+		final AttributesImpl attributes = new AttributesImpl();
+		for (int i = 0; i < rawAttributes.getLength(); i++) {
+			final String[] name = processName(rawAttributes.getQName(i), true);
+			attributes.addAttribute(name[0], name[1], name[2], "CDATA", rawAttributes.getValue(i));
+		}
+		final String[] name = processName(qName, false);
+		openElements.push(qName);
+		rootElementStarted = true;
+		contentHandler.startElement(name[0], name[1], name[2], attributes);
+		return qName;
+	}
+
+	private void endElement(String qName) throws SAXException {
+		if (! qName.equals(openElements.peek()))
+			throw new SAXException("End tag " + qName + " does not match start tag " + openElements.peek());
+		final String[] name = processName(qName, false);
+		openElements.pop();
+		contentHandler.endElement(name[0], name[1], name[2]);
+		for (Enumeration<?> prefixes = namespaces.getDeclaredPrefixes(); prefixes.hasMoreElements();)
+			contentHandler.endPrefixMapping((String) prefixes.nextElement());
+		namespaces.popContext();
+	}
+
+	private String[] processName(String qName, boolean isAttribute) throws SAXException {
+		final String[] name = namespaces.processName(qName, new String[3], isAttribute);
+		if (name == null)
+			throw new SAXException("Undeclared namespace prefix in " + qName);
+		return name.clone();
+	}
+
+	private void processText(int start, int end) throws SAXException {
+		if (openElements.isEmpty()) {
+			for (int i = start; i < end; i++) {
+				if (! Character.isWhitespace(buffer.charAt(i)))
+					throw new SAXException("Text outside of the root element");
+			}
+			return;
+		}
+		characters(resolveReferences(buffer.substring(start, end), false));
+	}
+
+	private void checkInsideRootElement() throws SAXException {
+		if (openElements.isEmpty())
+			throw new SAXException("Text outside of the root element");
+	}
+
+	private void characters(String text) throws SAXException {
+		final char[] chars = text.toCharArray();
+		contentHandler.characters(chars, 0, chars.length);
+	}
+
+	private static String normalizeLineEnds(String text) {
+		return text.indexOf('\r') == -1 ? text : text.replace("\r\n", "\n").replace('\r', '\n');
+	}
+
+	private static String resolveReferences(String text, boolean isAttributeValue) throws SAXException {
+		final String normalizedText = normalizeLineEnds(text);
+		if (normalizedText.indexOf('&') == -1 && ! (isAttributeValue && containsWhitespaceControl(normalizedText)))
+			return normalizedText;
+		final StringBuilder result = new StringBuilder(normalizedText.length());
+		for (int i = 0; i < normalizedText.length(); i++) {
+			final char c = normalizedText.charAt(i);
+			if (c == '&') {
+				final int referenceEnd = normalizedText.indexOf(';', i);
+				if (referenceEnd == -1)
+					throw new SAXException("Unterminated reference in " + text);
+				final String reference = normalizedText.substring(i + 1, referenceEnd);
+				if (reference.startsWith("#"))
+					result.appendCodePoint(parseCharacterReference(reference));
+				else {
+					final String entity = ENTITIES.get(reference);
+					if (entity == null)
+						throw new SAXException("Undeclared entity " + reference);
+					result.append(entity);
+				}
+				i = referenceEnd;
+			}
+			else if (isAttributeValue && (c == '\n' || c == '\t'))
+				result.append(' ');
+			else
+				result.append(c);
+		}
+		return result.toString();
+	}
+
+	private static boolean containsWhitespaceControl(String text) {
+		return text.indexOf('\n') != -1 || text.indexOf('\t') != -1;
+	}
+
+	private static int parseCharacterReference(String reference) throws SAXException {
+		try {
+			if (reference.startsWith("#x"))
+				return Integer.parseInt(reference.substring(2), 16);
+			return Integer.parseInt(reference.substring(1));
+		}
+		catch (NumberFormatException e) {
+			throw new SAXException("Invalid character reference " + reference);
+		}
+	}
+}
@@ -4,19 +4,14 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.FilePermission;
 import java.io.OutputStream;
-import java.io.StringReader;
-import java.io.StringWriter;
 import java.security.Permission;
 import java.security.Policy;
 import java.security.ProtectionDomain;
 import java.util.List;
 
 import javax.xml.transform.Result;
-import javax.xml.transform.Source;
 import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.stream.StreamResult;
-import javax.xml.transform.stream.StreamSource;
 
 import org.freeplane.core.ui.components.UITools;
 import org.freeplane.core.util.LogUtils;
@@ -84,15 +79,12 @@ public class XsltExportEngine implements IExportEngine {
 	final private File xsltFile;
 	
 	public void export(List<NodeModel> branches, File toFile) {
-		final Source xsltSource = new StreamSource(xsltFile);
-		final Source xmlSource = getMapXml(branches);
 		final XsltExportPolicy xsltExportPolicy = new XsltExportPolicy();
 		Policy.setPolicy(xsltExportPolicy);
         try (OutputStream outputStream = new FileOutputStream(toFile)){
         	final Result result = new StreamResult(outputStream);
-        	final TransformerFactory transFact = TransformerFactory.newInstance();
-        	final Transformer trans = transFact.newTransformer(xsltSource);
-        	trans.transform(xmlSource, result);
+        	final Transformer trans = XsltTemplatesCache.getTemplates(xsltFile.toURI().toURL()).newTransformer();
+        	new BranchXmlWriter(branches).transform(trans, result, Mode.EXPORT);
         }
         catch (final Exception e) {
         	UITools.errorMessage(TextUtils.getText("export_failed"));
@@ -102,11 +94,4 @@ public class XsltExportEngine implements IExportEngine {
         	xsltExportPolicy.remove();
         }
 	}
-
-	private StreamSource getMapXml(final List<NodeModel> branches) {
-		final StringWriter writer = new StringWriter();
-		new BranchXmlWriter(branches).writeXml(writer, Mode.EXPORT);
-		final StringReader stringReader = new StringReader(writer.getBuffer().toString());
-		return new StreamSource(stringReader);
-	}
 }
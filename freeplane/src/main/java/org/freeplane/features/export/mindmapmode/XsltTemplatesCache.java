@@ -0,0 +1,59 @@
+package org.freeplane.features.export.mindmapmode;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamSource;
+
+import org.freeplane.core.util.Compat;
+
+/**
+ * Keeps compiled stylesheets, so that repeated exports only compile a stylesheet again
+ * after its file has been modified.
+ *
+ * Stylesheet files are checked by their modification time.
+ * Other stylesheets, like the ones bundled with freeplane, can not change while it runs and are compiled once.
+ */
+class XsltTemplatesCache {
+	private static class CompiledStylesheet {
+		final long lastModified;
+		final Templates templates;
+
+		CompiledStylesheet(long lastModified, Templates templates) {
+			this.lastModified = lastModified;
+			this.templates = templates;
+		}
+	}
+
+	private static final Map<String, CompiledStylesheet> stylesheets = new ConcurrentHashMap<>();
+
+	static Templates getTemplates(URL stylesheet) throws IOException, TransformerConfigurationException {
+		final String systemId = stylesheet.toExternalForm();
+		final long lastModified = lastModified(stylesheet);
+		final CompiledStylesheet cached = stylesheets.get(systemId);
+		if (cached != null && cached.lastModified == lastModified)
+			return cached.templates;
+		try (InputStream input = new BufferedInputStream(stylesheet.openStream())) {
+			final Templates templates = TransformerFactory.newInstance()
+			    .newTemplates(new StreamSource(input, systemId));
+			stylesheets.put(systemId, new CompiledStylesheet(lastModified, templates));
+			return templates;
+		}
+	}
+
+	/** returns 0 for stylesheets which are not files */
+	private static long lastModified(URL stylesheet) {
+		if (! "file".equalsIgnoreCase(stylesheet.getProtocol()))
+			return 0;
+		final File file = Compat.urlToFile(stylesheet);
+		return file != null ? file.lastModified() : 0;
+	}
+}
@@ -19,13 +19,18 @@
  */
 package org.freeplane.features.filter;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
-import java.util.WeakHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
 
 import javax.swing.Icon;
 
 import org.freeplane.core.extension.IExtension;
 import org.freeplane.core.resources.ResourceController;
+import org.freeplane.core.util.WorkerPool;
 import org.freeplane.features.filter.condition.ICondition;
 import org.freeplane.features.filter.hidden.NodeVisibility;
 import org.freeplane.features.filter.hidden.NodeVisibilityConfiguration;
@@ -37,19 +42,66 @@ import org.freeplane.features.mode.Controller;
  * @author Dimitry Polivaev
  */
 public class Filter implements IExtension {
-    
+    public static final String PARALLEL_FILTERING_PROPERTY = "parallel_filtering";
+
     public static Filter createTransparentFilter() {
 		final ResourceController resourceController = ResourceController.getResourceController();
 		return new Filter(null, false, resourceController.getBooleanProperty("filter.showAncestors"), resourceController.getBooleanProperty("filter.showDescendants"), false, null);
 	}
 
+	/**
+	 * Stores the filter info flags of the nodes of one map in a byte array indexed by node ordinal.
+	 * The flags are stored xor-ed with the initial value, so that unused entries read as not checked.
+	 */
 	static class FilterInfoAccessor {
-	    private final WeakHashMap<NodeModel, FilterInfo> filterInfos = new WeakHashMap<>();
+	    private static final byte[] NO_INFOS = new byte[0];
+	    private MapModel map;
+	    private byte[] infos = NO_INFOS;
+
+	    int getInfo(NodeModel node) {
+	        final int ordinal = node.getOrdinal();
+	        if (ordinal < 0 || ordinal >= infos.length || node.getMap() != map)
+	            return FilterInfo.FILTER_SHOW_AS_INITIAL_VALUE;
+	        return infos[ordinal] ^ FilterInfo.FILTER_SHOW_AS_INITIAL_VALUE;
+	    }
+
+	    void setInfo(NodeModel node, int info) {
+	        final int ordinal = node.getOrdinal();
+	        if (ordinal < 0)
+	            return;
+	        final MapModel nodeMap = node.getMap();
+	        if (nodeMap != map) {
+	            map = nodeMap;
+	            infos = NO_INFOS;
+	        }
+	        if (ordinal >= infos.length)
+	            infos = Arrays.copyOf(infos, Math.max(ordinal + 1, infos.length * 3 / 2 + 16));
+	        infos[ordinal] = (byte) (info ^ FilterInfo.FILTER_SHOW_AS_INITIAL_VALUE);
+	    }
+
+	    void addInfo(NodeModel node, int flag) {
+	        setInfo(node, FilterInfo.add(getInfo(node), flag));
+	    }
+	}
 
-	    FilterInfo getFilterInfo(NodeModel node) {
-	        return filterInfos.computeIfAbsent(node, x -> new FilterInfo());
+	private static class NodeFilterInfo extends FilterInfo {
+	    private final FilterInfoAccessor accessor;
+	    private final NodeModel node;
+
+	    NodeFilterInfo(FilterInfoAccessor accessor, NodeModel node) {
+	        this.accessor = accessor;
+	        this.node = node;
+	    }
+
+	    @Override
+	    int getInfo() {
+	        return accessor.getInfo(node);
 	    }
 
+	    @Override
+	    void setInfo(int info) {
+	        accessor.setInfo(node, info);
+	    }
 	}
 
 	static public Filter createFilter(final ICondition condition, final boolean areAncestorsShown,
@@ -64,6 +116,8 @@ public class Filter implements IExtension {
     private final boolean hidesMatchingNodes;
     private final boolean appliesToVisibleNodesOnly;
     private final Filter baseFilter;
+    private boolean[] conditionResults;
+    private int conditionResultIndex;
 
 	public Filter(final ICondition condition, final boolean hidesMatchingNodes, final boolean areAncestorsShown,
 	              final boolean areDescendantsShown, final boolean appliesToVisibleNodesOnly, Filter baseFilter) {
@@ -85,7 +139,7 @@ public class Filter implements IExtension {
 	}
 
 	void addFilterResult(final NodeModel node, final int flag) {
-		getFilterInfo(node).add(flag);
+		accessor.addInfo(node, flag);
 	}
 
 	protected boolean appliesToVisibleNodesOnly() {
@@ -111,21 +165,77 @@ public class Filter implements IExtension {
 		final NodeModel root = map.getRootNode();
 		resetFilter(root);
 		boolean rootSatisfiesFilter = checkNode(root);
-		if (filterChildren(root, rootSatisfiesFilter, false)) {
-			addFilterResult(root, FilterInfo.FILTER_SHOW_AS_ANCESTOR);
+		try {
+			checkDescendantsInParallel(root, false);
+			if (filterChildren(root, rootSatisfiesFilter, false)) {
+				addFilterResult(root, FilterInfo.FILTER_SHOW_AS_ANCESTOR);
+			}
+		}
+		finally {
+			conditionResults = null;
 		}
 	}
 
 	public void calculateFilterResults(final NodeModel root) {
 	    this.accessor = new FilterInfoAccessor();
-	    if(applyFilter(root, false, false, false))
-	    	addFilterResult(root, FilterInfo.FILTER_SHOW_AS_ANCESTOR);
+	    try {
+	    	checkDescendantsInParallel(root, true);
+	    	if(applyFilter(root, false, false, false))
+	    		addFilterResult(root, FilterInfo.FILTER_SHOW_AS_ANCESTOR);
+	    }
+	    finally {
+	    	conditionResults = null;
+	    }
+	}
+
+	/**
+	 * Checks conditions supporting prepared checks for all nodes on the worker pool.
+	 * The checks are prepared on the calling thread, so that node texts are transformed one after another.
+	 * The results are consumed by applyFilter, which visits the nodes in the same order
+	 * and propagates them to ancestors and descendants.
+	 */
+	private void checkDescendantsInParallel(final NodeModel root, final boolean includesRoot) {
+		if (condition == null || ! condition.canPrepareChecks()
+		        || ! ResourceController.getResourceController().getBooleanProperty(PARALLEL_FILTERING_PROPERTY)) {
+			return;
+		}
+		final List<NodeModel> nodes = new ArrayList<>();
+		if (includesRoot) {
+			nodes.add(root);
+		}
+		addDescendants(root, nodes);
+		final BooleanSupplier[] checks = new BooleanSupplier[nodes.size()];
+		for (int i = 0; i < checks.length; i++) {
+			checks[i] = condition.prepareCheck(nodes.get(i));
+		}
+		final boolean[] results = new boolean[checks.length];
+		WorkerPool.invoke(() ->
+			IntStream.range(0, results.length).parallel().forEach(i -> results[i] = checks[i].getAsBoolean()));
+		conditionResults = results;
+		conditionResultIndex = 0;
+	}
+
+	private void addDescendants(final NodeModel node, final List<NodeModel> nodes) {
+		for (final NodeModel child : node.getChildren()) {
+			nodes.add(child);
+			addDescendants(child, nodes);
+		}
+	}
+
+	private boolean checkCondition(final NodeModel node) {
+		if (condition == null) {
+			return true;
+		}
+		if (conditionResults != null) {
+			return conditionResults[conditionResultIndex++];
+		}
+		return condition.checkNode(node);
 	}
 
 	private boolean applyFilter(final NodeModel node,
 	                            final boolean hasMatchingAncestor, final boolean hasHiddenAncestor,
 	                            boolean hasMatchingDescendant) {
-		final boolean conditionSatisfied =  (condition == null || condition.checkNode(node));
+		final boolean conditionSatisfied = checkCondition(node);
 		final boolean matchesCombinedFilter;
 		if(appliesToVisibleNodesOnly()) {
 		    matchesCombinedFilter = conditionSatisfied  && baseFilter.isVisible(node);
@@ -219,25 +329,36 @@ public class Filter implements IExtension {
 		if (condition == null || node.isRoot()) {
 			return true;
 		}
-		FilterInfo filterInfo = getFilterInfo(node);
-        return filterInfo.isNotChecked() || filterInfo.matches(this.options) != hidesMatchingNodes;
+		final int info = accessor.getInfo(node);
+        return FilterInfo.matches(info, FilterInfo.FILTER_SHOW_AS_INITIAL_VALUE)
+                || FilterInfo.matches(info, this.options) != hidesMatchingNodes;
 	}
 
 	private void resetFilter(final NodeModel node) {
-		getFilterInfo(node).reset();
+		accessor.setInfo(node, FilterInfo.FILTER_SHOW_AS_INITIAL_VALUE);
 	}
 
+	/** returns a view on the stored filter info of the node, {@link #isMatched} and {@link #canBeAncestor} do not allocate it */
 	public FilterInfo getFilterInfo(final NodeModel node) {
-		return accessor.getFilterInfo(node);
+		return new NodeFilterInfo(accessor, node);
+	}
+
+	public boolean isMatched(final NodeModel node) {
+		return FilterInfo.matches(accessor.getInfo(node), FilterInfo.FILTER_SHOW_AS_MATCHED);
+	}
+
+	public boolean canBeAncestor(final NodeModel node) {
+		return FilterInfo.matches(accessor.getInfo(node),
+		    FilterInfo.FILTER_SHOW_AS_ANCESTOR | FilterInfo.FILTER_SHOW_AS_INITIAL_VALUE);
 	}
 
     public void showAsMatched(NodeModel node) {
-        FilterInfo filterInfo = getFilterInfo(node);
-        if(! filterInfo.matches(FilterInfo.FILTER_SHOW_AS_MATCHED)) {
-            filterInfo.add(FilterInfo.FILTER_SHOW_AS_MATCHED);
-            if(! filterInfo.matches(FilterInfo.FILTER_SHOW_AS_ANCESTOR))
+        final int info = accessor.getInfo(node);
+        if(! FilterInfo.matches(info, FilterInfo.FILTER_SHOW_AS_MATCHED)) {
+            accessor.setInfo(node, FilterInfo.add(info, FilterInfo.FILTER_SHOW_AS_MATCHED));
+            if(! FilterInfo.matches(info, FilterInfo.FILTER_SHOW_AS_ANCESTOR))
                 showAncestors(node);
-            if(! filterInfo.matches(FilterInfo.FILTER_SHOW_AS_DESCENDANT))
+            if(! FilterInfo.matches(info, FilterInfo.FILTER_SHOW_AS_DESCENDANT))
                 showDescendants(node);
         }
     }
@@ -246,17 +367,16 @@ public class Filter implements IExtension {
         NodeModel parent = node.getParentNode();
         if(parent == null)
             return;
-        FilterInfo filterInfo = getFilterInfo(parent);
-        if(! filterInfo.matches(FilterInfo.FILTER_SHOW_AS_ANCESTOR)) {
-            filterInfo.add(FilterInfo.FILTER_SHOW_AS_ANCESTOR);
+        final int info = accessor.getInfo(parent);
+        if(! FilterInfo.matches(info, FilterInfo.FILTER_SHOW_AS_ANCESTOR)) {
+            accessor.setInfo(parent, FilterInfo.add(info, FilterInfo.FILTER_SHOW_AS_ANCESTOR));
             showAncestors(parent);
         }
     }
 
     private void showDescendants(NodeModel node) {
         for (NodeModel child : node.getChildren()) {
-            FilterInfo filterInfo = getFilterInfo(child);
-            filterInfo.add(FilterInfo.FILTER_SHOW_AS_DESCENDANT);
+            accessor.addInfo(child, FilterInfo.FILTER_SHOW_AS_DESCENDANT);
             showDescendants(child);
         }
     }
@@ -41,31 +41,47 @@ public class FilterInfo {
         this.info = info;
     }
 
-	void add(final int flag) {
+    int getInfo() {
+        return info;
+    }
+
+    void setInfo(int info) {
+        this.info = info;
+    }
+
+	static int add(final int info, final int flag) {
 		if ((flag & (FILTER_SHOW_AS_MATCHED | FILTER_SHOW_AS_HIDDEN)) != 0) {
-			info &= ~FILTER_SHOW_AS_INITIAL_VALUE;
+			return (info & ~FILTER_SHOW_AS_INITIAL_VALUE) | flag;
 		}
-		info |= flag;
+		return info | flag;
+	}
+
+	static boolean matches(final int info, final int filterOptions) {
+		return (filterOptions & info) != 0;
+	}
+
+	void add(final int flag) {
+		setInfo(add(getInfo(), flag));
 	}
 
 	/**
 	 */
 	public boolean canBeAncestor() {
-		return (info & (FILTER_SHOW_AS_ANCESTOR|FILTER_SHOW_AS_INITIAL_VALUE)) != 0;
+		return matches(FILTER_SHOW_AS_ANCESTOR|FILTER_SHOW_AS_INITIAL_VALUE);
 	}
 
 	/**
 	 */
 	public boolean isMatched() {
-		return (info & FILTER_SHOW_AS_MATCHED) != 0;
+		return matches(FILTER_SHOW_AS_MATCHED);
 	}
 
 	public void reset() {
-		info = FILTER_SHOW_AS_INITIAL_VALUE;
+		setInfo(FILTER_SHOW_AS_INITIAL_VALUE);
 	}
 
 	boolean matches(final int filterOptions) {
-		return (filterOptions & info) != 0;
+		return matches(getInfo(), filterOptions);
 	}
 
     boolean isNotChecked() {
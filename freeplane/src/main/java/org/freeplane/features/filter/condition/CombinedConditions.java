@@ -19,6 +19,11 @@
  */
 package org.freeplane.features.filter.condition;
 
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import org.freeplane.features.map.NodeModel;
+
 /**
  * @author Dimitry Polivaev
  */
@@ -55,5 +60,18 @@ abstract class CombinedConditions extends ASelectableCondition implements ICombi
     }
 
     protected abstract ASelectableCondition[] getConditions();
+
+    @Override
+    public boolean canPrepareChecks() {
+        return Stream.of(getConditions()).allMatch(ICondition::canPrepareChecks);
+    }
+
+    protected BooleanSupplier[] prepareChecks(final NodeModel node) {
+        final ASelectableCondition[] conditions = getConditions();
+        final BooleanSupplier[] checks = new BooleanSupplier[conditions.length];
+        for (int i = 0; i < conditions.length; i++)
+            checks[i] = conditions[i].prepareCheck(node);
+        return checks;
+    }
     
 }
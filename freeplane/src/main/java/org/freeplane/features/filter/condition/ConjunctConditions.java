@@ -22,6 +22,7 @@ package org.freeplane.features.filter.condition;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Vector;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Stream;
 
 import javax.swing.JComponent;
@@ -80,6 +81,19 @@ public class ConjunctConditions extends CombinedConditions implements ICombinedC
 		return true;
 	}
 
+	@Override
+	public BooleanSupplier prepareCheck(final NodeModel node) {
+		final BooleanSupplier[] checks = prepareChecks(node);
+		return () -> {
+			for (final BooleanSupplier check : checks) {
+				if (!check.getAsBoolean()) {
+					return false;
+				}
+			}
+			return true;
+		};
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see
@@ -114,6 +114,14 @@ abstract public class DecoratedCondition extends ASelectableCondition implements
     public boolean checksDescendants() {
         return originalCondition.checksDescendants();
     }
+
+    public boolean isThreadSafe() {
+        return originalCondition.isThreadSafe();
+    }
+
+    public boolean checksLineageOnly() {
+        return originalCondition.checksLineageOnly();
+    }
 	
 	
 
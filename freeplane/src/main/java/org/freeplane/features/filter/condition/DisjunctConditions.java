@@ -22,6 +22,7 @@ package org.freeplane.features.filter.condition;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Vector;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Stream;
 
 import javax.swing.JComponent;
@@ -83,6 +84,19 @@ public class DisjunctConditions extends CombinedConditions implements ICombinedC
 		return false;
 	}
 
+	@Override
+	public BooleanSupplier prepareCheck(final NodeModel node) {
+		final BooleanSupplier[] checks = prepareChecks(node);
+		return () -> {
+			for (final BooleanSupplier check : checks) {
+				if (check.getAsBoolean()) {
+					return true;
+				}
+			}
+			return false;
+		};
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see
@@ -19,6 +19,8 @@
  */
 package org.freeplane.features.filter.condition;
 
+import java.util.function.BooleanSupplier;
+
 import org.freeplane.features.map.NodeModel;
 
 public interface ICondition {
@@ -39,4 +41,27 @@ public interface ICondition {
     default boolean checksDescendants() {
         return false;
     }
+
+    /** Thread safe conditions may check several nodes at the same time when filtering in parallel. */
+    default boolean isThreadSafe() {
+        return false;
+    }
+
+    /** Conditions supporting prepared checks may be checked in parallel using {@link #prepareCheck(NodeModel)}. */
+    default boolean canPrepareChecks() {
+        return isThreadSafe();
+    }
+
+    /**
+     * Does the part of the check which is not thread safe, like text transformation, on the calling thread.
+     * The returned check can be executed on any thread.
+     */
+    default BooleanSupplier prepareCheck(NodeModel node) {
+        return () -> checkNode(node);
+    }
+
+    /** Results of conditions checking only the node, its ancestors and its descendants change only with node change events of these nodes. */
+    default boolean checksLineageOnly() {
+        return false;
+    }
 }
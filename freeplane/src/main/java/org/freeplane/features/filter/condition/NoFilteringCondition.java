@@ -42,6 +42,11 @@ public class NoFilteringCondition extends ASelectableCondition {
 		return true;
 	}
 
+	@Override
+	public boolean checksLineageOnly() {
+		return true;
+	}
+
 	@Override
     protected String createDescription() {
 		if (NoFilteringCondition.description == null) {
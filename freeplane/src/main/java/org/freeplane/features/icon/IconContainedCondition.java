@@ -56,6 +56,11 @@ public class IconContainedCondition extends ASelectableCondition {
 		        || isLinkIconContained(node);
 	}
 
+	@Override
+	public boolean checksLineageOnly() {
+		return true;
+	}
+
 	private boolean isLinkIconContained(NodeModel node) {
 		return LinkController.getController().containsLinkDecorationIcon(node, iconName);
 	}
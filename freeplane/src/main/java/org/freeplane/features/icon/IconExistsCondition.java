@@ -40,6 +40,11 @@ public class IconExistsCondition extends ASelectableCondition {
 		return IconController.getController().getIcons(node, StyleOption.FOR_UNSELECTED_NODE).size() > 0;
 	}
 
+	@Override
+	public boolean checksLineageOnly() {
+		return true;
+	}
+
 
 	@Override
     protected String createDescription() {
@@ -95,6 +95,11 @@ public class PriorityCompareCondition extends CompareConditionAdapter {
 		return false;
 	}
 
+	@Override
+	public boolean checksLineageOnly() {
+		return true;
+	}
+
 	@Override
 	protected String createDescription() {
 		final String priorityCondition = TextUtils.getText(PriorityConditionController.FILTER_PRIORITY);
@@ -62,6 +62,11 @@ public abstract class HyperLinkCondition extends StringConditionAdapter {
 		return false;
 	}
 
+	@Override
+	public boolean checksLineageOnly() {
+		return true;
+	}
+
 	public String getHyperlink() {
 		return hyperlink;
 	}
@@ -0,0 +1,122 @@
+package org.freeplane.features.map;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.freeplane.core.extension.IExtension;
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.features.filter.Filter;
+
+/**
+ * Keeps the xml written for each top level branch of a map, so that saving a map only serializes
+ * the branches changed since the previous save.
+ *
+ * Branches are invalidated by node change events, structural changes and folding.
+ * Any map change event other than filtering invalidates all branches.
+ * Branches containing clones, connectors or internal hyperlinks are never cached,
+ * because their xml depends on other branches.
+ */
+class BranchXmlCache implements IExtension {
+	static final String INCREMENTAL_MAP_SAVING_PROPERTY = "incremental_map_saving";
+
+	static class Updater implements INodeChangeListener, IMapChangeListener {
+		@Override
+		public void nodeChanged(final NodeChangeEvent event) {
+			invalidate(event.getNode());
+		}
+
+		@Override
+		public void mapChanged(final MapChangeEvent event) {
+			if (Filter.class.equals(event.getProperty()))
+				return;
+			final MapModel map = event.getMap();
+			if (map != null)
+				map.removeExtension(BranchXmlCache.class);
+		}
+
+		@Override
+		public void onNodeInserted(final NodeModel parent, final NodeModel child, final int newIndex) {
+			invalidate(parent, child);
+			invalidateClones(child);
+		}
+
+		@Override
+		public void onNodeDeleted(final NodeDeletionEvent nodeDeletionEvent) {
+			invalidate(nodeDeletionEvent.parent, nodeDeletionEvent.node);
+		}
+
+		@Override
+		public void onNodeMoved(final NodeMoveEvent nodeMoveEvent) {
+			invalidate(nodeMoveEvent.oldParent, nodeMoveEvent.child);
+			invalidate(nodeMoveEvent.newParent, nodeMoveEvent.child);
+		}
+
+		private void invalidateClones(final NodeModel node) {
+			if (node.isCloneNode()) {
+				for (final NodeModel clone : node.allClones())
+					invalidate(clone);
+			}
+			for (final NodeModel child : node.getChildren())
+				invalidateClones(child);
+		}
+	}
+
+	private final Map<NodeModel, String> branchXml = new HashMap<NodeModel, String>();
+	private final String settings;
+
+	BranchXmlCache(final String settings) {
+		this.settings = settings;
+	}
+
+	static boolean isEnabled() {
+		return ResourceController.getResourceController().getBooleanProperty(INCREMENTAL_MAP_SAVING_PROPERTY);
+	}
+
+	/** returns the cache of the map, a new one if the save related preferences changed since it was created */
+	static BranchXmlCache of(final MapModel map) {
+		final String settings = currentSettings();
+		final BranchXmlCache cache = map.getExtension(BranchXmlCache.class);
+		if (cache != null && cache.settings.equals(settings))
+			return cache;
+		final BranchXmlCache newCache = new BranchXmlCache(settings);
+		map.putExtension(BranchXmlCache.class, newCache);
+		return newCache;
+	}
+
+	private static String currentSettings() {
+		final ResourceController resourceController = ResourceController.getResourceController();
+		return resourceController.getProperty(NodeBuilder.RESOURCES_SAVE_FOLDING) + ','
+		        + resourceController.getBooleanProperty(NodeBuilder.RESOURCES_SAVE_MODIFICATION_TIMES) + ','
+		        + resourceController.getBooleanProperty("useAsciiCharset");
+	}
+
+	static void invalidate(final NodeModel node) {
+		final NodeModel parentNode = node.getParentNode();
+		if (parentNode != null)
+			invalidate(parentNode, node);
+	}
+
+	private static void invalidate(final NodeModel parent, final NodeModel child) {
+		final MapModel map = parent.getMap();
+		if (map == null)
+			return;
+		final BranchXmlCache cache = map.getExtension(BranchXmlCache.class);
+		if (cache == null)
+			return;
+		NodeModel branch = child;
+		for (NodeModel node = parent; !node.isRoot(); node = node.getParentNode()) {
+			if (node.getParentNode() == null)
+				return;
+			branch = node;
+		}
+		cache.branchXml.remove(branch);
+	}
+
+	String get(final NodeModel branch) {
+		return branchXml.get(branch);
+	}
+
+	void put(final NodeModel branch, final String xml) {
+		branchXml.put(branch, xml);
+	}
+}
@@ -0,0 +1,289 @@
+package org.freeplane.features.map;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Splits a map file into its top level branches, i.e. the node elements which are children of the root node,
+ * and the rest of the map while reading it.
+ *
+ * The scanner only tracks element nesting and the attributes of node elements, it does not check the document.
+ * Branches are only returned if they can be loaded independently: the structure is as expected,
+ * there are no clones and node ids are unique. Otherwise the caller loads the map read by {@link #readMap()}.
+ */
+class MapBranchSplitter {
+	private static final String[] BRANCH_PATH = { "map", NodeBuilder.XML_NODE, NodeBuilder.XML_NODE };
+	private static final Set<String> CLONE_ATTRIBUTES = new HashSet<String>(Arrays.asList("TREE_ID", "CONTENT_ID",
+	    "REFERENCE_ID"));
+	private static final int BUFFER_SIZE = 8192;
+	private final Reader reader;
+	private final char[] buffer = new char[BUFFER_SIZE];
+	private int bufferPosition;
+	private int bufferLength;
+	private final StringBuilder skeleton = new StringBuilder();
+	private final List<String> branches = new ArrayList<String>();
+	private final List<Integer> branchPositions = new ArrayList<Integer>();
+	private final Set<String> nodeIds = new HashSet<String>();
+	private final String[] path = new String[BRANCH_PATH.length];
+	private StringBuilder text = skeleton;
+	private boolean splittable = true;
+
+	private MapBranchSplitter(final Reader reader) {
+		this.reader = reader;
+	}
+
+	static MapBranchSplitter read(final Reader reader) throws IOException {
+		final MapBranchSplitter splitter = new MapBranchSplitter(reader);
+		splitter.readElements();
+		return splitter;
+	}
+
+	/** returns the branches or an empty list if they can not be loaded independently */
+	List<String> getBranches() {
+		return splittable ? branches : Collections.<String> emptyList();
+	}
+
+	/** returns the map without the branches */
+	String getSkeleton() {
+		return skeleton.toString();
+	}
+
+	/** returns a reader of the whole map */
+	Reader readMap() {
+		final List<String> parts = new ArrayList<String>(2 * branches.size() + 1);
+		int copied = 0;
+		for (int i = 0; i < branches.size(); i++) {
+			final int branchPosition = branchPositions.get(i);
+			parts.add(skeleton.substring(copied, branchPosition));
+			parts.add(branches.get(i));
+			copied = branchPosition;
+		}
+		parts.add(skeleton.substring(copied));
+		return new PartsReader(parts);
+	}
+
+	private void readElements() throws IOException {
+		int depth = 0;
+		for (int c = read(); c >= 0; c = read()) {
+			if (c != '<')
+				continue;
+			final int tagStart = text.length() - 1;
+			c = read();
+			if (c == '?') {
+				skipPast("?>");
+			}
+			else if (c == '!') {
+				skipMarkupDeclaration();
+			}
+			else if (c == '/') {
+				skipPast(">");
+				depth--;
+				if (depth < 0) {
+					splittable = false;
+				}
+				else if (depth == BRANCH_PATH.length - 1 && text != skeleton) {
+					endBranch();
+				}
+			}
+			else if (c >= 0) {
+				final StringBuilder name = new StringBuilder();
+				name.append((char) c);
+				c = readName(name);
+				if (depth < path.length) {
+					path[depth] = name.toString();
+					if (depth == BRANCH_PATH.length - 1 && isBranchPath()) {
+						startBranch(tagStart);
+					}
+				}
+				final boolean isEmptyElement = readAttributes(c, NodeBuilder.XML_NODE.contentEquals(name));
+				if (isEmptyElement) {
+					if (depth == BRANCH_PATH.length - 1 && text != skeleton)
+						endBranch();
+				}
+				else {
+					depth++;
+				}
+			}
+		}
+		if (depth != 0 || text != skeleton) {
+			splittable = false;
+			if (text != skeleton)
+				endBranch();
+		}
+	}
+
+	private void startBranch(final int tagStart) {
+		final String tagStartText = skeleton.substring(tagStart);
+		skeleton.setLength(tagStart);
+		branchPositions.add(tagStart);
+		text = new StringBuilder();
+		text.append(tagStartText);
+	}
+
+	private void endBranch() {
+		branches.add(text.toString());
+		text = skeleton;
+	}
+
+	private boolean isBranchPath() {
+		for (int i = 0; i < BRANCH_PATH.length; i++) {
+			if (!BRANCH_PATH[i].equals(path[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/** returns the character following the name */
+	private int readName(final StringBuilder name) throws IOException {
+		for (;;) {
+			final int c = read();
+			if (c < 0 || c == '>' || c == '/' || Character.isWhitespace(c))
+				return c;
+			name.append((char) c);
+		}
+	}
+
+	/** reads the rest of the start tag, returns true for empty element tags */
+	private boolean readAttributes(int c, final boolean isNode) throws IOException {
+		boolean slashRead = false;
+		for (;; c = read()) {
+			if (c < 0) {
+				return false;
+			}
+			if (c == '>') {
+				return slashRead;
+			}
+			slashRead = c == '/';
+			if (c == '/' || Character.isWhitespace(c)) {
+				continue;
+			}
+			final StringBuilder attributeName = new StringBuilder();
+			attributeName.append((char) c);
+			while ((c = read()) >= 0 && c != '=' && c != '>' && !Character.isWhitespace(c))
+				attributeName.append((char) c);
+			while (c >= 0 && Character.isWhitespace(c))
+				c = read();
+			if (c != '=') {
+				splittable = false;
+				if (c == '>')
+					return false;
+				continue;
+			}
+			do {
+				c = read();
+			} while (c >= 0 && Character.isWhitespace(c));
+			if (c != '"' && c != '\'') {
+				splittable = false;
+				continue;
+			}
+			final int quote = c;
+			final StringBuilder value = new StringBuilder();
+			while ((c = read()) >= 0 && c != quote)
+				value.append((char) c);
+			if (isNode) {
+				checkNodeAttribute(attributeName.toString(), value.toString());
+			}
+		}
+	}
+
+	private void checkNodeAttribute(final String name, final String value) {
+		if (CLONE_ATTRIBUTES.contains(name) || name.equals("ID") && !nodeIds.add(value))
+			splittable = false;
+	}
+
+	private void skipMarkupDeclaration() throws IOException {
+		final int c = read();
+		if (c == '-') {
+			skipPast("-->");
+			return;
+		}
+		if (c == '[') {
+			skipPast("]]>");
+			return;
+		}
+		int nesting = 0;
+		for (int next = c; next >= 0; next = read()) {
+			if (next == '[') {
+				nesting++;
+			}
+			else if (next == ']') {
+				nesting--;
+			}
+			else if (next == '>' && nesting == 0) {
+				return;
+			}
+		}
+	}
+
+	private void skipPast(final String end) throws IOException {
+		final int lastIndex = end.length() - 1;
+		final char last = end.charAt(lastIndex);
+		for (int c = read(); c >= 0; c = read()) {
+			if (c == last && endsWith(end))
+				return;
+		}
+	}
+
+	private boolean endsWith(final String end) {
+		final int start = text.length() - end.length();
+		if (start < 0)
+			return false;
+		for (int i = 0; i < end.length(); i++) {
+			if (text.charAt(start + i) != end.charAt(i))
+				return false;
+		}
+		return true;
+	}
+
+	/** reads the next character and appends it to the current text */
+	private int read() throws IOException {
+		if (bufferPosition == bufferLength) {
+			bufferLength = reader.read(buffer);
+			bufferPosition = 0;
+			if (bufferLength <= 0) {
+				bufferLength = 0;
+				return -1;
+			}
+		}
+		final char c = buffer[bufferPosition++];
+		text.append(c);
+		return c;
+	}
+
+	private static class PartsReader extends Reader {
+		private final Iterator<String> parts;
+		private String part;
+		private int position;
+
+		PartsReader(final List<String> parts) {
+			this.parts = parts.iterator();
+			part = "";
+		}
+
+		@Override
+		public int read(final char[] cbuf, final int off, final int len) {
+			while (position == part.length()) {
+				if (!parts.hasNext())
+					return -1;
+				part = parts.next();
+				position = 0;
+			}
+			final int count = Math.min(len, part.length() - position);
+			part.getChars(position, position + count, cbuf, off);
+			position += count;
+			return count;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
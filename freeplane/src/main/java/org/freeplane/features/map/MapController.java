@@ -354,6 +354,9 @@ implements IExtension, NodeChangeAnnouncer{
 		addNodeSelectionListener(actionSelectorOnChange);
 		addUINodeChangeListener(actionSelectorOnChange);
 		addUIMapChangeListener(actionSelectorOnChange);
+		final BranchXmlCache.Updater branchXmlCacheUpdater = new BranchXmlCache.Updater();
+		addNodeChangeListener(branchXmlCacheUpdater);
+		addMapChangeListener(branchXmlCacheUpdater);
 		final MapClipboardController mapClipboardController = createMapClipboardController();
 		modeController.addExtension(MapClipboardController.class, mapClipboardController);
 		createActions(modeController);
@@ -504,7 +507,7 @@ implements IExtension, NodeChangeAnnouncer{
 	public boolean canBeUnfoldedOnCurrentView(final NodeModel node, Filter filter) {
 		final IMapViewManager mapViewManager = Controller.getCurrentController().getMapViewManager();
 		final boolean isFolded = mapViewManager.isFoldedOnCurrentView(node) ||  mapViewManager.hasHiddenChildren(node);
-		boolean canBeAncestor = filter.getFilterInfo(node).canBeAncestor();
+		boolean canBeAncestor = filter.canBeAncestor(node);
 		for(int i = 0; i < node.getChildCount(); i++){
 			final NodeModel child = node.getChildAt(i);
 			if (isFolded && child.subtreeHasVisibleContent(filter)
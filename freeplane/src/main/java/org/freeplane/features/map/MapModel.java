@@ -27,6 +27,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.freeplane.core.extension.ExtensionContainer;
 import org.freeplane.core.extension.IExtension;
@@ -53,6 +54,7 @@ public class MapModel {
 	private URL url;
 	private NodeChangeAnnouncer nodeChangeAnnouncer;
     private final INodeDuplicator nodeDuplicator;
+    private final AtomicInteger nodeOrdinalCounter = new AtomicInteger();
 
 	public MapModel(INodeDuplicator nodeDuplicator, IconRegistry iconRegistry, NodeChangeAnnouncer nodeChangeAnnouncer) {
 		this.nodeDuplicator = nodeDuplicator;
@@ -72,6 +74,10 @@ public class MapModel {
 		this.nodeChangeAnnouncer = mapController;
 	}
 
+	int nextNodeOrdinal() {
+		return nodeOrdinalCounter.getAndIncrement();
+	}
+
 	public void createNewRoot() {
 		root = new NodeModel(TextUtils.getText("new_mindmap"), this);
 		root.attach();
@@ -21,15 +21,28 @@ package org.freeplane.features.map;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.freeplane.core.io.IElementDOMHandler;
+import org.freeplane.core.io.ITreeReader;
 import org.freeplane.core.io.ReadManager;
 import org.freeplane.core.io.UnknownElements;
+import org.freeplane.core.io.xml.StaxTreeXmlReader;
 import org.freeplane.core.io.xml.TreeXmlReader;
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.core.util.WorkerPool;
+import org.freeplane.features.attribute.AttributeRegistry;
+import org.freeplane.features.attribute.NodeAttributeTableModel;
+import org.freeplane.features.explorer.GlobalNodes;
 import org.freeplane.features.map.MapWriter.Hint;
 import org.freeplane.features.map.MapWriter.Mode;
+import org.freeplane.features.mode.Controller;
 import org.freeplane.n3.nanoxml.XMLElement;
 import org.freeplane.n3.nanoxml.XMLException;
 
@@ -56,7 +69,7 @@ public class MapReader implements IElementDOMHandler {
 
 		public NodeModel create(final Reader pReader) throws XMLException {
 			final NodeTreeCreator oldNodeTreeCreator = nodeTreeCreator;
-			final TreeXmlReader reader = new TreeXmlReader(readManager);
+			final ITreeReader reader = createTreeReader();
 			try {
 				nodeTreeCreator = this;
 				reader.load(createdMap, pReader);
@@ -73,7 +86,11 @@ public class MapReader implements IElementDOMHandler {
 		XMLException {
 			synchronized(this) {
 				start(map);
-				final NodeModel node = create(pReader);
+				final NodeModel node;
+				if (ResourceController.getResourceController().getBooleanProperty(PARALLEL_MAP_LOADING_PROPERTY))
+					node = createWithParallelBranches(pReader);
+				else
+					node = create(pReader);
 				if (node == null)
 					throw new RuntimeException("corrupted map, no root node found");
 				finish(node);
@@ -81,6 +98,119 @@ public class MapReader implements IElementDOMHandler {
 			}
 		}
 
+		/**
+		 * Loads the root node without its children first and then the top level branches on the {@link WorkerPool}.
+		 * Each branch is built into its own {@link MapModel} by a NodeTreeCreator bound to the loading thread,
+		 * and attached to the root when all branches are loaded.
+		 */
+		private NodeModel createWithParallelBranches(final Reader pReader) throws IOException, XMLException {
+			final MapBranchSplitter splitter = MapBranchSplitter.read(pReader);
+			final List<String> branches = splitter.getBranches();
+			if (branches.size() < 2)
+				return create(splitter.readMap());
+			final NodeModel root = create(new StringReader(splitter.getSkeleton()));
+			if (root == null)
+				return null;
+			final List<NodeTreeCreator> branchCreators = new ArrayList<NodeTreeCreator>(branches.size());
+			final List<Future<NodeModel>> loadedBranches = new ArrayList<Future<NodeModel>>(branches.size());
+			// the pool is shared by all controllers, e.g. by the controllers of batch processor threads
+			final Controller controller = Controller.getCurrentController();
+			for (final String branchXml : branches) {
+				final NodeTreeCreator branchCreator = new NodeTreeCreator(new HashMap<Object, Object>(hints));
+				branchCreator.startBranch(createdMap);
+				branchCreators.add(branchCreator);
+				loadedBranches.add(WorkerPool.submit(() -> {
+					Controller.setCurrentThreadController(controller);
+					try {
+						return branchCreator.createBranch(branchXml);
+					}
+					finally {
+						Controller.setCurrentThreadController(null);
+					}
+				}));
+			}
+			final List<NodeModel> branchRoots = new ArrayList<NodeModel>(branches.size());
+			for (int i = 0; i < branches.size(); i++) {
+				final NodeTreeCreator branchCreator = branchCreators.get(i);
+				final NodeModel branchRoot = waitFor(loadedBranches.get(i));
+				branchRoots.add(branchRoot);
+				if (branchRoot == null)
+					continue;
+				newIds.putAll(branchCreator.newIds);
+				hints.putAll(branchCreator.hints);
+				branchCreator.mapChild.remove(0);
+				branchRoot.setMap(createdMap);
+				root.insert(branchRoot, -1);
+			}
+			createdMap.registryNodeRecursive(root);
+			for (int i = 0; i < branches.size(); i++) {
+				final NodeModel branchRoot = branchRoots.get(i);
+				if (branchRoot != null)
+					branchCreators.get(i).mergeBranchMap(createdMap, branchRoot);
+			}
+			return root;
+		}
+
+		private NodeModel waitFor(final Future<NodeModel> loadedBranch) throws XMLException {
+			try {
+				return loadedBranch.get();
+			}
+			catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new XMLException(e);
+			}
+			catch (final ExecutionException e) {
+				final Throwable cause = e.getCause();
+				if (cause instanceof XMLException)
+					throw (XMLException) cause;
+				if (cause instanceof RuntimeException)
+					throw (RuntimeException) cause;
+				if (cause instanceof Error)
+					throw (Error) cause;
+				throw new XMLException((Exception) cause);
+			}
+		}
+
+		void startBranch(final MapModel map) {
+			final MapModel branchMap = new MapModel(map.getNodeDuplicator());
+			branchMap.setURL(map.getURL());
+			createdMap = branchMap;
+			mapChild = new NodeModel(branchMap);
+		}
+
+		NodeModel createBranch(final String branchXml) throws XMLException {
+			branchNodeTreeCreator.set(this);
+			try {
+				createTreeReader().load(mapChild, new StringReader(branchXml));
+				return mapChild.getChildCount() == 1 ? mapChild.getChildAt(0) : null;
+			}
+			finally {
+				branchNodeTreeCreator.remove();
+			}
+		}
+
+		/** moves the map level registrations made while loading a branch to the loaded map */
+		void mergeBranchMap(final MapModel map, final NodeModel branchRoot) {
+			map.getIconRegistry().addIcons(createdMap);
+			if (createdMap.getExtension(AttributeRegistry.class) != null) {
+				final AttributeRegistry attributeRegistry = AttributeRegistry.getRegistry(map);
+				registerAttributes(attributeRegistry, branchRoot);
+			}
+			final GlobalNodes globalNodes = createdMap.getExtension(GlobalNodes.class);
+			if (globalNodes != null) {
+				for (final NodeModel node : globalNodes)
+					GlobalNodes.writeableOf(map).makeGlobal(node, true);
+			}
+		}
+
+		private void registerAttributes(final AttributeRegistry attributeRegistry, final NodeModel node) {
+			final NodeAttributeTableModel attributes = NodeAttributeTableModel.getModel(node);
+			for (int i = 0; i < attributes.getRowCount(); i++)
+				attributeRegistry.registry(attributes.getAttribute(i));
+			for (final NodeModel child : node.getChildren())
+				registerAttributes(attributeRegistry, child);
+		}
+
 		public void finish(final NodeModel node) {
 			final NodeTreeCreator oldNodeTreeCreator = nodeTreeCreator;
 			try {
@@ -137,12 +267,17 @@ public class MapReader implements IElementDOMHandler {
 		}
 	}
 
+	public static final String MAP_XML_PARSER_PROPERTY = "map_xml_parser";
+	public static final String STAX_PARSER = "stax";
+	public static final String PARALLEL_MAP_LOADING_PROPERTY = "parallel_map_loading";
 	private final NodeBuilder nodeBuilder;
 	final private ReadManager readManager;
 	private NodeTreeCreator nodeTreeCreator;
+	private final ThreadLocal<NodeTreeCreator> branchNodeTreeCreator = new ThreadLocal<NodeTreeCreator>();
 
 	public NodeTreeCreator getCurrentNodeTreeCreator() {
-		return nodeTreeCreator;
+		final NodeTreeCreator branchCreator = branchNodeTreeCreator.get();
+		return branchCreator != null ? branchCreator : nodeTreeCreator;
 	}
 
 	public MapReader(final ReadManager readManager) {
@@ -151,6 +286,14 @@ public class MapReader implements IElementDOMHandler {
 		nodeBuilder.registerBy(readManager);
 	}
 
+	private ITreeReader createTreeReader() {
+		final String parser = ResourceController.getResourceController().getProperty(MAP_XML_PARSER_PROPERTY);
+		if (STAX_PARSER.equals(parser))
+			return new StaxTreeXmlReader(readManager);
+		else
+			return new TreeXmlReader(readManager);
+	}
+
 	@Override
 	public Object createElement(final Object parent, final String tag, final XMLElement attributes) {
 		return nodeTreeCreator.getCreatedMap();
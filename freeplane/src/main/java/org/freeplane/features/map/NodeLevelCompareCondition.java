@@ -59,6 +59,11 @@ class NodeLevelCompareCondition extends CompareConditionAdapter {
 		return succeed == (compareTo(level) == comparationResult);
 	}
 
+	@Override
+	public boolean checksLineageOnly() {
+		return true;
+	}
+
 	@SuppressWarnings("unused")
 	private boolean checkLevel(final long level) {
 		return succeed == (compareTo(level) == comparationResult);
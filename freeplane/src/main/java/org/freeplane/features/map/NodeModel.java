@@ -30,6 +30,7 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import org.freeplane.core.extension.ExtensionContainer;
 import org.freeplane.core.extension.IExtension;
@@ -79,6 +80,8 @@ public class NodeModel{
 
 	private SharedNodeData sharedData;
 	private Clones[] clones;
+	private volatile NodeOrdinal ordinal;
+	private volatile SubtreeStatistics subtreeStatistics;
 
 	void setClones(Clones clones) {
 		this.clones[clones.getCloneType().ordinal()] = clones;
@@ -161,6 +164,7 @@ public class NodeModel{
 
 	protected void setChildrenInternal(List<NodeModel> chidren) {
 	    this.children = chidren;
+	    invalidateSubtreeStatistics();
     }
 
 	public Enumeration<NodeModel> children() {
@@ -301,6 +305,22 @@ public class NodeModel{
 		return parent;
 	}
 
+	/** returns the statistics of the branch starting at this node, computed again only after the branch changed */
+	public SubtreeStatistics getSubtreeStatistics() {
+		SubtreeStatistics statistics = subtreeStatistics;
+		if (statistics == null) {
+			statistics = SubtreeStatistics.of(this);
+			subtreeStatistics = statistics;
+		}
+		return statistics;
+	}
+
+	/** ancestors of nodes without statistics have no statistics, because they are computed from the children */
+	private void invalidateSubtreeStatistics() {
+		for (NodeModel node = this; node != null && node.subtreeStatistics != null; node = node.parent)
+			node.subtreeStatistics = null;
+	}
+
 	public NodeModel[] getPathToRoot() {
 		int i = getNodeLevel();
 		final NodeModel[] path = new NodeModel[i + 1];
@@ -356,6 +376,7 @@ public class NodeModel{
 			preferredChild = childNode;
 		}
 		child.setParent(this);
+		invalidateSubtreeStatistics();
 		fireNodeInserted(childNode, getIndex(child));
 	}
 
@@ -446,6 +467,7 @@ public class NodeModel{
 		}
 		child.setParent(null);
 		children.remove(index);
+		invalidateSubtreeStatistics();
 		fireNodeRemoved(child, index);
     }
 
@@ -483,6 +505,10 @@ public class NodeModel{
 		boolean wasFolded = isFolded();
 		if (wasFolded != folded && isAccessible()) {
 			sharedData.setFolded(folded && ! AlwaysUnfoldedNode.isAlwaysUnfolded(this));
+			BranchXmlCache.invalidate(this);
+			invalidateSubtreeStatistics();
+			for(NodeModel clone : clones[CONTENT.ordinal()])
+				clone.invalidateSubtreeStatistics();
 		}
 		fireNodeChanged(new NodeChangeEvent(this, NodeChangeType.FOLDING, Boolean.valueOf(wasFolded), Boolean.valueOf(folded), false, false));
 	}
@@ -507,6 +533,38 @@ public class NodeModel{
 		}
 	}
 
+	private static class NodeOrdinal {
+		final MapModel map;
+		final int value;
+
+		NodeOrdinal(MapModel map, int value) {
+			this.map = map;
+			this.value = value;
+		}
+	}
+
+	private static final AtomicReferenceFieldUpdater<NodeModel, NodeOrdinal> ORDINAL_UPDATER =
+	        AtomicReferenceFieldUpdater.newUpdater(NodeModel.class, NodeOrdinal.class, "ordinal");
+
+	/**
+	 * Returns a small number unique among the nodes of the map, assigned on first use.
+	 * A node moved to another map gets a new number. Nodes without a map return -1.
+	 * Threads asking for the ordinal of the same node at the same time get the same number.
+	 */
+	public int getOrdinal() {
+		final MapModel map = getMap();
+		if (map == null)
+			return -1;
+		for (;;) {
+			final NodeOrdinal current = ordinal;
+			if (current != null && current.map == map)
+				return current.value;
+			final NodeOrdinal assigned = new NodeOrdinal(map, map.nextNodeOrdinal());
+			if (ORDINAL_UPDATER.compareAndSet(this, current, assigned))
+				return assigned.value;
+		}
+	}
+
 	/**
 	 */
 	public void setMap(final MapModel map) {
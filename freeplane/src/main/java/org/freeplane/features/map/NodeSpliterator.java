@@ -0,0 +1,152 @@
+package org.freeplane.features.map;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import org.freeplane.features.map.NodeIterator.Algorithm;
+
+/**
+ * Traverses a branch in the order of {@link NodeIterator} and splits it on child list boundaries.
+ *
+ * A spliterator covers the rest of a subtree traversal in progress, the subtrees of a range
+ * of sibling nodes and, for bottom up traversals, their parent visited after them.
+ * Ranges are split where the node counts of both parts are about equal,
+ * single subtrees are split by descending into their children.
+ */
+class NodeSpliterator implements Spliterator<NodeModel> {
+	private final Algorithm algorithm;
+	private Iterator<NodeModel> current;
+	private long currentSize;
+	private List<NodeModel> siblings;
+	private long[] subtreeSizes;
+	private int from;
+	private int to;
+	private NodeModel parent;
+
+	NodeSpliterator(NodeModel node, Algorithm algorithm) {
+		this(algorithm, null, 0, Collections.singletonList(node), null, 0, 1, null);
+	}
+
+	private NodeSpliterator(Algorithm algorithm, Iterator<NodeModel> current, long currentSize,
+	                        List<NodeModel> siblings, long[] subtreeSizes, int from, int to, NodeModel parent) {
+		this.algorithm = algorithm;
+		this.current = current;
+		this.currentSize = currentSize;
+		this.siblings = siblings;
+		this.subtreeSizes = subtreeSizes;
+		this.from = from;
+		this.to = to;
+		this.parent = parent;
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super NodeModel> action) {
+		for (;;) {
+			if (current != null && current.hasNext()) {
+				if (currentSize > 0)
+					currentSize--;
+				action.accept(current.next());
+				return true;
+			}
+			current = null;
+			if (from < to) {
+				final NodeModel sibling = siblings.get(from);
+				currentSize = subtreeSizes != null ? subtreeSize(from) : 0;
+				from++;
+				current = algorithm == Algorithm.TOP_DOWN ? NodeIterator.of(sibling) : NodeIterator.bottomUpOf(sibling);
+			}
+			else if (parent != null) {
+				action.accept(parent);
+				parent = null;
+				return true;
+			}
+			else
+				return false;
+		}
+	}
+
+	@Override
+	public Spliterator<NodeModel> trySplit() {
+		if (current != null && current.hasNext()) {
+			if (from == to)
+				return null;
+			final int middle = middle(from, currentSize);
+			final NodeSpliterator prefix = new NodeSpliterator(algorithm, current, currentSize,
+			    siblings, subtreeSizes, from, middle, null);
+			current = null;
+			currentSize = 0;
+			from = middle;
+			return prefix;
+		}
+		current = null;
+		currentSize = 0;
+		if (to - from >= 2) {
+			final int middle = middle(from + 1, 0);
+			final NodeSpliterator prefix = new NodeSpliterator(algorithm, null, 0, siblings, subtreeSizes, from, middle, null);
+			from = middle;
+			return prefix;
+		}
+		if (to - from == 1) {
+			final NodeModel node = siblings.get(from);
+			final List<NodeModel> children = node.getChildren();
+			if (children.isEmpty())
+				return null;
+			if (algorithm == Algorithm.TOP_DOWN) {
+				siblings = children;
+				subtreeSizes = null;
+				from = 0;
+				to = children.size();
+				return new NodeSpliterator(algorithm, Collections.singleton(node).iterator(), 1,
+				    Collections.<NodeModel>emptyList(), null, 0, 0, null);
+			}
+			else {
+				from = to;
+				return new NodeSpliterator(algorithm, null, 0, children, null, 0, children.size(), node);
+			}
+		}
+		return null;
+	}
+
+	/** returns the end of a prefix range holding about a half of the nodes */
+	private int middle(int minimum, long prefixSize) {
+		long half = prefixSize;
+		for (int i = from; i < to; i++)
+			half += subtreeSize(i);
+		half /= 2;
+		long size = prefixSize;
+		int middle = from;
+		while (middle < to - 1 && (middle < minimum || size + subtreeSize(middle) <= half)) {
+			size += subtreeSize(middle);
+			middle++;
+		}
+		return middle;
+	}
+
+	private long subtreeSize(int index) {
+		if (subtreeSizes == null)
+			subtreeSizes = new long[siblings.size()];
+		if (subtreeSizes[index] == 0)
+			subtreeSizes[index] = countNodes(siblings.get(index));
+		return subtreeSizes[index];
+	}
+
+	static long countNodes(NodeModel node) {
+		return node.getSubtreeStatistics().getDescendantCount() + 1;
+	}
+
+	@Override
+	public long estimateSize() {
+		long size = currentSize + (parent != null ? 1 : 0);
+		for (int i = from; i < to; i++)
+			size += subtreeSize(i);
+		return size;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | NONNULL;
+	}
+}
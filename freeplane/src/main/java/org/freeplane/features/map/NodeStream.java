@@ -1,16 +1,25 @@
 package org.freeplane.features.map;
 
-import java.util.Spliterator;
-import java.util.Spliterators;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
+import org.freeplane.core.util.WorkerPool;
+import org.freeplane.features.map.NodeIterator.Algorithm;
+
 public class NodeStream {
     public static Stream<NodeModel> bottomUpOf(NodeModel node) {
-        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(NodeIterator.bottomUpOf(node), Spliterator.ORDERED), false);
+        return StreamSupport.stream(new NodeSpliterator(node, Algorithm.BOTTOM_UP), false);
     }
 
     public static Stream<NodeModel> of(NodeModel node) {
-        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(NodeIterator.of(node), Spliterator.ORDERED), false);
+        return StreamSupport.stream(new NodeSpliterator(node, Algorithm.TOP_DOWN), false);
+    }
+
+    /** Parallel stream of the branch for computations which do not change the map.
+     * Its terminal operations run on the {@link WorkerPool}, because the threads of the common pool have no permissions
+     * if a security manager is installed. */
+    public static Stream<NodeModel> parallelOf(NodeModel node) {
+        return WorkerPool.runTerminalOperationsOnPool(
+            StreamSupport.stream(new NodeSpliterator(node, Algorithm.TOP_DOWN), true));
     }
-}
\ No newline at end of file
+}
@@ -20,6 +20,7 @@
 package org.freeplane.features.map;
 
 import java.io.IOException;
+import java.io.StringWriter;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -31,9 +32,11 @@ import org.freeplane.core.io.ITreeWriter;
 import org.freeplane.core.io.WriteManager;
 import org.freeplane.core.io.xml.TreeXmlWriter;
 import org.freeplane.core.resources.ResourceController;
+import org.freeplane.core.util.Hyperlink;
 import org.freeplane.features.filter.FilterController;
 import org.freeplane.features.icon.IconController;
 import org.freeplane.features.link.LinkBuilder;
+import org.freeplane.features.link.NodeLinks;
 import org.freeplane.features.map.MapWriter.Hint;
 import org.freeplane.features.map.MapWriter.Mode;
 import org.freeplane.features.map.MapWriter.WriterHint;
@@ -58,6 +61,7 @@ public class NodeWriter implements IElementWriter, IAttributeWriter {
 
 	private final Map<SharedNodeData, NodeModel> alreadyWrittenSharedContent;
 	private final LinkBuilder linkBuilder;
+	private boolean writtenBranchIsCacheable;
 
 	public NodeWriter(final MapController mapController, LinkBuilder linkBuilder, final String nodeTag, final boolean writeChildren,
 	                  final boolean writeInvisible) {
@@ -75,6 +79,10 @@ public class NodeWriter implements IElementWriter, IAttributeWriter {
 	}
 
 	private void saveChildren(final ITreeWriter writer, final NodeModel node) throws IOException {
+		if (node.isRoot() && canUseBranchXmlCache(writer)) {
+			saveChildrenUsingCache(writer, node);
+			return;
+		}
 		for (final NodeModel child: node.getChildren()) {
 		if (writeInvisible || child.hasVisibleContent(FilterController.getFilter(node.getMap()))) {
 				writer.setHint(WriterHint.ALREADY_WRITTEN, isAlreadyWritten(child));
@@ -86,6 +94,46 @@ public class NodeWriter implements IElementWriter, IAttributeWriter {
 		}
 	}
 
+	private boolean canUseBranchXmlCache(final ITreeWriter writer) {
+		return writeInvisible
+		        && Mode.FILE.equals(mode(writer))
+		        && !Boolean.TRUE.equals(writer.getHint(WriterHint.FORCE_FORMATTING))
+		        && BranchXmlCache.isEnabled();
+	}
+
+	private void saveChildrenUsingCache(final ITreeWriter writer, final NodeModel root) throws IOException {
+		final BranchXmlCache cache = BranchXmlCache.of(root.getMap());
+		for (final NodeModel child: root.getChildren()) {
+			String xml = cache.get(child);
+			if (xml == null) {
+				final StringWriter branchOut = new StringWriter();
+				final TreeXmlWriter branchWriter = mapController.getMapWriter().createTreeWriter(branchOut);
+				branchWriter.setHint(Hint.MODE, mode(writer));
+				branchWriter.setHint(WriterHint.ALREADY_WRITTEN, isAlreadyWritten(child));
+				writtenBranchIsCacheable = true;
+				branchWriter.addElement(child, nodeTag);
+				branchWriter.flush();
+				xml = branchOut.toString();
+				if (writtenBranchIsCacheable)
+					cache.put(child, xml);
+			}
+			writer.addElementContent(xml);
+		}
+	}
+
+	/** the xml of a node depends on other branches if it is a clone, has connectors or links to another node */
+	private boolean dependsOnOtherBranches(final NodeModel node) {
+		if (node.isCloneNode())
+			return true;
+		final NodeLinks links = NodeLinks.getLinkExtension(node);
+		if (links == null)
+			return false;
+		if (!links.getLinks().isEmpty())
+			return true;
+		final Hyperlink link = links.getHyperLink(node);
+		return link != null && link.toString().startsWith("#");
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see
@@ -107,6 +155,8 @@ public class NodeWriter implements IElementWriter, IAttributeWriter {
 		mayWriteChildren = true;
 		final Object mode = mode(writer);
 		final boolean isNodeAlreadyWritten = isAlreadyWritten(node);
+		if (writtenBranchIsCacheable && dependsOnOtherBranches(node))
+			writtenBranchIsCacheable = false;
 		if (encryptionModel != null && !(encryptionModel.isAccessible() && Mode.EXPORT.equals(mode)) && ! isNodeAlreadyWritten) {
         	final String enctyptedContent = encryptionModel.calculateEncryptedContent(mapController.getMapWriter());
         	if(enctyptedContent != null){
@@ -0,0 +1,60 @@
+package org.freeplane.features.map;
+
+/**
+ * Node counts and depth of the branch starting at a node.
+ *
+ * Each node keeps its statistics until a child is inserted or removed, its children are replaced
+ * or its folding changes, then the statistics of the node and its ancestors are computed again
+ * from the kept statistics of their children on the next request.
+ */
+public class SubtreeStatistics {
+	private static final SubtreeStatistics LEAF = new SubtreeStatistics(0, 0, 0);
+
+	private final long descendantCount;
+	private final int maximumDepth;
+	private final long foldedDescendantCount;
+
+	private SubtreeStatistics(long descendantCount, int maximumDepth, long foldedDescendantCount) {
+		this.descendantCount = descendantCount;
+		this.maximumDepth = maximumDepth;
+		this.foldedDescendantCount = foldedDescendantCount;
+	}
+
+	static SubtreeStatistics of(NodeModel node) {
+		if (!node.hasChildren())
+			return LEAF;
+		long descendantCount = 0;
+		int maximumDepth = 0;
+		long foldedDescendantCount = 0;
+		for (NodeModel child : node.getChildren()) {
+			final SubtreeStatistics childStatistics = child.getSubtreeStatistics();
+			descendantCount += childStatistics.descendantCount + 1;
+			maximumDepth = Math.max(maximumDepth, childStatistics.maximumDepth + 1);
+			foldedDescendantCount += childStatistics.foldedDescendantCount;
+		}
+		if (node.isFolded())
+			foldedDescendantCount = descendantCount;
+		return new SubtreeStatistics(descendantCount, maximumDepth, foldedDescendantCount);
+	}
+
+	/** number of nodes in the branch without its first node */
+	public long getDescendantCount() {
+		return descendantCount;
+	}
+
+	/** 0 for leaves, otherwise the number of levels below the first node of the branch */
+	public int getMaximumDepth() {
+		return maximumDepth;
+	}
+
+	/** number of descendants hidden by folding the node or one of its descendants */
+	public long getFoldedDescendantCount() {
+		return foldedDescendantCount;
+	}
+
+	@Override
+	public String toString() {
+		return "SubtreeStatistics [descendantCount=" + descendantCount + ", maximumDepth=" + maximumDepth
+		        + ", foldedDescendantCount=" + foldedDescendantCount + "]";
+	}
+}
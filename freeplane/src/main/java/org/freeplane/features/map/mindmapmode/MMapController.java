@@ -381,6 +381,11 @@ public class MMapController extends MapController {
                 return "addNewNode";
             }
 
+            @Override
+            public long getEstimatedSize() {
+                return estimatedBranchSize(newNode);
+            }
+
             @Override
             public void undo() {
                 deleteWithoutUndo(parent, index);
@@ -516,6 +521,11 @@ public class MMapController extends MapController {
                 return "delete";
             }
 
+            @Override
+            public long getEstimatedSize() {
+                return estimatedBranchSize(node);
+            }
+
             @Override
             public void undo() {
                 (Controller.getCurrentModeController().getMapController()).insertNodeIntoWithoutUndo(node, parentNode, index);
@@ -524,6 +534,11 @@ public class MMapController extends MapController {
         Controller.getCurrentModeController().execute(actor, parentNode.getMap());
     }
 
+    /** nodes removed by undo or redo stay alive in the undo history, a node with its extensions takes about a kilobyte */
+    private static long estimatedBranchSize(final NodeModel node) {
+        return IActor.DEFAULT_ESTIMATED_SIZE + 1024 * (node.getSubtreeStatistics().getDescendantCount() + 1);
+    }
+
     private void deleteWithoutUndo(final NodeModel parent, final int index) {
         final NodeModel child = parent.getChildAt(index);
         final NodeDeletionEvent nodeDeletionEvent = new NodeDeletionEvent(parent, child, index);
@@ -270,6 +270,14 @@ public class Controller extends AController implements FreeplaneActions, IMapLif
 		currentController = controller;
 	}
 
+	/** binds the controller to the calling thread, null removes the binding */
+	public static void setCurrentThreadController(final Controller controller){
+		if(controller != null)
+			threadController.set(controller);
+		else
+			threadController.remove();
+	}
+
 	public static ModeController getCurrentModeController() {
 	    return getCurrentController().getModeController();
     }
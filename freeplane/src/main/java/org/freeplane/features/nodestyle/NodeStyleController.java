@@ -23,6 +23,7 @@ import java.awt.Color;
 import java.awt.Font;
 import java.awt.font.TextAttribute;
 import java.util.Collection;
+import java.util.function.Supplier;
 
 import org.freeplane.api.LengthUnit;
 import org.freeplane.api.Quantity;
@@ -173,11 +174,18 @@ public class NodeStyleController implements IExtension {
 
 
 	public Color getBackgroundColor(final NodeModel node, StyleOption option) {
-		return backgroundColorHandlers.getProperty(node, option);
+		return getStyleDependentValue(node, option, backgroundColorHandlers,
+		    () -> backgroundColorHandlers.getProperty(node, option));
 	}
 
 	public Color getColor(final NodeModel node, StyleOption option) {
-		return textColorHandlers.getProperty(node, option);
+		return getStyleDependentValue(node, option, textColorHandlers,
+		    () -> textColorHandlers.getProperty(node, option));
+	}
+
+	/** the values resolved by the handler chains are cached per chain together with the node styles */
+	private <T> T getStyleDependentValue(final NodeModel node, StyleOption option, Object chain, Supplier<T> resolver) {
+		return LogicalStyleController.getController(modeController).getStyleDependentValue(node, option, chain, resolver);
 	}
 
 	private Color getStyleBackgroundColor(final MapModel map, final Collection<IStyle> styleKeys) {
@@ -504,7 +512,8 @@ public class NodeStyleController implements IExtension {
 		return null;
 	}
 	public Font getFont(final NodeModel node, StyleOption option) {
-		final Font font = fontHandlers.getProperty(node, option, null);
+		final Font font = getStyleDependentValue(node, option, fontHandlers,
+		    () -> fontHandlers.getProperty(node, option, null));
 		return font;
 	}
 
@@ -519,12 +528,13 @@ public class NodeStyleController implements IExtension {
 	}
 
 	public NodeStyleShape getShape(final NodeModel node, StyleOption option) {
-		final NodeGeometryModel shapeConfiguration = shapeHandlers.getProperty(node, option);
+		final NodeGeometryModel shapeConfiguration = getShapeConfiguration(node, option);
 		return shapeConfiguration.getShape();
 	}
 	
 	public NodeGeometryModel getShapeConfiguration(NodeModel node, StyleOption option) {
-		final NodeGeometryModel shapeConfiguration = shapeHandlers.getProperty(node, option);
+		final NodeGeometryModel shapeConfiguration = getStyleDependentValue(node, option, shapeHandlers,
+		    () -> shapeHandlers.getProperty(node, option));
 		return shapeConfiguration;
 	}
 
@@ -242,6 +242,11 @@ public class MNoteController extends NoteController {
                 return description;
             }
 
+            @Override
+            public long getEstimatedSize() {
+                return DEFAULT_ESTIMATED_SIZE + NoteModel.estimatedSizeOf(oldNote) + NoteModel.estimatedSizeOf(newNote);
+            }
+
             @Override
             public void undo() {
                 setNote(oldNote);
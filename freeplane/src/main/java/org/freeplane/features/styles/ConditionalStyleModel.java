@@ -154,6 +154,15 @@ public class ConditionalStyleModel implements IExtension, Iterable<ConditionalSt
 	
 	
 	
+	public boolean checksLineageOnly() {
+		for(Item item : styles){
+			final ASelectableCondition condition = item.getCondition();
+			if(item.isActive() && condition != null && ! condition.checksLineageOnly())
+				return false;
+		}
+		return true;
+	}
+
 	public List<Item> getStyles() {
         return styles;
     }
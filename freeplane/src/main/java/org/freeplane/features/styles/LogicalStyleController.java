@@ -25,8 +25,9 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 import org.freeplane.core.extension.IExtension;
 import org.freeplane.core.io.IAttributeHandler;
@@ -57,6 +58,7 @@ import org.freeplane.features.mode.Controller;
 import org.freeplane.features.mode.IPropertyHandler;
 import org.freeplane.features.mode.ModeController;
 import org.freeplane.features.styles.ConditionalStyleModel.Item;
+import org.freeplane.features.styles.ResolvedStyleCache.ResolvedStyles;
 
 /**
  * @author Dimitry Polivaev
@@ -68,10 +70,18 @@ public class LogicalStyleController implements IExtension {
 	public static enum StyleOption{FOR_SELECTED_NODE, FOR_UNSELECTED_NODE, STYLES_ONLY}
 
     private static final int STYLE_TOOLTIP = 0;
+
+	/** state of the style resolution running on the current thread */
+	private static class StyleEvaluation {
+		int conditionalStyleDepth;
+		boolean checksLineageOnly;
+	}
+
+	private static final ThreadLocal<StyleEvaluation> styleEvaluation = ThreadLocal.withInitial(StyleEvaluation::new);
 	private WeakReference<NodeModel> cachedNode;
-    private Collection<IStyle>  cachedStyles;
-    private List<IStyle>  cachedStylesForSeletedNode;
+    private ResolvedStyles  cachedStyles;
 	final private CombinedPropertyChain<Collection<IStyle>, NodeModel> styleHandlers;
+	private final AtomicInteger styleGetterGeneration = new AtomicInteger();
 
 	public LogicalStyleController(ModeController modeController) {
 //	    this.modeController = modeController;
@@ -90,7 +100,7 @@ public class LogicalStyleController implements IExtension {
 				MapModel map = node.getMap();
 				if(! (map instanceof StyleMapModel)) {
 					final MapStyleModel styleModel = MapStyleModel.getExtension(map);
-					Collection<IStyle> condStyles = styleModel.getConditionalStyleModel().getStyles(node);
+					Collection<IStyle> condStyles = getConditionalStyles(styleModel.getConditionalStyleModel(), node);
 					addAll(node, styleModel, currentValue, condStyles);
 				}
 				return currentValue;
@@ -106,7 +116,7 @@ public class LogicalStyleController implements IExtension {
 			public String getTooltip(ModeController modeController, NodeModel node, Component view) {
 				if(!ResourceController.getResourceController().getBooleanProperty("show_styles_in_tooltip"))
 					return null;
-				final Collection<IStyle> styles = getStyles(node, StyleOption.FOR_UNSELECTED_NODE);
+				final Collection<IStyle> styles = new ArrayList<IStyle>(getStyles(node, StyleOption.FOR_UNSELECTED_NODE));
 				if(styles.size() > 0)
 					styles.remove(styles.iterator().next());
 				final String label = TextUtils.getText("node_styles");
@@ -150,11 +160,25 @@ public class LogicalStyleController implements IExtension {
 			final ConditionalStyleModel conditionalStyleModel = styleNode.getExtension(ConditionalStyleModel.class);
 			if(conditionalStyleModel == null)
 				return;
-			Collection<IStyle> styles = conditionalStyleModel.getStyles(node);
+			Collection<IStyle> styles = getConditionalStyles(conditionalStyleModel, node);
 			cachedNode = null;
 			addAll(node, styleModel, currentValue, styles);
     }
 
+	/** conditional styles checking other nodes prevent caching, nested style resolutions are never cached */
+	private Collection<IStyle> getConditionalStyles(final ConditionalStyleModel conditionalStyleModel, final NodeModel node) {
+		final StyleEvaluation evaluation = styleEvaluation.get();
+		if(! conditionalStyleModel.checksLineageOnly())
+			evaluation.checksLineageOnly = false;
+		evaluation.conditionalStyleDepth++;
+		try {
+			return conditionalStyleModel.getStyles(node);
+		}
+		finally {
+			evaluation.conditionalStyleDepth--;
+		}
+	}
+
 	private void registerChangeListener() {
 		ModeController modeController = Controller.getCurrentModeController();
 		final MapController mapController = modeController.getMapController();
@@ -188,7 +212,12 @@ public class LogicalStyleController implements IExtension {
 				clearCache();
 			}
 		});
-
+		final ResolvedStyleCache.Updater cacheUpdater = new ResolvedStyleCache.Updater();
+		mapController.addNodeChangeListener(cacheUpdater);
+		mapController.addMapChangeListener(cacheUpdater);
+		// default fonts and colors depend on preferences
+		ResourceController.getResourceController().addPropertyChangeListener(
+		    (propertyName, newValue, oldValue) -> styleGetterGeneration.incrementAndGet());
     }
 
 	private void createBuilder() {
@@ -310,18 +339,51 @@ public class LogicalStyleController implements IExtension {
 		return MapStyleModel.DEFAULT_STYLE;
 	}
 	public Collection<IStyle>  getStyles(final NodeModel node, StyleOption option) {
+		final ResolvedStyles mapCachedStyles = getMapCachedStyles(node, option);
+		if(mapCachedStyles != null)
+			return mapCachedStyles.getStyles(option);
 		if(cachedNode == null || !node.equals(cachedNode.get())) {
 		    cachedStyles = null;
 		    cachedNode = null;
-		    cachedStyles = styleHandlers.getProperty(node, option, new LinkedHashSet<IStyle>());
+		    cachedStyles = resolveStyles(node, option);
+		    cachedNode = new WeakReference<NodeModel>(node);
+		}
+		return cachedStyles.getStyles(option);
+	}
+
+	/** returns the value computed by the resolver from the styles of the node, cached with the styles when they are cached */
+	public <T> T getStyleDependentValue(final NodeModel node, StyleOption option, Object key, Supplier<T> resolver) {
+		final ResolvedStyles mapCachedStyles = getMapCachedStyles(node, option);
+		if(mapCachedStyles != null)
+			return mapCachedStyles.getValue(option, key, resolver);
+		return resolver.get();
+	}
+
+	private ResolvedStyles resolveStyles(final NodeModel node, StyleOption option) {
+		return new ResolvedStyles(styleHandlers.getProperty(node, option, new LinkedHashSet<IStyle>()));
+	}
+
+	/** returns null unless the resolved style cache is enabled and the styles of the node can be cached */
+	private ResolvedStyles getMapCachedStyles(final NodeModel node, StyleOption option) {
+		final MapModel map = node.getMap();
+		if(map == null || ! ResolvedStyleCache.isEnabled())
+			return null;
+		final StyleEvaluation evaluation = styleEvaluation.get();
+		if(evaluation.conditionalStyleDepth > 0)
+			return null;
+		final ResolvedStyleCache cache = ResolvedStyleCache.of(map, styleGetterGeneration.get());
+		final ResolvedStyles mapCachedStyles = cache.get(node);
+		if(mapCachedStyles != null)
+			return mapCachedStyles;
+		evaluation.checksLineageOnly = true;
+		final ResolvedStyles resolvedStyles = resolveStyles(node, option);
+		if(! evaluation.checksLineageOnly) {
+		    cachedStyles = resolvedStyles;
 		    cachedNode = new WeakReference<NodeModel>(node);
-		    cachedStylesForSeletedNode = new ArrayList<>(cachedStyles.size() + 1);
-		    cachedStylesForSeletedNode.add(MapStyleModel.SELECTION_STYLE);
-		    cachedStylesForSeletedNode.addAll(cachedStyles);
+			return null;
 		}
-		return option == StyleOption.FOR_SELECTED_NODE ? cachedStylesForSeletedNode :
-		    option == StyleOption.FOR_UNSELECTED_NODE ? cachedStyles :
-		        cachedStylesForSeletedNode.subList(2, cachedStylesForSeletedNode.size())    ;
+		cache.put(node, resolvedStyles);
+		return resolvedStyles;
 	}
 
 	public void moveConditionalStyleDown(final ConditionalStyleModel conditionalStyleModel, int index) {
@@ -354,12 +416,14 @@ public class LogicalStyleController implements IExtension {
 	public IPropertyHandler<Collection<IStyle>, NodeModel> addStyleGetter(
 		final Integer key,
 		final IPropertyHandler<Collection<IStyle>, NodeModel> getter) {
+		styleGetterGeneration.incrementAndGet();
 		return styleHandlers.addGetter(key, getter);
 	}
 
 	public IPropertyHandler<Collection<IStyle>, NodeModel> removeStyleGetter(
 		final Integer key,
 		final IPropertyHandler<Collection<IStyle>, NodeModel> getter) {
+		styleGetterGeneration.incrementAndGet();
 		return styleHandlers.addGetter(key, getter);
 	}
 
@@ -377,7 +441,7 @@ public class LogicalStyleController implements IExtension {
 
 	public Collection<IStyle>  getConditionalMapStyles(final NodeModel node) {
 		final MapStyleModel styleModel = MapStyleModel.getExtension(node.getMap());
-		Collection<IStyle> condStyles = styleModel.getConditionalStyleModel().getStyles(node);
+		Collection<IStyle> condStyles = getConditionalStyles(styleModel.getConditionalStyleModel(), node);
 		clearCache();
 		return getResursively(node, condStyles);
 	}
@@ -391,7 +455,7 @@ public class LogicalStyleController implements IExtension {
 
 		final ConditionalStyleModel conditionalStyleModel = node.getExtension(ConditionalStyleModel.class);
 		if(conditionalStyleModel != null) {
-			Collection<IStyle> styles = conditionalStyleModel.getStyles(node);
+			Collection<IStyle> styles = getConditionalStyles(conditionalStyleModel, node);
 			clearCache();
 			condStyles.addAll(styles);
 		}
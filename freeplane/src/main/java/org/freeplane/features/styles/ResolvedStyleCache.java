@@ -0,0 +1,158 @@
+package org.freeplane.features.styles;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.freeplane.core.extension.IExtension;
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.features.map.IMapChangeListener;
+import org.freeplane.features.map.INodeChangeListener;
+import org.freeplane.features.map.MapChangeEvent;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeChangeEvent;
+import org.freeplane.features.map.NodeDeletionEvent;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.map.NodeMoveEvent;
+import org.freeplane.features.styles.LogicalStyleController.StyleOption;
+
+/**
+ * Keeps the styles resolved for the nodes of a map together with the values resolved from them,
+ * like fonts, colors and shapes.
+ *
+ * Only styles of nodes whose conditional styles check the node, its ancestors and its descendants are kept.
+ * A node change event drops the entries of the node, its ancestors and its descendants.
+ * Map changes, which include style changes, and structural changes drop all entries,
+ * and so does a preference change, which may change default values.
+ */
+class ResolvedStyleCache implements IExtension {
+	static final String RESOLVED_STYLE_CACHE_PROPERTY = "resolved_style_cache";
+
+	static class Updater implements INodeChangeListener, IMapChangeListener {
+		@Override
+		public void nodeChanged(final NodeChangeEvent event) {
+			final NodeModel node = event.getNode();
+			final MapModel map = node.getMap();
+			if (map == null)
+				return;
+			final ResolvedStyleCache cache = map.getExtension(ResolvedStyleCache.class);
+			if (cache != null)
+				cache.removeLineage(node);
+		}
+
+		@Override
+		public void mapChanged(final MapChangeEvent event) {
+			removeFrom(event.getMap());
+		}
+
+		@Override
+		public void onNodeInserted(final NodeModel parent, final NodeModel child, final int newIndex) {
+			removeFrom(parent.getMap());
+		}
+
+		@Override
+		public void onNodeDeleted(final NodeDeletionEvent nodeDeletionEvent) {
+			removeFrom(nodeDeletionEvent.parent.getMap());
+		}
+
+		@Override
+		public void onNodeMoved(final NodeMoveEvent nodeMoveEvent) {
+			removeFrom(nodeMoveEvent.newParent.getMap());
+		}
+
+		private void removeFrom(final MapModel map) {
+			if (map != null)
+				map.removeExtension(ResolvedStyleCache.class);
+		}
+	}
+
+	/** styles resolved for a node and the values resolved from them */
+	static class ResolvedStyles {
+		private final Collection<IStyle> styles;
+		private final List<IStyle> stylesForSelectedNode;
+		private final Map<StyleOption, Map<Object, Object>> values = new EnumMap<>(StyleOption.class);
+
+		ResolvedStyles(final Collection<IStyle> styles) {
+			this.styles = styles;
+			stylesForSelectedNode = new ArrayList<>(styles.size() + 1);
+			stylesForSelectedNode.add(MapStyleModel.SELECTION_STYLE);
+			stylesForSelectedNode.addAll(styles);
+		}
+
+		Collection<IStyle> getStyles(final StyleOption option) {
+			return option == StyleOption.FOR_SELECTED_NODE ? stylesForSelectedNode :
+			    option == StyleOption.FOR_UNSELECTED_NODE ? styles :
+			        stylesForSelectedNode.subList(2, stylesForSelectedNode.size());
+		}
+
+		/** returns the value stored for the key, resolving and storing it on first access */
+		@SuppressWarnings("unchecked")
+		<T> T getValue(final StyleOption option, final Object key, final Supplier<T> resolver) {
+			synchronized (values) {
+				final Map<Object, Object> optionValues = values.get(option);
+				if (optionValues != null && optionValues.containsKey(key))
+					return (T) optionValues.get(key);
+			}
+			final T value = resolver.get();
+			synchronized (values) {
+				values.computeIfAbsent(option, x -> new HashMap<>()).put(key, value);
+			}
+			return value;
+		}
+	}
+
+	private final Map<NodeModel, ResolvedStyles> entries = new HashMap<NodeModel, ResolvedStyles>();
+	private final int generation;
+
+	private ResolvedStyleCache(final int generation) {
+		this.generation = generation;
+	}
+
+	static boolean isEnabled() {
+		return ResourceController.getResourceController().getBooleanProperty(RESOLVED_STYLE_CACHE_PROPERTY);
+	}
+
+	/** returns the cache of the map, a new one if the style getters or preferences changed since it was created */
+	static ResolvedStyleCache of(final MapModel map, final int generation) {
+		synchronized (map) {
+			final ResolvedStyleCache cache = map.getExtension(ResolvedStyleCache.class);
+			if (cache != null && cache.generation == generation)
+				return cache;
+			final ResolvedStyleCache newCache = new ResolvedStyleCache(generation);
+			map.putExtension(ResolvedStyleCache.class, newCache);
+			return newCache;
+		}
+	}
+
+	/** returns the cached styles or null */
+	synchronized ResolvedStyles get(final NodeModel node) {
+		return entries.get(node);
+	}
+
+	synchronized void put(final NodeModel node, final ResolvedStyles styles) {
+		entries.put(node, styles);
+	}
+
+	/** removes the node, its ancestors and its descendants */
+	synchronized void removeLineage(final NodeModel node) {
+		if (entries.isEmpty())
+			return;
+		if (node.isRoot()) {
+			entries.clear();
+			return;
+		}
+		for (NodeModel ancestor = node.getParentNode(); ancestor != null; ancestor = ancestor.getParentNode())
+			entries.remove(ancestor);
+		removeBranch(node);
+	}
+
+	private void removeBranch(final NodeModel node) {
+		entries.remove(node);
+		for (final NodeModel child : node.getChildren())
+			removeBranch(child);
+	}
+}
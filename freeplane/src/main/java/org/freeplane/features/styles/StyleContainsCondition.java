@@ -22,6 +22,11 @@ public class StyleContainsCondition extends ASelectableCondition {
 		return styles.contains(value);
 	}
 
+	@Override
+	public boolean checksLineageOnly() {
+		return true;
+	}
+
 	public void fillXML(final XMLElement child) {
 		if (value instanceof StyleString) {
 			child.setAttribute("TEXT", value.toString());
@@ -19,7 +19,10 @@
  */
 package org.freeplane.features.text;
 
+import java.util.function.BooleanSupplier;
+
 import org.freeplane.core.util.TextUtils;
+import org.freeplane.features.filter.PseudoDamerauLevenshtein;
 import org.freeplane.features.filter.StringMatchingStrategy;
 import org.freeplane.features.filter.condition.ASelectableCondition;
 import org.freeplane.features.filter.condition.ConditionFactory;
@@ -31,6 +34,8 @@ public class NodeContainsCondition extends StringConditionAdapter implements Nod
 	static final String IGNORE_CASE_NAME = "node_contains_condition";
 	static final String MATCH_CASE_NAME = "match_case_node_contains_condition";
     public static final String VALUE = "VALUE";
+	private static final ThreadLocal<StringMatchingStrategy> APPROXIMATE_MATCHING_STRATEGY =
+	        ThreadLocal.withInitial(PseudoDamerauLevenshtein::new);
 
 	static ASelectableCondition loadIgnoreCase(final XMLElement element) {
 		return new NodeContainsCondition(
@@ -65,6 +70,11 @@ public class NodeContainsCondition extends StringConditionAdapter implements Nod
 		return checkText(content);
 	}
 
+	@Override
+	public boolean checksLineageOnly() {
+		return true;
+	}
+
 	private boolean checkText(Object content[]) {
 		for(Object o : content){
 			if(checkText(o))
@@ -74,7 +84,29 @@ public class NodeContainsCondition extends StringConditionAdapter implements Nod
 	}
 
 	private boolean checkText(final Object o) {
-		return o != null && stringMatchingStrategy.matches(normalizedValue(), normalize(o), true);
+		return o != null && stringMatchingStrategy().matches(normalizedValue(), normalize(o), true);
+	}
+
+	/** the approximate matching strategy keeps state while matching, so each thread gets its own instance */
+	private StringMatchingStrategy stringMatchingStrategy() {
+		return matchApproximately ? APPROXIMATE_MATCHING_STRATEGY.get() : stringMatchingStrategy;
+	}
+
+	@Override
+	public boolean isThreadSafe() {
+		return NodeTextConditionController.canCompareInParallel(nodeItem);
+	}
+
+	@Override
+	public boolean canPrepareChecks() {
+		return true;
+	}
+
+	/** transforms the texts on the calling thread and matches them on any thread */
+	@Override
+	public BooleanSupplier prepareCheck(final NodeModel node) {
+		final Object content[] = NodeTextConditionController.getItemsForComparison(nodeItem, node);
+		return () -> checkText(content);
 	}
 
 	@Override
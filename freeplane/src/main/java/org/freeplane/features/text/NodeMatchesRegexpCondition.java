@@ -19,6 +19,7 @@
  */
 package org.freeplane.features.text;
 
+import java.util.function.BooleanSupplier;
 import java.util.regex.Pattern;
 
 import org.freeplane.core.io.xml.TreeXmlWriter;
@@ -63,6 +64,11 @@ public class NodeMatchesRegexpCondition extends ASelectableCondition implements
 		return content != null && checkText(content);
 	}
 
+	@Override
+	public boolean checksLineageOnly() {
+		return true;
+	}
+
 	private boolean checkText(Object content[]) {
 		for(Object o : content){
 			if(o != null && checkText(o.toString()))
@@ -75,6 +81,23 @@ public class NodeMatchesRegexpCondition extends ASelectableCondition implements
 		return searchPattern.matcher(text).find();
 	}
 
+	@Override
+	public boolean isThreadSafe() {
+		return NodeTextConditionController.canCompareInParallel(nodeItem);
+	}
+
+	@Override
+	public boolean canPrepareChecks() {
+		return true;
+	}
+
+	/** transforms the texts on the calling thread and matches them on any thread */
+	@Override
+	public BooleanSupplier prepareCheck(final NodeModel node) {
+		final Object content[] = NodeTextConditionController.getItemsForComparison(nodeItem, node);
+		return () -> content != null && checkText(content);
+	}
+
 	@Override
 	protected String createDescription() {
 		final String nodeCondition = TextUtils.getText(nodeItem);
@@ -81,6 +81,11 @@ public class NodeTextCompareCondition extends CompareConditionAdapter implements
 		return content != null && checkContents(content);
 	}
 
+	@Override
+	public boolean checksLineageOnly() {
+		return true;
+	}
+
 	private boolean checkContents(Object content[]) {
 		for(Object o : content){
 			if(o != null && checkContent(o))
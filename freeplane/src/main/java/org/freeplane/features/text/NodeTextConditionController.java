@@ -212,8 +212,15 @@ class NodeTextConditionController implements IElementaryConditionController {
 		return result;
     }
 
+	/**
+	 * Node and parent texts are passed through the text transformers like formulas, which are not thread safe.
+	 * Details and notes are compared without transformation.
+	 */
+	static boolean canCompareInParallel(Object nodeItem) {
+		return nodeItem.equals(TextController.FILTER_DETAILS) || nodeItem.equals(TextController.FILTER_NOTE);
+	}
+
 	private static Object transformedObject(final NodeModel node) {
-		final Object userObject = node.getUserObject();
 		return TextController.getController().getPlainTransformedTextWithoutNodeNumber(node);
 	}
 
@@ -64,6 +64,11 @@ public class NoteContainsCondition extends StringConditionAdapter {
 		return stringMatchingStrategy.matches(normalizedValue(), normalize(text), true);
 	}
 
+	@Override
+	public boolean checksLineageOnly() {
+		return true;
+	}
+
 	@Override
 	protected String createDescription() {
 		return createDescription(true);
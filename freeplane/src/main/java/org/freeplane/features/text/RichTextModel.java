@@ -1,5 +1,6 @@
 package org.freeplane.features.text;
 
+import org.freeplane.core.undo.IActor;
 import org.freeplane.core.util.HtmlUtils;
 import org.freeplane.core.util.XmlUtils;
 
@@ -76,4 +77,8 @@ public class RichTextModel {
 	public String getTextOr(String fallback) {
 		return text == null ? fallback : text;
 	}
+
+	public static long estimatedSizeOf(RichTextModel model) {
+		return model == null ? 0 : IActor.estimatedSizeOf(model.text) + IActor.estimatedSizeOf(model.xml);
+	}
 }
@@ -26,6 +26,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 import javax.swing.Icon;
@@ -76,6 +77,7 @@ public class TextController implements IExtension {
 	private static final Integer DETAILS_TOOLTIP = 2;
 	public static final String MARK_TRANSFORMED_TEXT = "highlight_formulas";
 	private final List<IContentTransformer> textTransformers;
+	private final AtomicInteger transformerGeneration = new AtomicInteger();
 	protected final ModeController modeController;
 	private boolean nodeNumberingEnabled = true;
 
@@ -120,11 +122,18 @@ public class TextController implements IExtension {
 		addTextTransformer(new FormatContentTransformer(this, 50));
 		registerDetailsTooltip();
 		registerNodeTextTooltip();
+		final TransformedContentCache.Updater cacheUpdater = new TransformedContentCache.Updater();
+		mapController.addNodeChangeListener(cacheUpdater);
+		mapController.addMapChangeListener(cacheUpdater);
+		// transformers and formats depend on preferences
+		ResourceController.getResourceController().addPropertyChangeListener(
+		    (propertyName, newValue, oldValue) -> transformerGeneration.incrementAndGet());
 	}
 
     public void addTextTransformer(IContentTransformer textTransformer) {
 		textTransformers.add(textTransformer);
 		Collections.sort(textTransformers);
+		transformerGeneration.incrementAndGet();
 	}
 
 	public List<IContentTransformer> getTextTransformers() {
@@ -133,6 +142,17 @@ public class TextController implements IExtension {
 
 	public void removeTextTransformer(IContentTransformer textTransformer) {
 		textTransformers.remove(textTransformer);
+		transformerGeneration.incrementAndGet();
+	}
+
+	/** returns the number of transformations answered from the transformed content cache since start */
+	public long getTransformedContentCacheHitCount() {
+		return TransformedContentCache.hitCount.get();
+	}
+
+	/** returns the number of transformations not found in the transformed content cache since start */
+	public long getTransformedContentCacheMissCount() {
+		return TransformedContentCache.missCount.get();
 	}
 
 	public String getText(NodeModel nodeModel) {
@@ -145,6 +165,22 @@ public class TextController implements IExtension {
     }
     
 	private Object getTransformedObject(final NodeModel node, Object nodeProperty, Object content, Mode mode)
+	        throws TransformationException {
+		if (TransformedContentCache.isCacheable(node, content) && node.getMap() != null
+		        && TransformedContentCache.isEnabled()) {
+			final TransformedContentCache cache = TransformedContentCache.of(node.getMap(), transformerGeneration.get());
+			final boolean nodeNumbering = nodeNumberingEnabled;
+			final Object cached = cache.get(node, nodeProperty, content, mode, nodeNumbering);
+			if (cached != null)
+				return cached;
+			final Object transformed = transformContent(node, nodeProperty, content, mode);
+			cache.put(node, nodeProperty, content, mode, nodeNumbering, transformed);
+			return transformed;
+		}
+		return transformContent(node, nodeProperty, content, mode);
+	}
+
+	private Object transformContent(final NodeModel node, Object nodeProperty, Object content, Mode mode)
 	        throws TransformationException {
 		if (content instanceof String) {
 			String string = (String) content;
@@ -0,0 +1,157 @@
+package org.freeplane.features.text;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.freeplane.core.extension.IExtension;
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.core.util.Hyperlink;
+import org.freeplane.features.map.IMapChangeListener;
+import org.freeplane.features.map.INodeChangeListener;
+import org.freeplane.features.map.MapChangeEvent;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeChangeEvent;
+import org.freeplane.features.map.NodeDeletionEvent;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.map.NodeMoveEvent;
+import org.freeplane.features.text.IContentTransformer.Mode;
+
+/**
+ * Keeps the results of the content transformer chain for the nodes of a map.
+ *
+ * An entry is used while the node property still holds the same content object.
+ * Entries of a node are dropped by its node change events, all entries by map changes and structural changes,
+ * which may change node numbers, and when the transformer generation of the text controller changes.
+ * Links are never cached, because their transformed text is the text of the link target.
+ */
+class TransformedContentCache implements IExtension {
+	static final String TRANSFORMED_CONTENT_CACHE_PROPERTY = "transformed_content_cache";
+
+	static final AtomicLong hitCount = new AtomicLong();
+	static final AtomicLong missCount = new AtomicLong();
+
+	static class Updater implements INodeChangeListener, IMapChangeListener {
+		@Override
+		public void nodeChanged(final NodeChangeEvent event) {
+			final NodeModel node = event.getNode();
+			final MapModel map = node.getMap();
+			if (map == null)
+				return;
+			final TransformedContentCache cache = map.getExtension(TransformedContentCache.class);
+			if (cache != null)
+				cache.remove(node);
+		}
+
+		@Override
+		public void mapChanged(final MapChangeEvent event) {
+			removeFrom(event.getMap());
+		}
+
+		@Override
+		public void onNodeInserted(final NodeModel parent, final NodeModel child, final int newIndex) {
+			removeFrom(parent.getMap());
+		}
+
+		@Override
+		public void onNodeDeleted(final NodeDeletionEvent nodeDeletionEvent) {
+			removeFrom(nodeDeletionEvent.parent.getMap());
+		}
+
+		@Override
+		public void onNodeMoved(final NodeMoveEvent nodeMoveEvent) {
+			removeFrom(nodeMoveEvent.newParent.getMap());
+		}
+
+		private void removeFrom(final MapModel map) {
+			if (map != null)
+				map.removeExtension(TransformedContentCache.class);
+		}
+	}
+
+	private static class Entry {
+		final Object nodeProperty;
+		final Object content;
+		final Mode mode;
+		final boolean nodeNumbering;
+		final Object transformed;
+
+		Entry(final Object nodeProperty, final Object content, final Mode mode, final boolean nodeNumbering,
+		      final Object transformed) {
+			this.nodeProperty = nodeProperty;
+			this.content = content;
+			this.mode = mode;
+			this.nodeNumbering = nodeNumbering;
+			this.transformed = transformed;
+		}
+
+		boolean matches(final Object nodeProperty, final Object content, final Mode mode, final boolean nodeNumbering) {
+			return this.nodeProperty == nodeProperty && this.content == content && this.mode == mode
+			        && this.nodeNumbering == nodeNumbering;
+		}
+	}
+
+	private final Map<NodeModel, List<Entry>> entries = new HashMap<NodeModel, List<Entry>>();
+	private final int generation;
+
+	private TransformedContentCache(final int generation) {
+		this.generation = generation;
+	}
+
+	static boolean isEnabled() {
+		return ResourceController.getResourceController().getBooleanProperty(TRANSFORMED_CONTENT_CACHE_PROPERTY);
+	}
+
+	static boolean isCacheable(final NodeModel node, final Object content) {
+		return node != null && content != null && !(content instanceof Hyperlink) && !(content instanceof URI);
+	}
+
+	/** returns the cache of the map, a new one if the transformers changed since it was created */
+	static TransformedContentCache of(final MapModel map, final int generation) {
+		synchronized (map) {
+			final TransformedContentCache cache = map.getExtension(TransformedContentCache.class);
+			if (cache != null && cache.generation == generation)
+				return cache;
+			final TransformedContentCache newCache = new TransformedContentCache(generation);
+			map.putExtension(TransformedContentCache.class, newCache);
+			return newCache;
+		}
+	}
+
+	/** returns the cached result or null */
+	synchronized Object get(final NodeModel node, final Object nodeProperty, final Object content, final Mode mode,
+	                        final boolean nodeNumbering) {
+		final List<Entry> nodeEntries = entries.get(node);
+		if (nodeEntries != null) {
+			for (final Entry entry : nodeEntries) {
+				if (entry.matches(nodeProperty, content, mode, nodeNumbering)) {
+					hitCount.incrementAndGet();
+					return entry.transformed;
+				}
+			}
+		}
+		missCount.incrementAndGet();
+		return null;
+	}
+
+	synchronized void put(final NodeModel node, final Object nodeProperty, final Object content, final Mode mode,
+	                      final boolean nodeNumbering, final Object transformed) {
+		List<Entry> nodeEntries = entries.get(node);
+		if (nodeEntries == null) {
+			nodeEntries = new ArrayList<Entry>(2);
+			entries.put(node, nodeEntries);
+		}
+		else {
+			nodeEntries.removeIf(entry -> entry.nodeProperty == nodeProperty && entry.mode == mode
+			        && entry.nodeNumbering == nodeNumbering);
+		}
+		nodeEntries.add(new Entry(nodeProperty, content, mode, nodeNumbering, transformed));
+	}
+
+	synchronized void remove(final NodeModel node) {
+		entries.remove(node);
+	}
+}
@@ -576,6 +576,11 @@ public class MTextController extends TextController {
 				return "setNodeText";
 			}
 
+			@Override
+			public long getEstimatedSize() {
+				return DEFAULT_ESTIMATED_SIZE + IActor.estimatedSizeOf(oldText) + IActor.estimatedSizeOf(newObject);
+			}
+
 			@Override
 			public void undo() {
 				if (!oldText.equals(newObject)) {
@@ -703,6 +708,11 @@ public class MTextController extends TextController {
                 return description;
             }
 
+            @Override
+            public long getEstimatedSize() {
+                return DEFAULT_ESTIMATED_SIZE + DetailModel.estimatedSizeOf(oldDetails) + DetailModel.estimatedSizeOf(newDetails);
+            }
+
             @Override
             public void undo() {
                 setDetails(oldDetails);
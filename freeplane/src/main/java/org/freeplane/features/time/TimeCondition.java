@@ -60,6 +60,11 @@ public abstract class TimeCondition extends ASelectableCondition {
 		return date;
 	}
 
+	@Override
+	public boolean checksLineageOnly() {
+		return true;
+	}
+
 	abstract protected String getName();
 
 
@@ -22,21 +22,56 @@ package org.freeplane.features.url.mindmapmode;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.File;
+import java.io.IOException;
 import java.net.URL;
-
-import javax.swing.Timer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.freeplane.core.util.LogUtils;
 import org.freeplane.core.util.TextUtils;
 import org.freeplane.features.map.MapModel;
-import org.freeplane.features.map.mindmapmode.MMapModel;
+import org.freeplane.features.map.MapWriter.Mode;
 import org.freeplane.features.mode.Controller;
 import org.freeplane.features.mode.ModeController;
 import org.freeplane.features.mode.mindmapmode.MModeController;
+import org.freeplane.features.ui.ViewController;
 import org.freeplane.features.url.UrlManager;
 
 public class DoAutomaticSave implements ActionListener {
     static final String AUTOSAVE_EXTENSION = "autosave";
+    /**
+     * Backup files are rotated and written one after another by a single
+     * background thread, so that the event dispatch thread only pays for
+     * the in-memory snapshot of the map. Incremental map saving is enabled
+     * by default, so the snapshot shares the xml of unchanged branches with
+     * the branch xml cache and only changed branches are serialized on the
+     * event dispatch thread. If it is disabled, the whole map is serialized there.
+     */
+    final private static ExecutorService writerService = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            final Thread thread = Executors.defaultThreadFactory().newThread(r);
+            thread.setName("autosave");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private static class Snapshot {
+        final File file;
+        final boolean hasUrl;
+        final SnapshotWriter content;
+        final ViewController viewController;
+
+        Snapshot(File file, boolean hasUrl, SnapshotWriter content, ViewController viewController) {
+            this.file = file;
+            this.hasUrl = hasUrl;
+            this.content = content;
+            this.viewController = viewController;
+        }
+    }
     /**
      * This value is compared with the result of
      * getNumberOfChangesSinceLastSave(). If the values coincide, no further
@@ -46,6 +81,12 @@ public class DoAutomaticSave implements ActionListener {
     final private boolean filesShouldBeDeletedAfterShutdown;
     final private MapModel model;
     final private int numberOfFiles;
+    /**
+     * Latest snapshot not yet taken by the writer thread. A newer snapshot
+     * replaces an unwritten one, so only the most recent state reaches the
+     * disk when edits arrive faster than the disk can keep up.
+     */
+    final private AtomicReference<Snapshot> pendingSnapshot = new AtomicReference<>();
 
     public DoAutomaticSave(final MapModel model, final int numberOfTempFiles,
             final boolean filesShouldBeDeletedAfterShutdown) {
@@ -66,19 +107,43 @@ public class DoAutomaticSave implements ActionListener {
             /* map was recently saved. */
             return;
         }
-        Timer timer =  (Timer) e.getSource();
-        timer.stop();
         try {
             final ModeController currentModeController = Controller.getCurrentModeController();
             if(!(currentModeController instanceof MModeController))
                 return;
-            MModeController modeController = ((MModeController) currentModeController);
             final URL url = model.getURL();
             final File file = new File(url != null ? url.getFile() //
                     : model.getTitle() + UrlManager.FREEPLANE_FILE_EXTENSION);
-            final File pathToStore = MFileManager.backupDir(url != null ? file : null);
+            if(! file.canWrite())
+                return;
+            final SnapshotWriter content = new SnapshotWriter();
+            currentModeController.getMapController().getMapWriter()
+                .writeMapAsXml(model, content, Mode.FILE, true, false);
+            final Snapshot snapshot = new Snapshot(file, url != null, content,
+                currentModeController.getController().getViewController());
+            if (pendingSnapshot.getAndSet(snapshot) == null) {
+                writerService.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        writePendingSnapshot();
+                    }
+                });
+            }
+        }
+        catch (final Exception ex) {
+            LogUtils.severe("Error in automatic MapModel.save(): ", ex);
+        }
+    }
+
+    private void writePendingSnapshot() {
+        final Snapshot snapshot = pendingSnapshot.getAndSet(null);
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            final File pathToStore = MFileManager.backupDir(snapshot.hasUrl ? snapshot.file : null);
             pathToStore.mkdirs();
-            final File tempFile = MFileManager.renameBackupFiles(pathToStore, file, numberOfFiles,
+            final File tempFile = MFileManager.renameBackupFiles(pathToStore, snapshot.file, numberOfFiles,
                     AUTOSAVE_EXTENSION);
             if (tempFile == null) {
                 return;
@@ -86,12 +151,22 @@ public class DoAutomaticSave implements ActionListener {
             if (filesShouldBeDeletedAfterShutdown) {
                 tempFile.deleteOnExit();
             }
-            if(file.canWrite()) {
-                ((MFileManager) UrlManager.getController())
-                .saveInternal((MMapModel) model, tempFile, true /*=internal call*/);
-                modeController.getController().getViewController()
-                .out(TextUtils.format("automatically_save_message", tempFile));
-            }
+            MFileManager.writeLocked(tempFile, snapshot.content::writeTo);
+            snapshot.viewController.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    snapshot.viewController.out(TextUtils.format("automatically_save_message", tempFile));
+                }
+            });
+        }
+        catch (final IOException ex) {
+            final String message = TextUtils.format("save_failed", snapshot.file.getName());
+            snapshot.viewController.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    snapshot.viewController.out(message);
+                }
+            });
         }
         catch (final Exception ex) {
             LogUtils.severe("Error in automatic MapModel.save(): ", ex);
@@ -36,6 +36,7 @@ import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.SequenceInputStream;
+import java.io.Writer;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -851,6 +852,16 @@ public class MFileManager extends UrlManager implements IMapViewChangeListener {
 	/**@deprecated -- use MMapIO*/
 	@Deprecated
 	public void writeToFile(final MapModel map, final File file) throws FileNotFoundException, IOException {
+		writeLocked(file, writer -> Controller.getCurrentModeController().getMapController().getMapWriter()
+		    .writeMapAsXml(map, writer, Mode.FILE, true, false));
+	}
+
+	interface ContentWriter {
+		void write(Writer writer) throws IOException;
+	}
+
+	/** writes UTF-8 encoded content to the file holding a lock on it */
+	static void writeLocked(final File file, final ContentWriter content) throws IOException {
 		FileLock lock = null;
 		try (final FileOutputStream out = new FileOutputStream(file)){
 			boolean lockedByOtherApplication = false;
@@ -866,8 +877,8 @@ public class MFileManager extends UrlManager implements IMapViewChangeListener {
 			}
 			final BufferedWriter fileout = new BufferedWriter(new OutputStreamWriter(out,//
 				StandardCharsets.UTF_8));
-			Controller.getCurrentModeController().getMapController().getMapWriter()
-			    .writeMapAsXml(map, fileout, Mode.FILE, true, false);
+			content.write(fileout);
+			fileout.flush();
 		}
 		finally {
 			if (lock != null && lock.isValid())
@@ -0,0 +1,71 @@
+package org.freeplane.features.url.mindmapmode;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects written text in memory so that it can be written to a file later by another thread.
+ *
+ * Long strings written as a whole, like the xml of unchanged branches taken from the branch xml cache,
+ * are kept by reference instead of being copied.
+ */
+class SnapshotWriter extends Writer {
+	static final int SHARED_STRING_MINIMUM_LENGTH = 256;
+	private final List<CharSequence> parts = new ArrayList<>();
+	private StringBuilder currentPart = new StringBuilder();
+
+	@Override
+	public void write(final String str, final int off, final int len) {
+		if (off == 0 && len == str.length() && len >= SHARED_STRING_MINIMUM_LENGTH) {
+			endCurrentPart();
+			parts.add(str);
+		}
+		else {
+			currentPart.append(str, off, off + len);
+		}
+	}
+
+	@Override
+	public void write(final char[] cbuf, final int off, final int len) {
+		currentPart.append(cbuf, off, len);
+	}
+
+	@Override
+	public void write(final int c) {
+		currentPart.append((char) c);
+	}
+
+	private void endCurrentPart() {
+		if (currentPart.length() > 0) {
+			parts.add(currentPart);
+			currentPart = new StringBuilder();
+		}
+	}
+
+	@Override
+	public void flush() {
+	}
+
+	@Override
+	public void close() {
+	}
+
+	/** writes the collected text, the snapshot must not be written to any more */
+	void writeTo(final Writer writer) throws IOException {
+		endCurrentPart();
+		for (CharSequence part : parts) {
+			writer.append(part);
+		}
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder text = new StringBuilder();
+		for (CharSequence part : parts) {
+			text.append(part);
+		}
+		return text.append(currentPart).toString();
+	}
+}
@@ -14,6 +14,10 @@ public class CommandLineParser {
                 + "\n                 hint: use devtools add-on to find appropriate menu keys" //
                 + "\n -S            : stop after executing menu items" //
                 + "\n -N            : set the 'nonInteractive' system property to 'true'" //
+                + "\n -B<threads>   : process the files without UI on the given number of threads and stop," //
+                + "\n                 changed maps are saved (default thread count: number of processors)" //
+                + "\n -R<script>    : in batch mode, execute the groovy script file on the root node of each map" //
+                + "\n -E<extension> : in batch mode, export each map to a file with the given extension, e.g. -Ehtml" //
                 + "\n -U<userdir>   : set the freeplane user config directory (default: "
                 + Compat.getDefaultFreeplaneUserDirectory() + ")" //
                 + "\n -h , --help   : print this help text";
@@ -22,6 +26,10 @@ public class CommandLineParser {
         private boolean stopAfterLaunch;
         private boolean nonInteractive;
         private boolean helpRequested = false;
+        private boolean batch;
+        private int batchThreadCount;
+        private String batchScriptFile;
+        private String batchExportFileExtension;
 
         private void setFilesToOpen(final String[] filesToOpen) {
             this.filesToOpen = Arrays.asList(filesToOpen);
@@ -59,6 +67,26 @@ public class CommandLineParser {
             return nonInteractive;
         }
 
+        public boolean isBatch() {
+            return batch;
+        }
+
+        public int getBatchThreadCount() {
+            return batchThreadCount;
+        }
+
+        public String getBatchScriptFile() {
+            return batchScriptFile;
+        }
+
+        public String getBatchExportFileExtension() {
+            return batchExportFileExtension;
+        }
+
+        public List<String> getFilesToOpen() {
+            return filesToOpen;
+        }
+
         private boolean isHelpRequested() {
             return helpRequested;
         }
@@ -70,7 +98,7 @@ public class CommandLineParser {
         @Override
         public String toString() {
             return "Options(files: " + filesToOpen + ", menuItems: " + menuItemsToExecute + ", stopAfterLaunch: "
-                    + stopAfterLaunch + ", nonInteractive: " + nonInteractive + ")";
+                    + stopAfterLaunch + ", nonInteractive: " + nonInteractive + ", batch: " + batch + ")";
         }
 
         private String getHelpMessage() {
@@ -79,6 +107,25 @@ public class CommandLineParser {
     }
 
     public static CommandLineParser.Options parse(String[] args) {
+        final CommandLineParser.Options result;
+        try {
+            result = parseArguments(args);
+        }
+        catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(new Options().getHelpMessage());
+            System.exit(1);
+            return null;
+        }
+        if (result.isHelpRequested()) {
+            System.out.println(result.getHelpMessage());
+            System.exit(0);
+        }
+        return result;
+    }
+
+    /** parses the arguments without printing the help message, throws IllegalArgumentException on invalid usage */
+    static CommandLineParser.Options parseArguments(String[] args) {
         CommandLineParser.Options result = new CommandLineParser.Options();
         if (args == null || args.length == 0 || !args[0].startsWith("-")) {
             result.setFilesToOpen(args);
@@ -112,6 +159,31 @@ public class CommandLineParser {
                 else if (args.length > i + 1)
                     result.addMenuItemToExecute(args[++i]);
             }
+            else if (arg.startsWith("-B")) {
+                result.batch = true;
+                result.nonInteractive = true;
+                result.setStopAfterLaunch(true);
+                if (arg.length() > 2) {
+                    try {
+                        result.batchThreadCount = Integer.parseInt(arg.substring(2));
+                    }
+                    catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("option -B<threads> expects a number: " + arg);
+                    }
+                }
+            }
+            else if (arg.startsWith("-R")) {
+                if (arg.length() > 2)
+                    result.batchScriptFile = arg.substring(2);
+                else if (args.length > i + 1)
+                    result.batchScriptFile = args[++i];
+            }
+            else if (arg.startsWith("-E")) {
+                if (arg.length() > 2)
+                    result.batchExportFileExtension = arg.substring(2);
+                else if (args.length > i + 1)
+                    result.batchExportFileExtension = args[++i];
+            }
             else if (arg.startsWith("-U")) {
                 String userdir = null;
                 if (arg.length() > 2)
@@ -144,10 +216,8 @@ public class CommandLineParser {
         }
         for (; i != args.length; ++i)
             result.addFilesToOpen(args[i]);
-        if (result.isHelpRequested()) {
-            System.out.println(result.getHelpMessage());
-            System.exit(0);
-        }
+        if (!result.batch && (result.batchScriptFile != null || result.batchExportFileExtension != null))
+            throw new IllegalArgumentException("options -R<script> and -E<extension> are only allowed with -B<threads>");
         return result;
     }
 }
@@ -0,0 +1,164 @@
+package org.freeplane.main.headlessmode;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.swing.filechooser.FileFilter;
+
+import org.freeplane.core.util.LogUtils;
+import org.freeplane.features.export.mindmapmode.ExportController;
+import org.freeplane.features.export.mindmapmode.IExportEngine;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.mode.Controller;
+import org.freeplane.features.mode.ModeController;
+import org.freeplane.features.mode.mindmapmode.MModeController;
+import org.freeplane.features.script.IScriptStarter;
+import org.freeplane.features.url.UrlManager;
+import org.freeplane.features.url.mindmapmode.MFileManager;
+import org.freeplane.features.url.mindmapmode.MapLoader;
+
+/**
+ * Processes mind map files on several worker threads, each of them with its own controller.
+ *
+ * Every map is loaded, the script is executed on its root node, the map is exported and saved if it was changed.
+ * The time spent on each map is reported on the standard output.
+ */
+public class BatchProcessor {
+	private final Supplier<Controller> threadControllerFactory;
+	private final int threadCount;
+	private String script;
+	private String exportFileExtension;
+
+	public BatchProcessor(Supplier<Controller> threadControllerFactory, int threadCount) {
+		this.threadControllerFactory = threadControllerFactory;
+		this.threadCount = threadCount > 0 ? threadCount : Runtime.getRuntime().availableProcessors();
+	}
+
+	public BatchProcessor setScript(String script) {
+		this.script = script;
+		return this;
+	}
+
+	public BatchProcessor setExportFileExtension(String exportFileExtension) {
+		this.exportFileExtension = exportFileExtension;
+		return this;
+	}
+
+	/** returns true if all files were processed without errors */
+	public boolean process(List<File> files) throws InterruptedException {
+		final long startTime = System.nanoTime();
+		final AtomicInteger threadNumber = new AtomicInteger();
+		final ExecutorService executor = Executors.newFixedThreadPool(threadCount, runnable -> {
+			final Thread thread = new Thread(runnable, "batch processor " + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		// controllers are created by the first task of each thread, so that a failing creation fails the task and not the thread
+		final ThreadLocal<Controller> threadControllers = new ThreadLocal<>();
+		final List<Controller> createdControllers = Collections.synchronizedList(new ArrayList<>());
+		final Runnable threadControllerCreator = () -> {
+			if (threadControllers.get() == null) {
+				final Controller controller = threadControllerFactory.get();
+				threadControllers.set(controller);
+				createdControllers.add(controller);
+			}
+		};
+		final List<Future<?>> results = new ArrayList<>(files.size());
+		try {
+			for (File file : files) {
+				results.add(executor.submit(() -> {
+					processTimed(file, threadControllerCreator);
+					return null;
+				}));
+			}
+			int failureCount = 0;
+			for (Future<?> result : results) {
+				try {
+					result.get();
+				}
+				catch (ExecutionException e) {
+					failureCount++;
+				}
+			}
+			System.out.println(String.format("Processed %d maps on %d threads in %d ms, %d failed",
+			    files.size(), threadCount, elapsedMillis(startTime), failureCount));
+			return failureCount == 0;
+		}
+		finally {
+			executor.shutdownNow();
+			synchronized (createdControllers) {
+				for (Controller controller : createdControllers)
+					((HeadlessUIController) controller.getViewController()).shutdown();
+			}
+		}
+	}
+
+	private void processTimed(File file, Runnable threadControllerCreator) throws Exception {
+		final long startTime = System.nanoTime();
+		try {
+			threadControllerCreator.run();
+			process(file);
+			System.out.println(String.format("%s: %d ms", file.getPath(), elapsedMillis(startTime)));
+		}
+		catch (Exception | Error e) {
+			System.out.println(String.format("%s: failed after %d ms, %s", file.getPath(), elapsedMillis(startTime), e));
+			LogUtils.warn(e);
+			throw e;
+		}
+	}
+
+	private void process(File file) throws Exception {
+		final Controller controller = Controller.getCurrentController();
+		final ModeController modeController = controller.getModeController(MModeController.MODENAME);
+		final MapModel map = new MapLoader(modeController).load(file.getAbsoluteFile()).withView().getMap();
+		if (map == null)
+			throw new IllegalArgumentException("Can not load " + file.getPath());
+		try {
+			if (script != null)
+				executeScript(modeController, map);
+			if (exportFileExtension != null)
+				export(modeController, map, file);
+			if (! map.isSaved() && ! ((MFileManager) UrlManager.getController()).save(map))
+				throw new IllegalStateException("Can not save " + file.getPath());
+		}
+		finally {
+			controller.getMapViewManager().closeWithoutSaving();
+			modeController.getMapController().closeWithoutSaving(map);
+		}
+	}
+
+	private void executeScript(ModeController modeController, MapModel map) {
+		final IScriptStarter scriptStarter = modeController.getExtension(IScriptStarter.class);
+		if (scriptStarter == null)
+			throw new IllegalStateException("Scripting is not available");
+		scriptStarter.executeScript(map.getRootNode(), script);
+	}
+
+	private void export(ModeController modeController, MapModel map, File file) {
+		final String fileName = file.getName();
+		final int extensionPosition = fileName.lastIndexOf('.');
+		final String baseName = extensionPosition > 0 ? fileName.substring(0, extensionPosition) : fileName;
+		final File exportedFile = new File(file.getAbsoluteFile().getParentFile(), baseName + "." + exportFileExtension);
+		final ExportController exportController = ExportController.getController(modeController);
+		for (FileFilter fileFilter : exportController.getMapExportFileFilters()) {
+			if (fileFilter.accept(exportedFile)) {
+				final IExportEngine exportEngine = exportController.getMapExportEngines().get(fileFilter);
+				exportEngine.export(Collections.singletonList(map.getRootNode()), exportedFile);
+				return;
+			}
+		}
+		throw new IllegalArgumentException("No export for file extension " + exportFileExtension);
+	}
+
+	private static long elapsedMillis(long startTime) {
+		return (System.nanoTime() - startTime) / 1_000_000;
+	}
+}
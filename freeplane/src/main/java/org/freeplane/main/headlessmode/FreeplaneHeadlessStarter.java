@@ -41,6 +41,7 @@ import org.freeplane.features.text.TextController;
 import org.freeplane.features.time.TimeController;
 import org.freeplane.main.application.ApplicationResourceController;
 import org.freeplane.main.application.FreeplaneStarter;
+import org.freeplane.main.mindmapmode.stylemode.ExtensionInstaller;
 import org.freeplane.view.swing.features.nodehistory.NodeHistory;
 
 public class FreeplaneHeadlessStarter implements FreeplaneStarter {
@@ -66,27 +67,7 @@ public class FreeplaneHeadlessStarter implements FreeplaneStarter {
 			applicationResourceController.init();
 			LogInitializer.createLogger();
 			ApplicationResourceController.showSysInfo();
-			final HeadlessMapViewController mapViewController = new HeadlessMapViewController();
-			controller.setMapViewManager(mapViewController);
-			viewController = new HeadlessUIController(controller, mapViewController, "");
-			controller.setViewController(viewController);
-			controller.addExtension(HighlightController.class, new HighlightController());
-			FilterController.install();
-			FormatController.install(new FormatController());
-	        final ScannerController scannerController = new ScannerController();
-	        ScannerController.install(scannerController);
-	        scannerController.addParsersForStandardFormats();
-			ModelessAttributeController.install();
-			TextController.install();
-			TimeController.install();
-			LinkController.install();
-			IconController.installConditionControllers();
-			HelpController.install();
-			FilterController.getCurrentFilterController().getConditionFactory().addConditionController(70,
-			    new LogicalStyleFilterController());
-			MapController.install();
-
-			NodeHistory.install(controller);
+			viewController = installControllers(controller);
 			return controller;
 		}
 		catch (final Exception e) {
@@ -95,6 +76,48 @@ public class FreeplaneHeadlessStarter implements FreeplaneStarter {
 		}
 	}
 
+	/**
+	 * Creates a controller bound to the calling thread, so that the thread can process maps
+	 * independently from other threads.
+	 */
+	public Controller createThreadController(ExtensionInstaller extensionInstaller) {
+		synchronized (FreeplaneHeadlessStarter.class) {
+			final Controller controller = new Controller(applicationResourceController);
+			Controller.setCurrentThreadController(controller);
+			installControllers(controller);
+			final ModeController modeController = HeadlessMModeControllerFactory.createModeController();
+			controller.selectModeForBuild(modeController);
+			if (extensionInstaller != null)
+				extensionInstaller.installExtensions(controller);
+			return controller;
+		}
+	}
+
+	private HeadlessUIController installControllers(Controller controller) {
+		final HeadlessMapViewController mapViewController = new HeadlessMapViewController();
+		controller.setMapViewManager(mapViewController);
+		final HeadlessUIController viewController = new HeadlessUIController(controller, mapViewController, "");
+		controller.setViewController(viewController);
+		controller.addExtension(HighlightController.class, new HighlightController());
+		FilterController.install();
+		FormatController.install(new FormatController());
+	    final ScannerController scannerController = new ScannerController();
+	    ScannerController.install(scannerController);
+	    scannerController.addParsersForStandardFormats();
+		ModelessAttributeController.install();
+		TextController.install();
+		TimeController.install();
+		LinkController.install();
+		IconController.installConditionControllers();
+		HelpController.install();
+		FilterController.getCurrentFilterController().getConditionFactory().addConditionController(70,
+		    new LogicalStyleFilterController());
+		MapController.install();
+
+		NodeHistory.install(controller);
+		return viewController;
+	}
+
 	@Override
 	public void createModeControllers(final Controller controller) {
 		HeadlessMModeControllerFactory.createModeController();
@@ -24,6 +24,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
 import java.net.MalformedURLException;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.LinkedList;
@@ -33,6 +34,7 @@ import java.util.jar.Manifest;
 
 import org.freeplane.core.resources.ResourceController;
 import org.freeplane.core.util.Compat;
+import org.freeplane.core.util.FileUtils;
 import org.freeplane.core.util.LogUtils;
 import org.freeplane.features.filter.FilterController;
 import org.freeplane.features.mode.Controller;
@@ -44,6 +46,7 @@ import org.freeplane.main.application.FreeplaneGUIStarter;
 import org.freeplane.main.application.FreeplaneStarter;
 import org.freeplane.main.application.SingleInstanceManager;
 import org.freeplane.main.application.protocols.freeplaneresource.Handler;
+import org.freeplane.main.headlessmode.BatchProcessor;
 import org.freeplane.main.headlessmode.FreeplaneHeadlessStarter;
 import org.freeplane.main.mindmapmode.stylemode.ExtensionInstaller;
 import org.freeplane.main.mindmapmode.stylemode.SModeControllerFactory;
@@ -214,6 +217,41 @@ class ActivatorImpl implements BundleActivator {
 				starter.createFrame();
 			}
 		});
+		if (options.isBatch() && starter instanceof FreeplaneHeadlessStarter) {
+			controller.getViewController().invokeLater(new Runnable() {
+				@Override
+				public void run() {
+					startBatch(context, (FreeplaneHeadlessStarter) starter, options);
+				}
+			});
+		}
+	}
+
+	private void startBatch(final BundleContext context, final FreeplaneHeadlessStarter headlessStarter, final Options options) {
+		final ExtensionInstaller extensionInstaller = new OsgiExtentionInstaller(context);
+		final Thread batchThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				boolean success = false;
+				try {
+					final String scriptFile = options.getBatchScriptFile();
+					final String script = scriptFile != null ? FileUtils.slurpFile(new File(scriptFile)) : null;
+					final List<File> files = new ArrayList<File>();
+					for (String file : options.getFilesToOpen())
+						files.add(new File(file));
+					success = new BatchProcessor(() -> headlessStarter.createThreadController(extensionInstaller),
+					    options.getBatchThreadCount())
+					        .setScript(script)
+					        .setExportFileExtension(options.getBatchExportFileExtension())
+					        .process(files);
+				}
+				catch (final Exception e) {
+					LogUtils.severe(e);
+				}
+				System.exit(success ? 0 : 1);
+			}
+		}, "batch");
+		batchThread.start();
 	}
 
 	private static class OsgiExtentionInstaller implements ExtensionInstaller{
@@ -22,11 +22,11 @@ package org.freeplane.view.swing.features.filepreview;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
 import java.awt.Image;
 import java.awt.Rectangle;
 import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
-import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -38,12 +38,16 @@ import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.Iterator;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 import javax.imageio.IIOException;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
 import javax.imageio.ImageReader;
 import javax.imageio.stream.ImageInputStream;
 import javax.swing.JComponent;
@@ -86,22 +90,37 @@ public class BitmapViewerComponent extends JComponent implements ScalableCompone
 		};
 	}
 
+	/**
+	 * Image headers are read by a few background threads, so that opening a map
+	 * with many external images does not block the event dispatch thread.
+	 */
+	private static final ExecutorService imageSizeReaderService = Executors.newFixedThreadPool(2, new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable r) {
+			final Thread thread = Executors.defaultThreadFactory().newThread(r);
+			thread.setName("image size reader");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
 	enum CacheType {
 		IC_DISABLE, IC_FILE, IC_RAM
 	}
 
 	private static final long serialVersionUID = 1L;
-	private File cacheFile;
 	private int hint;
 	private AtomicReference<BufferedImage> cachedImage;
 	private AtomicInteger targetWidth = new AtomicInteger();
 	private WeakReference<BufferedImage> cachedImageWeakRef;
 	private final URL url;
-	private final Dimension originalSize;
+	private Dimension originalSize;
 	private boolean scaleEnabled;
 	private Dimension maximumSize = null;
 	private Runnable rendererListener = null;
 	private static boolean disabledDueToJavaBug = false;
+	private final Consumer<BitmapViewerComponent> initializer;
+	private Consumer<IOException> imageReadingFailureHandler = this::logImageReadingException;
 
 	public BitmapViewerComponent(final URI uri) throws MalformedURLException, IOException {
 		url = uri.toURL();
@@ -109,6 +128,65 @@ public class BitmapViewerComponent extends JComponent implements ScalableCompone
 		hint = Image.SCALE_SMOOTH;
 		scaleEnabled = true;
 		cachedImage = new AtomicReference<>();
+		initializer = viewer -> {};
+	}
+
+	/**
+	 * Creates the viewer without reading the image on the calling thread.
+	 * Until the image size is known the viewer has a placeholder size,
+	 * then the initializer is called on the event dispatch thread.
+	 * If the image can not be read, the image reading failure handler is called on the event dispatch thread.
+	 * Without a screen the image size is read and the initializer is called immediately.
+	 */
+	public BitmapViewerComponent(final URI uri, final Consumer<BitmapViewerComponent> initializer) throws MalformedURLException, IOException {
+		url = uri.toURL();
+		originalSize = null;
+		hint = Image.SCALE_SMOOTH;
+		scaleEnabled = true;
+		cachedImage = new AtomicReference<>();
+		this.initializer = initializer;
+		if (GraphicsEnvironment.isHeadless()) {
+			setImageSize(readImageSize(url));
+			return;
+		}
+		final Dimension placeholderSize = getOriginalSize();
+		setPreferredSize(placeholderSize);
+		setSize(placeholderSize);
+		imageSizeReaderService.submit(() -> {
+			final Dimension imageSize;
+			try {
+				imageSize = readImageSize(url);
+			}
+			catch (final IOException e) {
+				SwingUtilities.invokeLater(() -> {
+					if (originalSize == null)
+						imageReadingFailureHandler.accept(e);
+				});
+				return;
+			}
+			SwingUtilities.invokeLater(() -> {
+				if (originalSize == null)
+					setImageSize(imageSize);
+			});
+		});
+	}
+
+	private void setImageSize(final Dimension imageSize) {
+		originalSize = imageSize;
+		final MapView mapView = (MapView) SwingUtilities.getAncestorOfClass(MapView.class, this);
+		if (mapView != null) {
+			mapView.preserveSelectedNodeLocation();
+		}
+		initializer.accept(this);
+		revalidate();
+		repaint();
+		if(rendererListener != null)
+			rendererListener.run();
+	}
+
+	/** the handler is called if the image size read in the background can not be read, by default the failure is logged */
+	public void setImageReadingFailureHandler(final Consumer<IOException> imageReadingFailureHandler) {
+		this.imageReadingFailureHandler = imageReadingFailureHandler;
 	}
 
 	static private Dimension readImageSize(URL url) throws IOException {
@@ -149,6 +227,11 @@ public class BitmapViewerComponent extends JComponent implements ScalableCompone
 
 	@Override
 	public Dimension getOriginalSize() {
+		if (originalSize == null) {
+			return new Dimension(
+				ResourceController.getResourceController().getIntProperty("default_external_component_width", 200),
+				ResourceController.getResourceController().getIntProperty("default_external_component_height", 200));
+		}
 		return new Dimension(originalSize);
 	}
 
@@ -163,8 +246,14 @@ public class BitmapViewerComponent extends JComponent implements ScalableCompone
 			return null;
 		}
         if(isPrinting()) {
+            if (originalSize == null && ! readImageSizeForPrinting()) {
+                return null;
+            }
             paintOriginalImage(g);
             return null;
+        }
+        if (originalSize == null) {
+            return null;
         }
 		final Graphics2D g2 = (Graphics2D) g;
 		final AffineTransform transform = g2.getTransform();
@@ -173,7 +262,7 @@ public class BitmapViewerComponent extends JComponent implements ScalableCompone
 		final int targetWidth = getWidth();
 		int requiredImageWidth = (int) (targetWidth * scaleX);
 		int requiredImageHeight = (int) (getHeight() * scaleY);
-		BufferedImage cachedImage = loadImageFromCacheFile();
+		BufferedImage cachedImage = getCachedImage();
 		
 		if (!isCachedImageValid(requiredImageWidth, requiredImageHeight)) {
 			if(this.targetWidth.getAndSet(targetWidth) != targetWidth)
@@ -181,21 +270,11 @@ public class BitmapViewerComponent extends JComponent implements ScalableCompone
 					if(targetWidth != getWidth()) {
 						return;
 					}
-					final BufferedImage image = loadImageFromURL();
-					if (image == null || hasNoArea(image)) {
+					final BufferedImage scaledImage = loadScaledImage(requiredImageWidth, requiredImageHeight);
+					if (scaledImage == null) {
 						return;
 					}
-					BufferedImage scaledImage = null;
-					try {
-						scaledImage = Scalr.resize(image, Scalr.Mode.BEST_FIT_BOTH, requiredImageWidth, requiredImageHeight);
-					}
-					finally {
-						image.flush();
-					}
 					setCachedImage(scaledImage);
-					if (getCacheType().equals(CacheType.IC_FILE)) {
-						writeCacheFile();
-					}
 					SwingUtilities.invokeLater(() -> {
 						this.targetWidth.set(0);
 						if(rendererListener != null)
@@ -265,6 +344,20 @@ public class BitmapViewerComponent extends JComponent implements ScalableCompone
     }
 
 
+    /** printing and image export can not wait for the image size read in the background */
+    private boolean readImageSizeForPrinting() {
+        try {
+            final Dimension imageSize = readImageSize(url);
+            originalSize = imageSize;
+            SwingUtilities.invokeLater(() -> setImageSize(imageSize));
+            return true;
+        }
+        catch (final IOException e) {
+            logImageReadingException(e);
+            return false;
+        }
+    }
+
     private boolean isPrinting() {
 	    MapView map = (MapView) SwingUtilities.getAncestorOfClass(MapView.class, this);
 	    return map != null && map.isPrinting();
@@ -283,19 +376,32 @@ public class BitmapViewerComponent extends JComponent implements ScalableCompone
 		return false;
 	}
 
-	private BufferedImage loadImageFromCacheFile() {
-		final BufferedImage cachedImage = getCachedImage();
-		try {
-			if (cachedImage == null && cacheFile != null) {
-				final BufferedImage image = ImageIO.read(cacheFile);
-				setCachedImage(image);
-				return image;
+	private BufferedImage loadScaledImage(int requiredImageWidth, int requiredImageHeight) {
+		final CacheType cacheType = getCacheType();
+		final boolean usesThumbnailCache = ! CacheType.IC_DISABLE.equals(cacheType);
+		final boolean usesDisk = CacheType.IC_FILE.equals(cacheType);
+		final String thumbnailKey = usesThumbnailCache ? ThumbnailCache.key(url, requiredImageWidth, requiredImageHeight) : null;
+		if (usesThumbnailCache) {
+			final BufferedImage thumbnail = ThumbnailCache.getInstance().get(thumbnailKey, usesDisk);
+			if (thumbnail != null) {
+				return thumbnail;
 			}
 		}
-		catch (final IOException e) {
-			logImageReadingException(e);
+		final BufferedImage image = loadImageFromURL(requiredImageWidth, requiredImageHeight);
+		if (image == null || hasNoArea(image)) {
+			return null;
+		}
+		final BufferedImage scaledImage;
+		try {
+			scaledImage = Scalr.resize(image, Scalr.Mode.BEST_FIT_BOTH, requiredImageWidth, requiredImageHeight);
+		}
+		finally {
+			image.flush();
 		}
-		return cachedImage;
+		if (usesThumbnailCache) {
+			ThumbnailCache.getInstance().put(thumbnailKey, scaledImage, usesDisk);
+		}
+		return scaledImage;
 	}
 
 	private boolean isCachedImageValid(int width, int height) {
@@ -332,6 +438,38 @@ public class BitmapViewerComponent extends JComponent implements ScalableCompone
 		return tempImage;
 	}
 
+	/**
+	 * Decodes only every n-th pixel of images much larger than the required size,
+	 * so that the decoded image is at least as large as required but less than twice as large.
+	 */
+	private BufferedImage loadImageFromURL(int requiredWidth, int requiredHeight) {
+		try (InputStream inputStream = url.openStream();
+			 ImageInputStream in = ImageIO.createImageInputStream(inputStream)){
+			final Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+			if (! readers.hasNext()) {
+				return null;
+			}
+			final ImageReader reader = readers.next();
+			try {
+				reader.setInput(in, true, true);
+				final ImageReadParam param = reader.getDefaultReadParam();
+				final int subsampling = Math.min(reader.getWidth(0) / Math.max(requiredWidth, 1),
+						reader.getHeight(0) / Math.max(requiredHeight, 1));
+				if (subsampling > 1) {
+					param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+				}
+				return reader.read(0, param);
+			}
+			finally {
+				reader.dispose();
+			}
+		}
+		catch (final IOException e) {
+			logImageReadingException(e);
+			return null;
+		}
+	}
+
 	private void logImageReadingException(final IOException e) {
 		if((e instanceof FileNotFoundException) || (e instanceof IIOException)) {
 			LogUtils.warn(e.getMessage());
@@ -361,33 +499,6 @@ public class BitmapViewerComponent extends JComponent implements ScalableCompone
 		return ResourceController.getResourceController().getEnumProperty("image_cache", CacheType.IC_DISABLE);
 	}
 
-	private void writeCacheFile() {
-		final File tempDir = new File(System.getProperty("java.io.tmpdir"), "freeplane");
-		tempDir.mkdirs();
-		try {
-			if(cacheFile == null)
-				cacheFile = File.createTempFile("cachedImage", ".image", tempDir);
-			final BufferedImage cachedImage = getCachedImage();
-			if (!ImageIO.write(cachedImage, "jpg", cacheFile))
-				ImageIO.write(cachedImage, "png", cacheFile);
-		}
-		catch (final IOException e) {
-			if(cacheFile != null) {
-				cacheFile.delete();
-				cacheFile = null;
-			}
-		}
-	}
-
-	@Override
-	public void removeNotify() {
-		super.removeNotify();
-		if (cacheFile != null) {
-			cacheFile.delete();
-			cacheFile = null;
-		}
-	}
-
 	@Override
 	public void setFinalViewerSize(final Dimension size) {
 		final Dimension sizeWithScaleCorrection = fitToMaximumSize(size);
@@ -398,6 +509,7 @@ public class BitmapViewerComponent extends JComponent implements ScalableCompone
 
 	@Override
 	public void setFinalViewerSize(final float zoom) {
+		final Dimension originalSize = getOriginalSize();
 		final int scaledWidth = (int) (originalSize.width * zoom);
 		final int scaledHeight = (int) (originalSize.height * zoom);
 		setFinalViewerSize(new Dimension(scaledWidth, scaledHeight));
@@ -60,25 +60,25 @@ public class BitmapViewerFactory implements IViewerFactory {
 	public ScalableComponent createViewer(final ExternalResource resource,
 			final URI uri, int maximumWidth, float viewZoom) throws MalformedURLException,
 	        IOException {
-		final BitmapViewerComponent bitmapViewerComponent = new BitmapViewerComponent(uri);
-		final Dimension originalSize = bitmapViewerComponent.getOriginalSize();
-		float resourceZoom = resource.getZoom();
-		if(resourceZoom == -1){
-			resourceZoom = resource.setZoom(originalSize.width, maximumWidth);
-		}
-		final ViewerLayoutManager viewerLayoutManager = new ViewerLayoutManager(viewZoom, resource, originalSize);
-		((JComponent) bitmapViewerComponent).setLayout(viewerLayoutManager);
+		return new BitmapViewerComponent(uri, bitmapViewerComponent -> {
+			final Dimension originalSize = bitmapViewerComponent.getOriginalSize();
+			float resourceZoom = resource.getZoom();
+			if(resourceZoom == -1){
+				resourceZoom = resource.setZoom(originalSize.width, maximumWidth);
+			}
+			final ViewerLayoutManager viewerLayoutManager = new ViewerLayoutManager(viewZoom, resource, originalSize);
+			((JComponent) bitmapViewerComponent).setLayout(viewerLayoutManager);
 
-		Dimension zoomedSize = viewerLayoutManager.calculatePreferredSize();
-		bitmapViewerComponent.setFinalViewerSize(zoomedSize );
-		return bitmapViewerComponent;
+			Dimension zoomedSize = viewerLayoutManager.calculatePreferredSize();
+			bitmapViewerComponent.setFinalViewerSize(zoomedSize );
+		});
 	}
 
 	@Override
 	public BitmapViewerComponent createViewer(final URI uri,
 			final Dimension preferredSize) throws MalformedURLException,
 	        IOException {
-		final BitmapViewerComponent bitmapViewerComponent = new BitmapViewerComponent(uri);
+		final BitmapViewerComponent bitmapViewerComponent = new BitmapViewerComponent(uri, viewer -> {});
 		bitmapViewerComponent.setFinalViewerSize(preferredSize);
 		return bitmapViewerComponent;
 	}
@@ -91,9 +91,7 @@ public class BitmapViewerFactory implements IViewerFactory {
 	@Override
 	public BitmapViewerComponent createViewer(URI uri, float zoom)
 			throws MalformedURLException, IOException {
-		final BitmapViewerComponent bitmapViewerComponent = new BitmapViewerComponent(uri);
-		bitmapViewerComponent.setFinalViewerSize(zoom);
-		return bitmapViewerComponent;
+		return new BitmapViewerComponent(uri, bitmapViewerComponent -> bitmapViewerComponent.setFinalViewerSize(zoom));
 	}
 
 	/** extracted to {@link ScalableComponent} but still used in add-ons. */
@@ -0,0 +1,234 @@
+package org.freeplane.view.swing.features.filepreview;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.math.BigInteger;
+import java.net.HttpURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.LongSupplier;
+
+import javax.imageio.ImageIO;
+
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.core.util.LogUtils;
+
+/**
+ * Scaled images shared by all bitmap viewers of all maps.
+ *
+ * Images are keyed by source URL, its modification time and the requested size.
+ * The memory tier keeps the least recently used images up to a fixed number of bytes
+ * and only softly references them. The disk tier keeps them as files in the user directory,
+ * the least recently used files are deleted when their total size exceeds the configured limit.
+ */
+class ThumbnailCache {
+	static final String THUMBNAIL_CACHE_SIZE_PROPERTY = "thumbnail_cache_size";
+	private static final String THUMBNAIL_DIRECTORY = "thumbnails";
+	private static final String THUMBNAIL_SUFFIX = ".image";
+
+	private static class MemoryEntry {
+		final SoftReference<BufferedImage> image;
+		final long size;
+
+		MemoryEntry(BufferedImage image) {
+			this.image = new SoftReference<>(image);
+			this.size = sizeInBytes(image);
+		}
+	}
+
+	private static ThumbnailCache instance;
+
+	static synchronized ThumbnailCache getInstance() {
+		if (instance == null) {
+			final ResourceController resourceController = ResourceController.getResourceController();
+			final File directory = new File(resourceController.getFreeplaneUserDirectory(), THUMBNAIL_DIRECTORY);
+			instance = new ThumbnailCache(directory,
+				() -> resourceController.getLongProperty(THUMBNAIL_CACHE_SIZE_PROPERTY, 0) * 1024 * 1024,
+				Runtime.getRuntime().maxMemory() / 16);
+		}
+		return instance;
+	}
+
+	private final File directory;
+	private final LongSupplier diskLimit;
+	private final long memoryLimit;
+	private final LinkedHashMap<String, MemoryEntry> memoryTier = new LinkedHashMap<>(16, 0.75f, true);
+	private long memorySize;
+	private long diskSize = -1;
+
+	ThumbnailCache(File directory, LongSupplier diskLimit, long memoryLimit) {
+		this.directory = directory;
+		this.diskLimit = diskLimit;
+		this.memoryLimit = memoryLimit;
+	}
+
+	static String key(URL url, int width, int height) {
+		return url.toExternalForm() + '\n' + lastModified(url) + '\n' + width + 'x' + height;
+	}
+
+	private static long lastModified(URL url) {
+		try {
+			if ("file".equals(url.getProtocol())) {
+				return new File(url.toURI()).lastModified();
+			}
+			final URLConnection connection = url.openConnection();
+			try {
+				return connection.getLastModified();
+			}
+			finally {
+				if (connection instanceof HttpURLConnection) {
+					((HttpURLConnection) connection).disconnect();
+				}
+			}
+		}
+		catch (IOException | URISyntaxException | IllegalArgumentException e) {
+			return 0;
+		}
+	}
+
+	BufferedImage get(String key, boolean usesDisk) {
+		final BufferedImage image = getFromMemory(key);
+		if (image != null || ! usesDisk) {
+			return image;
+		}
+		final File file = file(key);
+		synchronized (this) {
+			if (!file.isFile()) {
+				return null;
+			}
+			file.setLastModified(System.currentTimeMillis());
+		}
+		try {
+			final BufferedImage cachedImage = ImageIO.read(file);
+			if (cachedImage != null) {
+				putIntoMemory(key, cachedImage);
+			}
+			return cachedImage;
+		}
+		catch (IOException e) {
+			LogUtils.warn(e.getMessage());
+			return null;
+		}
+	}
+
+	void put(String key, BufferedImage image, boolean usesDisk) {
+		putIntoMemory(key, image);
+		if (usesDisk) {
+			putOnDisk(key, image);
+		}
+	}
+
+	private synchronized BufferedImage getFromMemory(String key) {
+		final MemoryEntry entry = memoryTier.get(key);
+		if (entry == null) {
+			return null;
+		}
+		final BufferedImage image = entry.image.get();
+		if (image == null) {
+			removeFromMemory(key);
+		}
+		return image;
+	}
+
+	private synchronized void putIntoMemory(String key, BufferedImage image) {
+		removeFromMemory(key);
+		final MemoryEntry entry = new MemoryEntry(image);
+		memoryTier.put(key, entry);
+		memorySize += entry.size;
+		for (Iterator<MemoryEntry> iterator = memoryTier.values().iterator(); memorySize > memoryLimit && iterator.hasNext();) {
+			memorySize -= iterator.next().size;
+			iterator.remove();
+		}
+	}
+
+	private void removeFromMemory(String key) {
+		final MemoryEntry removed = memoryTier.remove(key);
+		if (removed != null) {
+			memorySize -= removed.size;
+		}
+	}
+
+	private void putOnDisk(String key, BufferedImage image) {
+		final long diskLimit = this.diskLimit.getAsLong();
+		if (diskLimit <= 0) {
+			return;
+		}
+		final File file = file(key);
+		try {
+			directory.mkdirs();
+			final File tempFile = File.createTempFile("thumbnail", ".tmp", directory);
+			try {
+				if (!ImageIO.write(image, "jpg", tempFile)) {
+					ImageIO.write(image, "png", tempFile);
+				}
+				synchronized (this) {
+					final long sizeWithoutFile = diskSize() - file.length();
+					Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+					diskSize = sizeWithoutFile + file.length();
+					evictFromDisk(diskLimit);
+				}
+			}
+			finally {
+				tempFile.delete();
+			}
+		}
+		catch (IOException e) {
+			LogUtils.warn(e.getMessage());
+		}
+	}
+
+	private long diskSize() {
+		if (diskSize < 0) {
+			diskSize = 0;
+			for (File file : cachedFiles()) {
+				diskSize += file.length();
+			}
+		}
+		return diskSize;
+	}
+
+	private void evictFromDisk(long diskLimit) {
+		if (diskSize <= diskLimit) {
+			return;
+		}
+		final File[] files = cachedFiles();
+		Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+		for (int i = 0; i < files.length && diskSize > diskLimit; i++) {
+			final long length = files[i].length();
+			if (files[i].delete()) {
+				diskSize -= length;
+			}
+		}
+	}
+
+	private File[] cachedFiles() {
+		final File[] files = directory.listFiles((dir, name) -> name.endsWith(THUMBNAIL_SUFFIX));
+		return files != null ? files : new File[0];
+	}
+
+	private File file(String key) {
+		try {
+			final byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+			return new File(directory, String.format("%064x", new BigInteger(1, digest)) + THUMBNAIL_SUFFIX);
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static long sizeInBytes(BufferedImage image) {
+		return 4L * image.getWidth() * image.getHeight();
+	}
+}
@@ -620,6 +620,17 @@ public class ViewerController extends PersistentNodeHook implements INodeViewLif
 		viewers.add(view);
 		viewer.setBounds(viewer.getX() - 5, viewer.getY() - 5, viewer.getWidth() + 15, viewer.getHeight() + 15);
 		view.addContent(viewer, VIEWER_POSITION);
+		if (viewer instanceof BitmapViewerComponent) {
+			((BitmapViewerComponent) viewer).setImageReadingFailureHandler(e -> {
+				if (view.getContent(VIEWER_POSITION) == viewer) {
+					view.removeContent(VIEWER_POSITION);
+					final JLabel errorLabel = createErrorLabel(resource.getUri(), e);
+					errorLabel.setBorder(VIEWER_BORDER_INSTANCE);
+					view.addContent(errorLabel, VIEWER_POSITION);
+					errorLabel.revalidate();
+				}
+			});
+		}
 		if(map.getModeController().canEdit()){
 			final DropTarget dropTarget = new DropTarget(viewer, DTL);
 			dropTarget.setActive(true);
@@ -706,10 +717,7 @@ public class ViewerController extends PersistentNodeHook implements INodeViewLif
 			viewer = (JComponent) factory.createViewer(model, absoluteUri, maxWidth, zoom);
 		}
 		catch (final Exception e) {
-			final String info = HtmlUtils.combineTextWithExceptionInfo(uri.toString(), e);
-			final JLabel errorLabel = new JLabel(info);
-			errorLabel.addMouseListener(mouseListener);
-			return errorLabel;
+			return createErrorLabel(uri, e);
 		}
 		if (viewer == null) {
 			return new JLabel(uri.toString());
@@ -721,6 +729,13 @@ public class ViewerController extends PersistentNodeHook implements INodeViewLif
 		return viewer;
 	}
 
+	private JLabel createErrorLabel(final URI uri, final Exception e) {
+		final String info = HtmlUtils.combineTextWithExceptionInfo(uri.toString(), e);
+		final JLabel errorLabel = new JLabel(info);
+		errorLabel.addMouseListener(mouseListener);
+		return errorLabel;
+	}
+
 	private FileFilter getCombiFileFilter() {
 		return new FactoryFileFilter(combiFactory);
 	}
@@ -0,0 +1,143 @@
+package org.freeplane.view.swing.map;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import org.freeplane.view.swing.map.link.ILinkView;
+
+/**
+ * Keeps the connector views painted by the map view together with their bounds in a uniform grid,
+ * so that repainting and hit testing only visit the connectors near the clip rectangle or the cursor.
+ *
+ * Views are visited in the order they were added, which is the order they were first painted in.
+ * The index is only used on the event dispatch thread.
+ */
+class ConnectorViewIndex {
+	private static final int CELL_SIZE = 256;
+	private static final int COLLISION_MARGIN = 16;
+	private static final int[] NO_VIEWS = new int[0];
+
+	private final List<ILinkView> views = new ArrayList<ILinkView>();
+	private final List<Rectangle> bounds = new ArrayList<Rectangle>();
+	private final BitSet visitedViews = new BitSet();
+	private Rectangle coveredArea;
+	private Rectangle gridArea;
+	private int columns;
+	private int[][] cells;
+
+	void add(final ILinkView view, final Rectangle fallbackBounds) {
+		final Rectangle viewBounds = new Rectangle(0, 0, -1, -1);
+		view.increaseBounds(viewBounds);
+		if (viewBounds.width < 0 || viewBounds.height < 0)
+			viewBounds.setBounds(fallbackBounds);
+		viewBounds.grow(COLLISION_MARGIN, COLLISION_MARGIN);
+		views.add(view);
+		bounds.add(viewBounds);
+		cells = null;
+	}
+
+	/** sets the area in which all connectors were collected, null if all connectors of the map were collected */
+	void setCoveredArea(final Rectangle coveredArea) {
+		this.coveredArea = coveredArea;
+	}
+
+	boolean covers(final Rectangle area) {
+		return coveredArea == null || area != null && coveredArea.contains(area);
+	}
+
+	List<ILinkView> getViews() {
+		return Collections.unmodifiableList(views);
+	}
+
+	/** returns the views whose bounds intersect the given rectangle in painting order */
+	Iterable<ILinkView> getViewsIntersecting(final Rectangle area) {
+		if (area == null)
+			return getViews();
+		collectViewsIntersecting(area);
+		final List<ILinkView> found = new ArrayList<ILinkView>(visitedViews.cardinality());
+		for (int i = visitedViews.nextSetBit(0); i >= 0; i = visitedViews.nextSetBit(i + 1))
+			found.add(views.get(i));
+		return found;
+	}
+
+	ILinkView detectView(final Point p) {
+		collectViewsIntersecting(new Rectangle(p.x, p.y, 1, 1));
+		for (int i = visitedViews.nextSetBit(0); i >= 0; i = visitedViews.nextSetBit(i + 1)) {
+			final ILinkView view = views.get(i);
+			if (view.detectCollision(p, true))
+				return view;
+		}
+		for (int i = visitedViews.nextSetBit(0); i >= 0; i = visitedViews.nextSetBit(i + 1)) {
+			final ILinkView view = views.get(i);
+			if (view.detectCollision(p, false))
+				return view;
+		}
+		return null;
+	}
+
+	void increaseBounds(final Rectangle innerBounds) {
+		for (final ILinkView view : views)
+			view.increaseBounds(innerBounds);
+	}
+
+	private void collectViewsIntersecting(final Rectangle area) {
+		visitedViews.clear();
+		if (views.isEmpty())
+			return;
+		if (cells == null)
+			buildGrid();
+		final Rectangle searched = area.intersection(gridArea);
+		if (searched.isEmpty())
+			return;
+		final int firstColumn = (searched.x - gridArea.x) / CELL_SIZE;
+		final int lastColumn = (searched.x + searched.width - 1 - gridArea.x) / CELL_SIZE;
+		final int firstRow = (searched.y - gridArea.y) / CELL_SIZE;
+		final int lastRow = (searched.y + searched.height - 1 - gridArea.y) / CELL_SIZE;
+		for (int row = firstRow; row <= lastRow; row++) {
+			for (int column = firstColumn; column <= lastColumn; column++) {
+				for (final int index : cells[row * columns + column]) {
+					if (bounds.get(index).intersects(area))
+						visitedViews.set(index);
+				}
+			}
+		}
+	}
+
+	private void buildGrid() {
+		gridArea = new Rectangle(bounds.get(0));
+		for (final Rectangle viewBounds : bounds)
+			gridArea.add(viewBounds);
+		columns = (gridArea.width + CELL_SIZE - 1) / CELL_SIZE + 1;
+		final int rows = (gridArea.height + CELL_SIZE - 1) / CELL_SIZE + 1;
+		final int[] counts = new int[columns * rows];
+		for (final Rectangle viewBounds : bounds)
+			forEachCell(viewBounds, counts, null, 0);
+		cells = new int[counts.length][];
+		for (int cell = 0; cell < counts.length; cell++) {
+			cells[cell] = counts[cell] == 0 ? NO_VIEWS : new int[counts[cell]];
+			counts[cell] = 0;
+		}
+		for (int index = 0; index < bounds.size(); index++)
+			forEachCell(bounds.get(index), counts, cells, index);
+	}
+
+	/** counts the view in each cell it overlaps and, if cells are given, stores its index there */
+	private void forEachCell(final Rectangle viewBounds, final int[] counts, final int[][] cells, final int index) {
+		final int firstColumn = (viewBounds.x - gridArea.x) / CELL_SIZE;
+		final int lastColumn = (viewBounds.x + viewBounds.width - gridArea.x) / CELL_SIZE;
+		final int firstRow = (viewBounds.y - gridArea.y) / CELL_SIZE;
+		final int lastRow = (viewBounds.y + viewBounds.height - gridArea.y) / CELL_SIZE;
+		for (int row = firstRow; row <= lastRow; row++) {
+			for (int column = firstColumn; column <= lastColumn; column++) {
+				final int cell = row * columns + column;
+				if (cells != null)
+					cells[cell][counts[cell]] = index;
+				counts[cell]++;
+			}
+		}
+	}
+}
@@ -0,0 +1,213 @@
+package org.freeplane.view.swing.map;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.SystemColor;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import java.io.Closeable;
+import java.util.Vector;
+
+import org.freeplane.core.ui.svgicons.GraphicsHints;
+
+/**
+ * Map image rendered in horizontal strips on demand.
+ *
+ * Image writers like the PNG writer read the image row by row, so only one strip is kept in memory
+ * whatever the size of the whole image. The image takes a map view prepared for printing
+ * and keeps it prepared until the image is closed.
+ */
+class MapStripImage implements RenderedImage, Closeable {
+	static final long MAXIMUM_UNSTRIPPED_PIXEL_COUNT = 16 * 1024 * 1024;
+	private static final int STRIP_PIXEL_COUNT = 4 * 1024 * 1024;
+
+	private final MapView view;
+	private final Rectangle printedArea;
+	private final double scaleFactor;
+	private final int width;
+	private final int height;
+	private final int stripHeight;
+	private final ColorModel colorModel;
+	private final SampleModel sampleModel;
+	private int renderedStripIndex;
+	private BufferedImage renderedStrip;
+	private boolean closed;
+
+	MapStripImage(MapView view, Rectangle printedArea, double scaleFactor) {
+		this(view, printedArea, scaleFactor, STRIP_PIXEL_COUNT);
+	}
+
+	MapStripImage(MapView view, Rectangle printedArea, double scaleFactor, int stripPixelCount) {
+		this.view = view;
+		this.printedArea = printedArea;
+		this.scaleFactor = scaleFactor;
+		width = (int) Math.ceil(printedArea.width * scaleFactor);
+		height = (int) Math.ceil(printedArea.height * scaleFactor);
+		stripHeight = Math.max(1, Math.min(height, stripPixelCount / Math.max(1, width)));
+		final BufferedImage prototype = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+		colorModel = prototype.getColorModel();
+		sampleModel = prototype.getSampleModel().createCompatibleSampleModel(width, stripHeight);
+		renderedStripIndex = -1;
+		closed = false;
+	}
+
+	@Override
+	public Raster getTile(int tileX, int tileY) {
+		if (tileY != renderedStripIndex) {
+			if (closed)
+				throw new IllegalStateException("image closed");
+			renderedStrip = renderStrip(tileY);
+			renderedStripIndex = tileY;
+		}
+		return renderedStrip.getRaster().createTranslatedChild(0, tileY * stripHeight);
+	}
+
+	private BufferedImage renderStrip(int index) {
+		final BufferedImage strip = new BufferedImage(width, stripHeight, BufferedImage.TYPE_INT_RGB);
+		final Graphics2D g = strip.createGraphics();
+		try {
+			Color background = view.getBackground();
+			if (background == null) {
+				background = SystemColor.window;
+			}
+			g.setBackground(background);
+			g.clearRect(0, 0, width, stripHeight);
+			g.translate(0, -index * stripHeight);
+			g.scale(scaleFactor, scaleFactor);
+			g.translate(-printedArea.x, -printedArea.y);
+			g.setRenderingHint(GraphicsHints.CACHE_ICONS, Boolean.TRUE);
+			view.print(g);
+		}
+		finally {
+			g.dispose();
+		}
+		return strip;
+	}
+
+	@Override
+	public void close() {
+		if (! closed) {
+			closed = true;
+			renderedStrip = null;
+			view.endPrinting();
+		}
+	}
+
+	@Override
+	public Raster getData() {
+		return copyData(null);
+	}
+
+	@Override
+	public Raster getData(Rectangle rect) {
+		final WritableRaster raster = Raster.createWritableRaster(
+		    sampleModel.createCompatibleSampleModel(rect.width, rect.height), new Point(rect.x, rect.y));
+		return copyData(raster);
+	}
+
+	@Override
+	public WritableRaster copyData(WritableRaster raster) {
+		if (raster == null) {
+			raster = Raster.createWritableRaster(sampleModel.createCompatibleSampleModel(width, height), null);
+		}
+		final Rectangle bounds = raster.getBounds();
+		final int firstStrip = Math.max(0, bounds.y / stripHeight);
+		final int lastStrip = Math.min(getNumYTiles() - 1, (bounds.y + bounds.height - 1) / stripHeight);
+		for (int strip = firstStrip; strip <= lastStrip; strip++) {
+			raster.setRect(getTile(0, strip));
+		}
+		return raster;
+	}
+
+	@Override
+	public Vector<RenderedImage> getSources() {
+		return null;
+	}
+
+	@Override
+	public Object getProperty(String name) {
+		return Image.UndefinedProperty;
+	}
+
+	@Override
+	public String[] getPropertyNames() {
+		return null;
+	}
+
+	@Override
+	public ColorModel getColorModel() {
+		return colorModel;
+	}
+
+	@Override
+	public SampleModel getSampleModel() {
+		return sampleModel;
+	}
+
+	@Override
+	public int getWidth() {
+		return width;
+	}
+
+	@Override
+	public int getHeight() {
+		return height;
+	}
+
+	@Override
+	public int getMinX() {
+		return 0;
+	}
+
+	@Override
+	public int getMinY() {
+		return 0;
+	}
+
+	@Override
+	public int getNumXTiles() {
+		return 1;
+	}
+
+	@Override
+	public int getNumYTiles() {
+		return (height + stripHeight - 1) / stripHeight;
+	}
+
+	@Override
+	public int getMinTileX() {
+		return 0;
+	}
+
+	@Override
+	public int getMinTileY() {
+		return 0;
+	}
+
+	@Override
+	public int getTileWidth() {
+		return width;
+	}
+
+	@Override
+	public int getTileHeight() {
+		return stripHeight;
+	}
+
+	@Override
+	public int getTileGridXOffset() {
+		return 0;
+	}
+
+	@Override
+	public int getTileGridYOffset() {
+		return 0;
+	}
+}
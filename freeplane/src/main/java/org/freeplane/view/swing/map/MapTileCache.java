@@ -0,0 +1,165 @@
+package org.freeplane.view.swing.map;
+
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.KeyboardFocusManager;
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
+import java.util.function.Consumer;
+
+import javax.swing.JTable;
+import javax.swing.SwingUtilities;
+import javax.swing.text.JTextComponent;
+
+import org.freeplane.core.resources.ResourceController;
+
+/**
+ * Keeps rendered regions of a map view as image tiles, so that repainting
+ * an unchanged region draws the tile instead of painting clouds, nodes and connectors again.
+ *
+ * The map view drops tiles when a repaint of their region is requested or painted immediately,
+ * when nodes change or the map is laid out again.
+ * While tiles are cached, the map view is the painting origin of its components,
+ * so that their repaints reach it too.
+ * All tiles are dropped when the zoom, the size of the map view or the device scale changes.
+ * They are only used for integral device scales because tile borders would not match pixels otherwise.
+ */
+class MapTileCache {
+	static final String MAP_TILE_CACHE_PROPERTY = "map_tile_cache";
+	private static final int TILE_SIZE = 256;
+	private static final int MINIMUM_TILE_COUNT = 16;
+
+	private final MapView map;
+	private final LinkedHashMap<Long, BufferedImage> tiles;
+	private int scale;
+	private float zoom;
+	private Dimension mapSize;
+	private long invalidationCount;
+
+	MapTileCache(MapView map) {
+		this.map = map;
+		tiles = new LinkedHashMap<>(64, 0.75f, true);
+	}
+
+	/** draws the tiles covering the clip, returns false if the map has to be painted directly */
+	boolean paint(Graphics2D g, Consumer<Graphics2D> tilePainter) {
+		if (! ResourceController.getResourceController().getBooleanProperty(MAP_TILE_CACHE_PROPERTY)) {
+			clear();
+			return false;
+		}
+		final AffineTransform transform = g.getTransform();
+		final int scale = integralScale(transform);
+		final Rectangle clip = g.getClipBounds();
+		if (scale == 0 || clip == null || ! map.isOpaque() || isEditing())
+			return false;
+		synchronized (this) {
+			if (scale != this.scale || zoom != map.getZoom() || ! map.getSize().equals(mapSize)) {
+				tiles.clear();
+				this.scale = scale;
+				zoom = map.getZoom();
+				mapSize = map.getSize();
+			}
+		}
+		final int firstColumn = Math.floorDiv(clip.x, TILE_SIZE);
+		final int lastColumn = Math.floorDiv(clip.x + clip.width - 1, TILE_SIZE);
+		final int firstRow = Math.floorDiv(clip.y, TILE_SIZE);
+		final int lastRow = Math.floorDiv(clip.y + clip.height - 1, TILE_SIZE);
+		g.setTransform(AffineTransform.getTranslateInstance(transform.getTranslateX(), transform.getTranslateY()));
+		try {
+			for (int row = firstRow; row <= lastRow; row++) {
+				for (int column = firstColumn; column <= lastColumn; column++) {
+					g.drawImage(getTile(column, row, tilePainter), column * TILE_SIZE * scale, row * TILE_SIZE * scale, null);
+				}
+			}
+		}
+		finally {
+			g.setTransform(transform);
+		}
+		removeLeastRecentlyUsedTiles();
+		return true;
+	}
+
+	private BufferedImage getTile(int column, int row, Consumer<Graphics2D> tilePainter) {
+		final Long key = ((long) column << 32) | (row & 0xFFFFFFFFL);
+		final long invalidationCountBeforePainting;
+		synchronized (this) {
+			final BufferedImage tile = tiles.get(key);
+			if (tile != null)
+				return tile;
+			invalidationCountBeforePainting = invalidationCount;
+		}
+		final BufferedImage tile = new BufferedImage(TILE_SIZE * scale, TILE_SIZE * scale, BufferedImage.TYPE_INT_RGB);
+		final Graphics2D g = tile.createGraphics();
+		try {
+			g.scale(scale, scale);
+			g.translate(-column * TILE_SIZE, -row * TILE_SIZE);
+			g.clipRect(column * TILE_SIZE, row * TILE_SIZE, TILE_SIZE, TILE_SIZE);
+			tilePainter.accept(g);
+		}
+		finally {
+			g.dispose();
+		}
+		synchronized (this) {
+			if (invalidationCount == invalidationCountBeforePainting)
+				tiles.put(key, tile);
+		}
+		return tile;
+	}
+
+	synchronized boolean hasTiles() {
+		return ! tiles.isEmpty();
+	}
+
+	synchronized void invalidate(Rectangle area) {
+		if (tiles.isEmpty())
+			return;
+		invalidationCount++;
+		final Rectangle tileBounds = new Rectangle(TILE_SIZE, TILE_SIZE);
+		for (final Iterator<Long> keys = tiles.keySet().iterator(); keys.hasNext();) {
+			final long key = keys.next();
+			tileBounds.x = (int) (key >> 32) * TILE_SIZE;
+			tileBounds.y = (int) key * TILE_SIZE;
+			if (tileBounds.intersects(area))
+				keys.remove();
+		}
+	}
+
+	synchronized void clear() {
+		invalidationCount++;
+		tiles.clear();
+	}
+
+	/** keeps the tiles for about three times the visible area */
+	private synchronized void removeLeastRecentlyUsedTiles() {
+		final Rectangle visibleRect = map.getVisibleRect();
+		final int visibleTileCount = (visibleRect.width / TILE_SIZE + 2) * (visibleRect.height / TILE_SIZE + 2);
+		final int maximumTileCount = Math.max(MINIMUM_TILE_COUNT, 3 * visibleTileCount);
+		for (final Iterator<Entry<Long, BufferedImage>> entries = tiles.entrySet().iterator();
+				tiles.size() > maximumTileCount && entries.hasNext();) {
+			entries.next();
+			entries.remove();
+		}
+	}
+
+	private static int integralScale(AffineTransform transform) {
+		final double scale = transform.getScaleX();
+		if (transform.getShearX() != 0 || transform.getShearY() != 0 || transform.getScaleY() != scale
+				|| scale < 1 || scale != Math.rint(scale)
+				|| transform.getTranslateX() != Math.rint(transform.getTranslateX())
+				|| transform.getTranslateY() != Math.rint(transform.getTranslateY()))
+			return 0;
+		return (int) scale;
+	}
+
+	/** text editors and tables paint themselves immediately, bypassing repaint requests */
+	private boolean isEditing() {
+		final Component focusOwner = KeyboardFocusManager.getCurrentKeyboardFocusManager().getFocusOwner();
+		return (focusOwner instanceof JTextComponent || focusOwner instanceof JTable)
+				&& SwingUtilities.isDescendingFrom(focusOwner, map);
+	}
+}
@@ -58,7 +58,6 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
-import java.util.Vector;
 import java.util.stream.Stream;
 
 import javax.swing.JComponent;
@@ -66,6 +65,7 @@ import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JViewport;
 import javax.swing.SwingUtilities;
+import javax.swing.event.ChangeListener;
 
 import org.freeplane.core.extension.Configurable;
 import org.freeplane.core.extension.HighlightedElements;
@@ -194,7 +194,7 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 		}
 
 		private void centerNode(final NodeModel node, final boolean slowScroll) {
-			final NodeView nodeView = getNodeView(node);
+			final NodeView nodeView = getDisplayedNodeView(node);
 			if (nodeView != null) {
 				mapScroller.scrollNode(nodeView, ScrollingDirective.SCROLL_NODE_TO_CENTER, slowScroll);
 			}
@@ -213,7 +213,7 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 		}
 
 		private void moveNodeTo(final NodeModel node, final NodePosition position, final boolean slowScroll) {
-			final NodeView nodeView = getNodeView(node);
+			final NodeView nodeView = getDisplayedNodeView(node);
 			if (nodeView != null) {
 				mapScroller.scrollNode(nodeView, ScrollingDirective.of(position), slowScroll);
 			}
@@ -260,19 +260,19 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 
         @Override
         public void preserveNodeLocationOnScreen(NodeModel node) {
-            final NodeView nodeView = getNodeView(node);
+            final NodeView nodeView = getDisplayedNodeView(node);
             MapView.this.preserveNodeLocationOnScreen(nodeView);
         }
 
         @Override
         public void preserveNodeLocationOnScreen(final NodeModel node, final float horizontalPoint, final float verticalPoint) {
-            final NodeView nodeView = getNodeView(node);
+            final NodeView nodeView = getDisplayedNodeView(node);
             MapView.this.preserveNodeLocationOnScreen(nodeView, horizontalPoint, verticalPoint);
         }
 
 		@Override
 		public void scrollNodeTreeToVisible(final NodeModel  node) {
-			final NodeView nodeView = getNodeView(node);
+			final NodeView nodeView = getDisplayedNodeView(node);
 			if(nodeView != null)
 				mapScroller.scrollNodeTreeToVisible(nodeView);
 		}
@@ -280,7 +280,7 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 
 		@Override
 		public void makeTheSelected(final NodeModel node) {
-			final NodeView nodeView = getNodeView(node);
+			final NodeView nodeView = getDisplayedNodeView(node);
 			if (nodeView != null) {
 				addSelected(nodeView, false);
 			}
@@ -288,14 +288,14 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 
 		@Override
 		public void scrollNodeToVisible(final NodeModel node) {
-			mapScroller.scrollNodeToVisible(getNodeView(node));
+			mapScroller.scrollNodeToVisible(getDisplayedNodeView(node));
 		}
 
 		@Override
 		public void selectAsTheOnlyOneSelected(final NodeModel node) {
 			if(node.isVisible(filter))
 				display(node);
-			final NodeView nodeView = getNodeView(node);
+			final NodeView nodeView = getDisplayedNodeView(node);
 			if (nodeView != null) {
 				MapView.this.selectAsTheOnlyOneSelected(nodeView);
 			}
@@ -305,12 +305,12 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 		public void selectBranch(final NodeModel node, final boolean extend) {
 			if(! extend)
 				selectAsTheOnlyOneSelected(node);
-			addBranchToSelection(getNodeView(node));
+			addBranchToSelection(getDisplayedNodeView(node));
 		}
 
 		@Override
 		public void selectContinuous(final NodeModel node) {
-			MapView.this.selectContinuous(getNodeView(node));
+			MapView.this.selectContinuous(getDisplayedNodeView(node));
 		}
 
 		@Override
@@ -333,7 +333,7 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 		@Override
 		public void toggleSelected(final NodeModel node) {
 			display(node);
-			MapView.this.toggleSelected(getNodeView(node));
+			MapView.this.toggleSelected(getDisplayedNodeView(node));
 		}
 
         @Override
@@ -344,7 +344,7 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
             for(final NodeModel node : nodes) {
             	if(node != null && node.isVisible(filter)){
             		display(node);
-            		final NodeView nodeView = getNodeView(node);
+            		final NodeView nodeView = getDisplayedNodeView(node);
             		if (nodeView != null) {
             			views.add(nodeView);
             		}
@@ -371,6 +371,7 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 	    @Override
         public void setFilter(Filter filter) {
 	        MapView.this.filter = filter;
+	        invalidateConnectorViews();
 	    }
 
 
@@ -577,8 +578,8 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 	private static final long serialVersionUID = 1L;
 	static private boolean drawsRectangleForSelection;
 	static private Color selectionRectangleColor;
-	/** Used to identify a right click onto a link curve. */
-	private Vector<ILinkView> arrowLinkViews;
+	/** Used to identify a right click onto a link curve and to repaint connectors without collecting them again. */
+	private ConnectorViewIndex connectorViews;
 	private Color background = null;
 	private JComponent backgroundComponent;
 	private Rectangle boundingRectangle = null;
@@ -614,6 +615,10 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 	private static boolean outlineViewFitsWindowWidth;
 
 	final private ComponentAdapter viewportSizeChangeListener;
+	final private OffscreenBranchViews offscreenBranchViews = new OffscreenBranchViews(this);
+	final private MapTileCache tileCache = new MapTileCache(this);
+	private boolean paintsTile = false;
+	final private ChangeListener viewportChangeListener = e -> offscreenBranchViews.visibleRectChanged();
 	private final INodeChangeListener connectorChangeListener;
 	private static final String INLINE_EDITOR_ACTIVE = "inline_editor_active";
     public static final String SPOTLIGHT_ENABLED = "spotlight";
@@ -686,9 +691,17 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 		connectorChangeListener = new INodeChangeListener() {
 			@Override
 			public void nodeChanged(final NodeChangeEvent event) {
-				if(NodeLinks.CONNECTOR.equals(event.getProperty()) &&
-						event.getNode().getMap().equals(getModel()))
+				if(! event.getNode().getMap().equals(getModel()))
+					return;
+				if(NodeLinks.CONNECTOR.equals(event.getProperty())) {
+					invalidateConnectorViews();
 					repaint();
+				}
+				else {
+					final NodeView nodeView = getNodeView(event.getNode());
+					if(nodeView != null)
+						invalidateTiles(nodeView);
+				}
 			}
 		};
 		addPropertyChangeListener(SPOTLIGHT_ENABLED, repaintOnClientPropertyChangeListener);
@@ -733,12 +746,14 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 	    super.addNotify();
 	    modeController.getMapController().addUINodeChangeListener(connectorChangeListener);
 	    getParent().addComponentListener(viewportSizeChangeListener);
+	    ((JViewport) getParent()).addChangeListener(viewportChangeListener);
     }
 
 	@Override
     public void removeNotify() {
 		modeController.getMapController().removeNodeChangeListener(connectorChangeListener);
 		getParent().removeComponentListener(viewportSizeChangeListener);
+		((JViewport) getParent()).removeChangeListener(viewportChangeListener);
 	    super.removeNotify();
     }
 
@@ -829,8 +844,10 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 	}
 
 	private void onSelectionChange(final NodeView node) {
+		invalidateConnectorViews();
 		if(! node.isShowing())
 			return;
+		invalidateTiles(node);
 		node.update();
 		if(SHOW_CONNECTORS_FOR_SELECTION == showConnectors)
 			repaint(getVisibleRect());
@@ -839,24 +856,28 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 	}
 
     public Object detectView(final Point p) {
-        if (arrowLinkViews == null) {
+        updateConnectorViews();
+        if (connectorViews == null) {
             return null;
         }
-        for (int i = 0; i < arrowLinkViews.size(); ++i) {
-            final ILinkView arrowView = arrowLinkViews.get(i);
-            if (arrowView.detectCollision(p, true)) {
-                return arrowView;
-            }
-        }
-        for (int i = 0; i < arrowLinkViews.size(); ++i) {
-            final ILinkView arrowView = arrowLinkViews.get(i);
-            if (arrowView.detectCollision(p, false)) {
-                return arrowView;
-            }
-        }
-        return null;
+        return connectorViews.detectView(p);
     }
 
+	/** collects the connectors invalidated since the last paint, so that they can be detected before the next paint */
+	private void updateConnectorViews() {
+		if (connectorViews != null && connectorViews.covers(getVisibleRect()))
+			return;
+		final Graphics graphics = getGraphics();
+		if (graphics == null)
+			return;
+		try {
+			collectConnectorViews((Graphics2D) graphics);
+		}
+		finally {
+			graphics.dispose();
+		}
+	}
+
     public Object detectObject(final Point p) {
         Object view = detectView(p);
         if(view instanceof ILinkView)
@@ -899,11 +920,8 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 	public Rectangle getInnerBounds() {
 		final Rectangle innerBounds = rootView.getBounds();
 		final Rectangle maxBounds = new Rectangle(0, 0, getWidth(), getHeight());
-		if(arrowLinkViews != null)
-			for (int i = 0; i < arrowLinkViews.size(); ++i) {
-				final ILinkView arrowView = arrowLinkViews.get(i);
-				arrowView.increaseBounds(innerBounds);
-			}
+		if(connectorViews != null)
+			connectorViews.increaseBounds(innerBounds);
 		return innerBounds.intersection(maxBounds);
 	}
 
@@ -952,6 +970,23 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 			return null;
 	}
 
+	OffscreenBranchViews getOffscreenBranchViews() {
+		return offscreenBranchViews;
+	}
+
+	/**
+	 * Returns the node view for requests to display, scroll to or select the node.
+	 * Unlike {@link #getNodeView(NodeModel)} it restores the views of released off-screen branches containing the node,
+	 * level by level if creation of their child views is deferred.
+	 */
+	private NodeView getDisplayedNodeView(final NodeModel node) {
+		NodeView nodeView = getNodeView(node);
+		while(nodeView == null && node != null && offscreenBranchViews.hasReleasedViews()
+				&& offscreenBranchViews.restoreAncestorOf(node))
+			nodeView = getNodeView(node);
+		return nodeView;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see javax.swing.JComponent#getPreferredSize()
@@ -998,7 +1033,7 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 
 			@Override
             public boolean add(final NodeModel o) {
-				final NodeView nodeView = getNodeView(o);
+				final NodeView nodeView = getDisplayedNodeView(o);
 				if(nodeView == null)
 					return false;
 				return selection.add(nodeView);
@@ -1043,7 +1078,7 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 
 			@Override
             public boolean add(final NodeModel o) {
-				final NodeView nodeView = getNodeView(o);
+				final NodeView nodeView = getDisplayedNodeView(o);
 				if(nodeView == null)
 					return false;
 				return selection.add(nodeView);
@@ -1281,6 +1316,7 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 
 	@Override
 	public void mapChanged(final MapChangeEvent event) {
+		invalidateConnectorViews();
 		final Object property = event.getProperty();
 		if (property.equals(MapStyle.RESOURCES_BACKGROUND_COLOR)) {
 			setBackground(requiredBackground());
@@ -1593,6 +1629,8 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 				g2.setRenderingHint(GraphicsHints.CACHE_ICONS, Boolean.TRUE);
 			}
 			Controller.getCurrentController().getMapViewManager().setTextRenderingHint(g2);
+			final boolean oldHideSingleEndConnectors = hideSingleEndConnectors;
+			final String oldShowConnectors = showConnectors;
 			if (containsExtension(Connectors.class)){
 				hideSingleEndConnectors = false;
 				showConnectors = SHOW_CONNECTOR_LINES;
@@ -1604,7 +1642,15 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 				paintConnectorsBehind = ResourceController.getResourceController().getBooleanProperty(
 						"paint_connectors_behind");
 			}
-			super.paint(g2);
+			if(oldHideSingleEndConnectors != hideSingleEndConnectors || oldShowConnectors != showConnectors)
+				invalidateConnectorViews();
+			if(isPaintingForPrint() || isSpotlightEnabled()
+					|| ! tileCache.paint(g2, tile -> paintTile(tile, g2.getRenderingHints())))
+				super.paint(g2);
+			else {
+				collectConnectorViews(g2);
+				paintSelecteds(g2);
+			}
 		}
 		finally {
 			paintingMode = null;
@@ -1612,7 +1658,75 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 		}
 	}
 
+	/** paints clouds, nodes and connectors like {@link #paint(Graphics)} but without selections and editor highlights */
+	private void paintTile(final Graphics2D g, final RenderingHints renderingHints) {
+		paintsTile = true;
+		try {
+			g.addRenderingHints(renderingHints);
+			g.setColor(getForeground());
+			g.setFont(getFont());
+			paintComponent(g);
+			paintBorder(g);
+			paintChildren(g);
+		}
+		finally {
+			paintsTile = false;
+		}
+	}
+
+	/** connectors painted only into cached tiles are still needed for detecting them under the mouse */
+	private void collectConnectorViews(final Graphics2D g) {
+		if (HIDE_CONNECTORS == showConnectors || connectorViews != null && connectorViews.covers(getVisibleRect()))
+			return;
+		connectorViews = null;
+		final Graphics2D connectorGraphics = (Graphics2D) g.create();
+		try {
+			connectorGraphics.clipRect(0, 0, 0, 0);
+			paintConnectors(connectorGraphics);
+		}
+		finally {
+			connectorGraphics.dispose();
+		}
+	}
+
+	private void invalidateTiles(final NodeView nodeView) {
+		final Container parent = nodeView.getParent();
+		if (parent != null)
+			tileCache.invalidate(SwingUtilities.convertRectangle(parent, nodeView.getBounds(), this));
+	}
+
+	/** while tiles are cached, repaints of components inside the map view are painted from the map view */
+	@Override
+	protected boolean isPaintingOrigin() {
+		return tileCache != null && tileCache.hasTiles();
+	}
+
+	@Override
+	public void repaint(long tm, int x, int y, int width, int height) {
+		if (tileCache != null)
+			tileCache.invalidate(new Rectangle(x, y, width, height));
+		super.repaint(tm, x, y, width, height);
+	}
+
+	@Override
+	public void paintImmediately(int x, int y, int w, int h) {
+		tileCache.invalidate(new Rectangle(x, y, w, h));
+		super.paintImmediately(x, y, w, h);
+	}
+
+	@Override
+	public void doLayout() {
+		super.doLayout();
+		tileCache.clear();
+	}
+
 	public void paintOverview(Graphics2D g) {
+		if (offscreenBranchViews.hasReleasedViews()) {
+			offscreenBranchViews.restoreAll();
+			synchronized (getTreeLock()) {
+				validateTree();
+			}
+		}
 		g.setRenderingHint(GraphicsHints.CACHE_ICONS, Boolean.FALSE);
 		super.print(g);
 	}
@@ -1674,8 +1788,10 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 	    paintChildren(g2, paintModes);
 	    if(isSpotlightEnabled())
 	    	paintDimmer(g2, paintModes);
-		paintSelecteds(g2);
-		highlightEditor(g2);
+	    if(! paintsTile) {
+	    	paintSelecteds(g2);
+	    	highlightEditor(g2);
+	    }
     }
 
 	public boolean isSpotlightEnabled() {
@@ -1731,7 +1847,7 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 		return paintingMode;
 	}
 
-	private void paintConnectors(final Collection<? extends NodeLinkModel> links, final Graphics2D graphics,
+	private void collectConnectors(final Collection<? extends NodeLinkModel> links, final Graphics2D graphics,
 	                        final HashSet<ConnectorModel> alreadyPaintedLinks) {
 		final Font font = graphics.getFont();
 		try {
@@ -1768,7 +1884,7 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 						else
 							break;
 						arrowLink.paint(graphics);
-						arrowLinkViews.add(arrowLink);
+						connectorViews.add(arrowLink, getConnectedNodeBounds(sourceView, targetView));
 					}
 				}
 			}
@@ -1778,21 +1894,55 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 		}
 	}
 
+	private Rectangle getConnectedNodeBounds(final NodeView sourceView, final NodeView targetView) {
+		final Rectangle bounds = new Rectangle(0, 0, -1, -1);
+		for(final NodeView nodeView : new NodeView[]{sourceView, targetView}) {
+			if(nodeView != null && nodeView.getParent() != null)
+				bounds.add(SwingUtilities.convertRectangle(nodeView.getParent(), nodeView.getBounds(), this));
+		}
+		return bounds;
+	}
+
 	private void paintConnectors(final Graphics2D graphics) {
-		arrowLinkViews = new Vector<ILinkView>();
 		final Object renderingHint = getModeController().getController().getMapViewManager().setEdgesRenderingHint(
 		    graphics);
-		if(hasNodeLinks())
-			paintConnectors(rootView, graphics, new HashSet<ConnectorModel>());
+		final Rectangle clipBounds = graphics.getClipBounds();
+		if(connectorViews != null && ! isPrinting && connectorViews.covers(clipBounds)) {
+			final Font font = graphics.getFont();
+			for(final ILinkView arrowLink : connectorViews.getViewsIntersecting(clipBounds)) {
+				arrowLink.paint(graphics);
+				graphics.setFont(font);
+			}
+		}
+		else {
+			connectorViews = new ConnectorViewIndex();
+			final Rectangle collectedArea = isPrinting ? null : getConnectorCollectionArea();
+			connectorViews.setCoveredArea(collectedArea);
+			if(hasNodeLinks())
+				collectConnectors(rootView, graphics, collectedArea, new HashSet<ConnectorModel>());
+			if(isPrinting)
+				invalidateConnectorViews();
+		}
 		graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, renderingHint);
 	}
 
-	private void paintConnectors(final NodeView source, final Graphics2D graphics, final HashSet<ConnectorModel> alreadyPaintedConnectors) {
+	private Rectangle getConnectorCollectionArea() {
+		final JViewport vp = (JViewport) getParent();
+		final Rectangle viewRect = vp.getViewRect();
+		viewRect.x -= viewRect.width;
+		viewRect.y -= viewRect.height;
+		viewRect.width *= 3;
+		viewRect.height *= 3;
+		return viewRect;
+	}
+
+	private void collectConnectors(final NodeView source, final Graphics2D graphics, final Rectangle collectedArea,
+	                               final HashSet<ConnectorModel> alreadyPaintedConnectors) {
 		final NodeModel node = source.getModel();
 		final Collection<? extends NodeLinkModel> outLinks = getLinksFrom(node);
-		paintConnectors(outLinks, graphics, alreadyPaintedConnectors);
+		collectConnectors(outLinks, graphics, alreadyPaintedConnectors);
 		final Collection<? extends NodeLinkModel> inLinks = getLinksTo(node);
-		paintConnectors(inLinks, graphics, alreadyPaintedConnectors);
+		collectConnectors(inLinks, graphics, alreadyPaintedConnectors);
 		final int nodeViewCount = source.getComponentCount();
 		for (int i = 0; i < nodeViewCount; i++) {
 			final Component component = source.getComponent(i);
@@ -1800,21 +1950,15 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 				continue;
 			}
 			final NodeView child = (NodeView) component;
-			if (!isPrinting) {
+			if (collectedArea != null) {
 				if(!child.isSubtreeVisible())
 					continue;
 				final Rectangle bounds = SwingUtilities.convertRectangle(source, child.getBounds(), this);
-				final JViewport vp = (JViewport) getParent();
-				final Rectangle viewRect = vp.getViewRect();
-				viewRect.x -= viewRect.width;
-				viewRect.y -= viewRect.height;
-				viewRect.width *= 3;
-				viewRect.height *= 3;
-				if (!viewRect.intersects(bounds)) {
+				if (!collectedArea.intersects(bounds)) {
 					continue;
 				}
 			}
-			paintConnectors(child, graphics, alreadyPaintedConnectors);
+			collectConnectors(child, graphics, collectedArea, alreadyPaintedConnectors);
 		}
 	}
 
@@ -1903,6 +2047,10 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 	public void preparePrinting() {
 		isPrinting = true;
 		if (!isPreparedForPrinting) {
+			offscreenBranchViews.restoreAll();
+			synchronized (getTreeLock()) {
+				validateTree();
+			}
 			updatePrintedNodes();
 			if (MapView.printOnWhiteBackground) {
 				background = getBackground();
@@ -2250,14 +2398,21 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 			validateSelecteds();
 			getRoot().validateTree();
 			super.validateTree();
+			invalidateConnectorViews();
 		}
 	}
 
+	/** makes the next repaint collect the painted connectors again, needed whenever their geometry may have changed */
+	void invalidateConnectorViews() {
+		connectorViews = null;
+	}
+
 	@Override
 	public void onPreNodeMoved(final NodeMoveEvent nodeMoveEvent) {
 	}
 
 	public void repaintVisible() {
+		invalidateConnectorViews();
 		final JViewport vp = (JViewport) getParent();
 		repaint(vp.getViewRect());
 	}
@@ -2381,14 +2536,14 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 
 
 	public void display(final NodeModel node) {
-		final NodeView nodeView = getNodeView(node);
+		final NodeView nodeView = getDisplayedNodeView(node);
 		if(nodeView != null)
 			return;
 		final NodeModel parentNode = node.getParentNode();
 		if(parentNode == null)
 			return;
 		display(parentNode);
-		final NodeView parentView = getNodeView(parentNode);
+		final NodeView parentView = getDisplayedNodeView(parentNode);
 		if(parentView == null)
 			return;
 		parentView.setFolded(false);
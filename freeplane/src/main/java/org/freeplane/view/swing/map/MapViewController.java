@@ -417,15 +417,20 @@ public class MapViewController implements IMapViewManager , IMapViewChangeListen
 
 	public RenderedImage createImage(int dpi, final Rectangle printedArea) {
 		final MapView view = getMapView();
+		final double scaleFactor = (double) dpi / (double) (UITools.FONT_SCALE_FACTOR * 72);
+		final long pixelCount = (long) Math.ceil(printedArea.width * scaleFactor) * (long) Math.ceil(printedArea.height * scaleFactor);
+		if (pixelCount > MapStripImage.MAXIMUM_UNSTRIPPED_PIXEL_COUNT) {
+			// the view stays prepared until the image is released
+			view.preparePrinting();
+			return new MapStripImage(view, printedArea, scaleFactor);
+		}
 		view.preparePrinting();
-		final BufferedImage myImage = printToImage(dpi, view, printedArea);
+		final BufferedImage myImage = printToImage(scaleFactor, view, printedArea);
 		view.endPrinting();
 		return myImage;
 	}
 
-	private BufferedImage printToImage(int dpi, final MapView view, final Rectangle innerBounds) {
-		double scaleFactor = (double) dpi / (double) (UITools.FONT_SCALE_FACTOR * 72);
-
+	private BufferedImage printToImage(double scaleFactor, final MapView view, final Rectangle innerBounds) {
 		int imageWidth = (int) Math.ceil(innerBounds.width * scaleFactor);
 		int imageHeight = (int) Math.ceil(innerBounds.height * scaleFactor);
 
@@ -136,6 +136,8 @@ public class NodeView extends JComponent implements INodeView {
 	private int bottomOverlap;
 	private boolean isFolded;
 	private DashVariant edgeDash = DashVariant.DEFAULT;
+	private List<Point> releasedChildCoordinates;
+	private boolean childViewsDeferred;
 
 	public static final int DETAIL_VIEWER_POSITION = 2;
 
@@ -337,6 +339,15 @@ public class NodeView extends JComponent implements INodeView {
 			child.getCoordinates(inList, additionalDistanceForConvexHull, true, transX + child.getX(),
 			    transY + child.getY());
 		}
+		if (releasedChildCoordinates != null) {
+			int corner = 0;
+			for (final Point point : releasedChildCoordinates) {
+				final int dx = corner < 2 ? -additionalDistanceForConvexHull : additionalDistanceForConvexHull;
+				final int dy = corner == 0 || corner == 3 ? -additionalDistanceForConvexHull : additionalDistanceForConvexHull;
+				inList.addLast(new Point(transX + point.x + dx, transY + point.y + dy));
+				corner = (corner + 1) % 4;
+			}
+		}
 	}
 
 	/** get x coordinate including folding symbol */
@@ -823,6 +834,51 @@ public class NodeView extends JComponent implements INodeView {
 			NodeViewFactory.getInstance().newNodeView(newNode, map, this, index);
 	}
 
+	boolean areChildViewsReleased() {
+		return releasedChildCoordinates != null || childViewsDeferred;
+	}
+
+	/** released views keep the layout calculated before their child views were removed */
+	boolean keepsReleasedLayout() {
+		return releasedChildCoordinates != null;
+	}
+
+	/**
+	 * Marks the child views as not yet created.
+	 * Unlike released views, the view is laid out like a view without children until its child views are created.
+	 */
+	void deferChildViews() {
+		childViewsDeferred = true;
+	}
+
+	/**
+	 * Removes the views of all descendants of an off-screen branch.
+	 * The view keeps its size, overlaps and cloud coordinates, so that the layout of the rest of the map does not change.
+	 */
+	void releaseChildViews() {
+		if (areChildViewsReleased() || isFolded)
+			return;
+		final LinkedList<Point> childCoordinates = new LinkedList<Point>();
+		final LinkedList<NodeView> childrenViews = getChildrenViews();
+		for (final NodeView child : childrenViews) {
+			child.getCoordinates(childCoordinates, 0, true, child.getX(), child.getY());
+		}
+		for (final NodeView child : childrenViews) {
+			child.remove();
+		}
+		preferredChild = null;
+		releasedChildCoordinates = childCoordinates;
+	}
+
+	void restoreChildViews() {
+		if (! areChildViewsReleased())
+			return;
+		releasedChildCoordinates = null;
+		childViewsDeferred = false;
+		addChildViews();
+		revalidate();
+	}
+
 	/* fc, 25.1.2004: Refactoring necessary: should call the model. */
 	public boolean isChildOf(final NodeView myNodeView) {
 		return getParentView() == myNodeView;
@@ -947,6 +1003,13 @@ public class NodeView extends JComponent implements INodeView {
 
 	@Override
 	public void onNodeDeleted(NodeDeletionEvent nodeDeletionEvent) {
+		if (childViewsDeferred) {
+			return;
+		}
+		if (releasedChildCoordinates != null) {
+			restoreChildViews();
+			return;
+		}
 		if (nodeDeletionEvent.index >= getComponentCount() - 1) {
 			return;
 		}
@@ -994,7 +1057,12 @@ public class NodeView extends JComponent implements INodeView {
 	@Override
 	public void onNodeInserted(final NodeModel parent, final NodeModel child, final int index) {
 		assert parent == model;
-		if (isFolded) {
+		if (isFolded || childViewsDeferred) {
+			return;
+		}
+		if (releasedChildCoordinates != null) {
+			restoreChildViews();
+			numberingChanged(index + 1);
 			return;
 		}
 		addChildView(child, index);
@@ -1391,6 +1459,8 @@ public class NodeView extends JComponent implements INodeView {
 		for (NodeView child : getChildrenViews()) {
 			child.remove();
 		}
+		releasedChildCoordinates = null;
+		childViewsDeferred = false;
 		addChildViews();
 		map.revalidateSelecteds();
 		revalidate();
@@ -1399,6 +1469,7 @@ public class NodeView extends JComponent implements INodeView {
 	public void update() {
 		if(! isDisplayable())
 			return;
+		map.getOffscreenBranchViews().restoreIfNearVisibleArea(this);
 		invalidate();
 		updateShape();
 		updateEdge();
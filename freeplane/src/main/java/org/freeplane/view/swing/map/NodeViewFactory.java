@@ -186,7 +186,8 @@ class NodeViewFactory {
 		newView.setLayout(SelectableLayout.getInstance());
 		newView.update();
         fireNodeViewCreated(newView);
-        newView.addChildViews();
+        if(! newView.getMap().getOffscreenBranchViews().defersChildViews(newView))
+        	newView.addChildViews();
 	}
 
 	private static final IMouseListener DETAILS_MOUSE_LISTENER = new DetailsViewMouseListener();
@@ -38,7 +38,7 @@ public class NodeViewLayout implements INodeViewLayout{
 
     public void layoutContainer(final Container c) {
         NodeView view = (NodeView) c;
- 		if(view.getContent() != null){
+ 		if(view.getContent() != null && ! view.keepsReleasedLayout()){
         	final VerticalNodeViewLayoutStrategy layoutData = new VerticalNodeViewLayoutStrategy(view);
         	layoutData.calculateLayoutData();
         }
@@ -0,0 +1,195 @@
+package org.freeplane.view.swing.map;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.features.link.MapLinks;
+import org.freeplane.features.link.NodeLinks;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.styles.MapViewLayout;
+
+/**
+ * Releases the descendant views of branches far outside of the viewport and restores them
+ * as soon as they come close to the visible area.
+ *
+ * Child views of new node views other than the root are not created at all until the node comes close
+ * to the visible area, so a map is opened with the views of the root and its children only,
+ * and the views of the branches around the visible area are created level by level after each layout.
+ *
+ * Branches containing selected nodes or connector ends are kept because selections and connectors need the views.
+ * While the map overview is shown nothing is released, because the overview paints the whole map.
+ */
+class OffscreenBranchViews {
+	static final String VIRTUALIZE_OFFSCREEN_BRANCHES_PROPERTY = "virtualize_offscreen_branches";
+	private static final int RELEASE_DELAY = 1000;
+
+	private final MapView map;
+	private final Set<NodeView> releasedViews;
+	private final Timer releaseTimer;
+	private boolean restoresAll;
+	private boolean restoreScheduled;
+
+	OffscreenBranchViews(MapView map) {
+		this.map = map;
+		releasedViews = new HashSet<>();
+		releaseTimer = new Timer(RELEASE_DELAY, e -> releaseOffscreenBranches());
+		releaseTimer.setRepeats(false);
+	}
+
+	boolean hasReleasedViews() {
+		return ! releasedViews.isEmpty();
+	}
+
+	void visibleRectChanged() {
+		restoreBranchesNearVisibleArea();
+		if (isEnabled())
+			releaseTimer.restart();
+	}
+
+	void restoreAll() {
+		releaseTimer.stop();
+		restoresAll = true;
+		try {
+			restoreBranchesIn(null);
+		}
+		finally {
+			restoresAll = false;
+		}
+	}
+
+	/**
+	 * Called before the child views of a view are created.
+	 * Returns true if their creation is deferred until the view comes close to the visible area.
+	 */
+	boolean defersChildViews(NodeView view) {
+		if (restoresAll || view.isRoot() || ! view.getModel().hasChildren() || ! isEnabled()
+				|| MapLinks.hasLinks(map.getModel()) && containsConnectorEnds(view.getModel(), MapLinks.getLinks(map.getModel())))
+			return false;
+		view.deferChildViews();
+		releasedViews.add(view);
+		scheduleRestore();
+		return true;
+	}
+
+	/** deferred views can be checked only after the layout has calculated their location */
+	private void scheduleRestore() {
+		if (restoreScheduled)
+			return;
+		restoreScheduled = true;
+		SwingUtilities.invokeLater(() -> {
+			restoreScheduled = false;
+			restoreBranchesNearVisibleArea();
+		});
+	}
+
+	void restoreBranchesNearVisibleArea() {
+		if (! releasedViews.isEmpty())
+			restoreBranchesIn(keptArea());
+	}
+
+	/** restores the child views of an updated view only if they can be seen soon, others are restored when scrolled to */
+	void restoreIfNearVisibleArea(NodeView view) {
+		if (view.areChildViewsReleased() && isNearArea(view, keptArea())) {
+			releasedViews.remove(view);
+			view.restoreChildViews();
+		}
+	}
+
+	/**
+	 * Restores the released branch containing the node, returns true if such branch was found.
+	 * Released branches do not contain other released branches, so the nearest ancestor having a view decides.
+	 */
+	boolean restoreAncestorOf(NodeModel node) {
+		for (NodeModel ancestor = node.getParentNode(); ancestor != null; ancestor = ancestor.getParentNode()) {
+			final NodeView view = map.getNodeView(ancestor);
+			if (view != null) {
+				if (! releasedViews.remove(view))
+					return false;
+				view.restoreChildViews();
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean isEnabled() {
+		return ResourceController.getResourceController().getBooleanProperty(VIRTUALIZE_OFFSCREEN_BRANCHES_PROPERTY)
+				&& map.getLayoutType() != MapViewLayout.OUTLINE
+				&& ! map.isPrinting()
+				&& ! map.getModeController().getController().getViewController().isMapOverviewVisible();
+	}
+
+	private void restoreBranchesIn(Rectangle area) {
+		for (NodeView view : new ArrayList<>(releasedViews)) {
+			if (! view.areChildViewsReleased() || ! SwingUtilities.isDescendingFrom(view, map))
+				releasedViews.remove(view);
+			else if (area == null || isNearArea(view, area)) {
+				releasedViews.remove(view);
+				view.restoreChildViews();
+			}
+		}
+	}
+
+	private void releaseOffscreenBranches() {
+		if (! isEnabled() || ! map.isShowing())
+			return;
+		releaseOffscreenChildBranches(map.getRoot(), keptArea());
+	}
+
+	private void releaseOffscreenChildBranches(NodeView view, Rectangle keptArea) {
+		for (NodeView child : view.getChildrenViews()) {
+			if (child.areChildViewsReleased() || child.isFolded() || ! child.getModel().hasChildren())
+				continue;
+			if (! boundsInMap(child).intersects(keptArea) && canRelease(child))
+				release(child);
+			else
+				releaseOffscreenChildBranches(child, keptArea);
+		}
+	}
+
+	void release(NodeView view) {
+		view.releaseChildViews();
+		releasedViews.add(view);
+	}
+
+	private boolean canRelease(NodeView view) {
+		for (NodeView selected : map.getSelection()) {
+			if (selected != view && SwingUtilities.isDescendingFrom(selected, view))
+				return false;
+		}
+		return ! MapLinks.hasLinks(map.getModel()) || ! containsConnectorEnds(view.getModel(), MapLinks.getLinks(map.getModel()));
+	}
+
+	private boolean containsConnectorEnds(NodeModel node, MapLinks mapLinks) {
+		for (NodeModel child : node.getChildren()) {
+			final NodeLinks nodeLinks = NodeLinks.getLinkExtension(child);
+			if (mapLinks.containsTarget(child.getID())
+					|| nodeLinks != null && ! nodeLinks.getLinks().isEmpty()
+					|| containsConnectorEnds(child, mapLinks))
+				return true;
+		}
+		return false;
+	}
+
+	/** the visible area extended by its size in each direction */
+	private Rectangle keptArea() {
+		final Rectangle visibleRect = map.getVisibleRect();
+		visibleRect.grow(visibleRect.width, visibleRect.height);
+		return visibleRect;
+	}
+
+	/** views created after the last layout have no size and no location yet */
+	private boolean isNearArea(NodeView view, Rectangle area) {
+		return (view.getWidth() > 0 || view.getHeight() > 0) && boundsInMap(view).intersects(area);
+	}
+
+	private Rectangle boundsInMap(NodeView view) {
+		return SwingUtilities.convertRectangle(view.getParent(), view.getBounds(), map);
+	}
+}
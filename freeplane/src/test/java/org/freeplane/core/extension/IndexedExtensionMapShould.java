@@ -0,0 +1,84 @@
+package org.freeplane.core.extension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class IndexedExtensionMapShould {
+	static class First implements IExtension {}
+	static class Second implements IExtension {}
+	static class Third implements IExtension {}
+
+	private final IndexedExtensionMap map = new IndexedExtensionMap();
+	private final First first = new First();
+	private final Second second = new Second();
+	private final Third third = new Third();
+
+	@Test
+	public void returnNullForMissingExtension() throws Exception {
+		map.put(First.class, first);
+		assertThat(map.get(Second.class)).isNull();
+		assertThat(map.containsKey(Second.class)).isFalse();
+	}
+
+	@Test
+	public void returnPutExtensions() throws Exception {
+		map.put(Third.class, third);
+		map.put(First.class, first);
+		map.put(Second.class, second);
+		assertThat(map.get(First.class)).isSameAs(first);
+		assertThat(map.get(Second.class)).isSameAs(second);
+		assertThat(map.get(Third.class)).isSameAs(third);
+		assertThat(map.size()).isEqualTo(3);
+	}
+
+	@Test
+	public void returnValuesInInsertionOrder() throws Exception {
+		map.put(Third.class, third);
+		map.put(First.class, first);
+		map.put(Second.class, second);
+		assertThat(map.values()).containsExactly(third, first, second);
+	}
+
+	@Test
+	public void keepPositionOfReplacedExtension() throws Exception {
+		map.put(First.class, first);
+		map.put(Second.class, second);
+		final First replacement = new First();
+		assertThat(map.put(First.class, replacement)).isSameAs(first);
+		assertThat(map.values()).containsExactly(replacement, second);
+	}
+
+	@Test
+	public void removeExtension() throws Exception {
+		map.put(First.class, first);
+		map.put(Second.class, second);
+		map.put(Third.class, third);
+		assertThat(map.remove(Second.class)).isSameAs(second);
+		assertThat(map.get(Second.class)).isNull();
+		assertThat(map.get(First.class)).isSameAs(first);
+		assertThat(map.get(Third.class)).isSameAs(third);
+		assertThat(map.values()).containsExactly(first, third);
+	}
+
+	@Test
+	public void becomeEmptyAfterRemovingLastExtension() throws Exception {
+		map.put(First.class, first);
+		map.remove(First.class);
+		assertThat(map.isEmpty()).isTrue();
+		assertThat(map.get(First.class)).isNull();
+	}
+
+	@Test
+	public void keepValuesReturnedBeforeChange() throws Exception {
+		map.put(First.class, first);
+		final Iterable<IExtension> values = map.values();
+		map.put(Second.class, second);
+		assertThat(values).containsExactly(first);
+	}
+
+	@Test(expected = ClassCastException.class)
+	public void rejectExtensionOfOtherClass() throws Exception {
+		map.put(First.class, second);
+	}
+}
@@ -0,0 +1,75 @@
+package org.freeplane.core.io.xml;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+import org.junit.Test;
+
+public class HtmlEntityResolvingReaderShould {
+	private String read(String input) throws IOException {
+		final StringBuilder result = new StringBuilder();
+		try (Reader reader = new HtmlEntityResolvingReader(new StringReader(input))) {
+			final char[] buffer = new char[3];
+			for (int count; (count = reader.read(buffer, 0, buffer.length)) != -1;) {
+				result.append(buffer, 0, count);
+			}
+		}
+		return result.toString();
+	}
+
+	@Test
+	public void keepTextWithoutEntities() throws Exception {
+		assertEquals("<a>text</a>", read("<a>text</a>"));
+	}
+
+	@Test
+	public void keepXmlEntities() throws Exception {
+		assertEquals("&amp;&lt;&gt;&quot;&apos;&#160;&#xA0;", read("&amp;&lt;&gt;&quot;&apos;&#160;&#xA0;"));
+	}
+
+	@Test
+	public void replaceHtmlEntities() throws Exception {
+		assertEquals("a&#160;b&#8364;", read("a&nbsp;b&euro;"));
+	}
+
+	@Test
+	public void escapeUnknownEntities() throws Exception {
+		assertEquals("&amp;unknown;", read("&unknown;"));
+	}
+
+	@Test
+	public void keepAmpersandsWithoutEntity() throws Exception {
+		assertEquals("a & b &", read("a & b &"));
+	}
+
+	@Test
+	public void replaceEntitiesCrossingBufferBoundaries() throws Exception {
+		final StringBuilder input = new StringBuilder();
+		final StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 3000; i++) {
+			input.append("x&nbsp;");
+			expected.append("x&#160;");
+		}
+		assertEquals(expected.toString(), read(input.toString()));
+	}
+
+	@Test
+	public void keepOriginalTextOfReadCharacters() throws Exception {
+		final StringBuilder input = new StringBuilder();
+		for (int i = 0; i < 3000; i++) {
+			input.append("x&nbsp;\r\n");
+		}
+		try (HtmlEntityResolvingReader reader = new HtmlEntityResolvingReader(new StringReader(input.toString()))) {
+			final char[] buffer = new char[input.length() + 3000];
+			final int count = reader.read(buffer, 0, buffer.length);
+			final String text = new String(buffer, 0, count);
+			assertEquals("x&nbsp;\nx&nbsp;\n", reader.getOriginalText(0, 2 * "x&#160;\r\n".length()));
+			final int lastLineStart = text.length() - "x&#160;\r\n".length();
+			reader.discardOriginalText(lastLineStart);
+			assertEquals("&nbsp;\n", reader.getOriginalText(lastLineStart + 1, text.length()));
+		}
+	}
+}
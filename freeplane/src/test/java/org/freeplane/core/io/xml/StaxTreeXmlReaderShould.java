@@ -0,0 +1,123 @@
+package org.freeplane.core.io.xml;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.freeplane.core.io.IElementContentHandler;
+import org.freeplane.core.io.ITreeReader;
+import org.freeplane.core.io.ReadManager;
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.core.ui.menubuilders.HeadlessFreeplaneRunner;
+import org.freeplane.features.map.MapController;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.MapReader;
+import org.freeplane.features.map.MapWriter.Mode;
+import org.freeplane.features.mode.Controller;
+import org.freeplane.n3.nanoxml.XMLElement;
+import org.junit.After;
+import org.junit.Test;
+
+public class StaxTreeXmlReaderShould {
+	static {
+		new HeadlessFreeplaneRunner();
+	}
+
+	private final ResourceController resourceController = ResourceController.getResourceController();
+	private final String parser = resourceController.getProperty(MapReader.MAP_XML_PARSER_PROPERTY);
+
+	@After
+	public void restoreParser() {
+		resourceController.setProperty(MapReader.MAP_XML_PARSER_PROPERTY, parser);
+	}
+
+	@Test
+	public void loadMapsWithRichContentAndNotesLikeTreeXmlReader() throws Exception {
+		assertSameMapWithBothParsers("/templates/standard-1.6.mm");
+		assertSameMapWithBothParsers("/templates/BigMap.mm");
+	}
+
+	@Test
+	public void loadMapsWithAttributesAndHtmlNotesLikeTreeXmlReader() throws Exception {
+		assertSameMapWithBothParsers("/xslt/mm2wordml_utf8_TEMPLATE.mm");
+		assertSameMapWithBothParsers("/xslt/mm2msp_utf8_TEMPLATE.mm");
+	}
+
+	@Test
+	public void passNoContentToSingleContentHandlerIfElementContainsNoXml() throws Exception {
+		assertThat(readContentWithBothReaders("<text TYPE='plain'>a &amp; b</text>")).containsExactly((String) null);
+	}
+
+	@Test
+	public void passUnparsedContentToSingleContentHandlerIfElementContainsXml() throws Exception {
+		assertThat(readContentWithBothReaders("<text TYPE='xml'><b>a &amp; b</b></text>")).containsExactly("<b>a &amp; b</b>");
+	}
+
+	@Test
+	public void passContentWithReferencesAsWritten() throws Exception {
+		assertThat(readContentWithBothReaders("<map><text TYPE='xml'>\r\n<b a=\"&#228;\">&#228;&nbsp;&lt;<br/></b></text>"
+		        + "<text TYPE='xml'><text>&amp;</text></text></map>"))
+		    .containsExactly("\n<b a=\"&#228;\">&#228;&nbsp;&lt;<br/></b>", "<text>&amp;</text>");
+	}
+
+	@Test
+	public void passEmptyContentOfEmptyElementTagAsNull() throws Exception {
+		assertThat(readContentWithBothReaders("<map><text TYPE='xml'></text><text TYPE='xml'/></map>"))
+		    .containsExactly("", null);
+	}
+
+	private List<String> readContentWithBothReaders(String xml) throws Exception {
+		final List<String> content = readContent(xml, TreeXmlReader::new);
+		assertThat(readContent(xml, StaxTreeXmlReader::new)).isEqualTo(content);
+		return content;
+	}
+
+	private List<String> readContent(String xml, Function<ReadManager, ITreeReader> treeReaderFactory) throws Exception {
+		final ReadManager readManager = new ReadManager();
+		final List<String> content = new ArrayList<>();
+		readManager.addElementHandler("map", (parent, tag, attributes) -> tag);
+		readManager.addElementHandler("text", new IElementContentHandler() {
+			@Override
+			public Object createElement(Object parent, String tag, XMLElement attributes) {
+				return tag;
+			}
+
+			@Override
+			public boolean containsXml(XMLElement element) {
+				return "xml".equals(element.getAttribute("TYPE", null));
+			}
+
+			@Override
+			public void endElement(Object parent, String tag, Object node, XMLElement element, String elementContent) {
+				content.add(elementContent);
+			}
+		});
+		treeReaderFactory.apply(readManager).load(null, new StringReader(xml));
+		return content;
+	}
+
+	private void assertSameMapWithBothParsers(String mapResource) throws Exception {
+		final String mapLoadedByTreeXmlReader = loadAndSave(mapResource, "nanoxml");
+		final String mapLoadedByStaxReader = loadAndSave(mapResource, MapReader.STAX_PARSER);
+		assertThat(mapLoadedByStaxReader).isEqualTo(mapLoadedByTreeXmlReader);
+	}
+
+	private String loadAndSave(String mapResource, String parser) throws Exception {
+		resourceController.setProperty(MapReader.MAP_XML_PARSER_PROPERTY, parser);
+		final MapController mapController = Controller.getCurrentModeController().getMapController();
+		final MapModel map = new MapModel(mapController.duplicator());
+		try (Reader reader = new InputStreamReader(getClass().getResourceAsStream(mapResource), StandardCharsets.UTF_8)) {
+			mapController.getMapReader().createNodeTreeFromXml(map, reader, Mode.FILE);
+		}
+		final StringWriter savedMap = new StringWriter();
+		mapController.getMapWriter().writeMapAsXml(map, savedMap, Mode.FILE, true, false);
+		return savedMap.toString();
+	}
+}
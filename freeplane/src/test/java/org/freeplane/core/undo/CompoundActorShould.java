@@ -0,0 +1,27 @@
+package org.freeplane.core.undo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.Test;
+
+public class CompoundActorShould {
+	@Test
+	public void estimateSizeOfAllActors() throws Exception {
+		final IActor first = mock(IActor.class);
+		when(first.getEstimatedSize()).thenReturn(1000L);
+		final IActor second = mock(IActor.class);
+		when(second.getEstimatedSize()).thenReturn(2000L);
+		final CompoundActor compoundActor = new CompoundActor();
+		compoundActor.add(first);
+		compoundActor.add(second);
+		assertThat(compoundActor.getEstimatedSize()).isEqualTo(IActor.DEFAULT_ESTIMATED_SIZE + 3000L);
+	}
+
+	@Test
+	public void estimateTextSizeInBytes() throws Exception {
+		assertThat(IActor.estimatedSizeOf("text")).isEqualTo(8);
+		assertThat(IActor.estimatedSizeOf(null)).isEqualTo(0);
+	}
+}
@@ -0,0 +1,84 @@
+package org.freeplane.core.undo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.core.ui.menubuilders.HeadlessFreeplaneRunner;
+import org.freeplane.features.map.MapModel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class UndoHandlerShould {
+	static {
+		new HeadlessFreeplaneRunner();
+	}
+
+	private static final String UNDO_MEMORY_LIMIT_PROPERTY = "undo_memory_limit";
+	private static final long ACTOR_SIZE = 400 * 1024;
+	private final ResourceController resourceController = ResourceController.getResourceController();
+	private final String memoryLimit = resourceController.getProperty(UNDO_MEMORY_LIMIT_PROPERTY);
+	private final UndoHandler undoHandler = new UndoHandler(mock(MapModel.class));
+
+	@Before
+	public void setMemoryLimit() {
+		resourceController.setProperty(UNDO_MEMORY_LIMIT_PROPERTY, "1");
+	}
+
+	@After
+	public void restoreMemoryLimit() {
+		resourceController.setProperty(UNDO_MEMORY_LIMIT_PROPERTY, memoryLimit);
+	}
+
+	private IActor addActor(long estimatedSize) {
+		final IActor actor = mock(IActor.class);
+		when(actor.getEstimatedSize()).thenReturn(estimatedSize);
+		undoHandler.forceNewTransaction();
+		undoHandler.addActor(actor);
+		return actor;
+	}
+
+	private void undoAll() {
+		while (undoHandler.canUndo())
+			undoHandler.undo();
+	}
+
+	@Test
+	public void removeOldestEntriesWhenMemoryLimitIsExceeded() throws Exception {
+		final IActor first = addActor(ACTOR_SIZE);
+		final IActor second = addActor(ACTOR_SIZE);
+		final IActor third = addActor(ACTOR_SIZE);
+		undoAll();
+		verify(first, never()).undo();
+		verify(second).undo();
+		verify(third).undo();
+	}
+
+	@Test
+	public void keepRemovedEntriesOutOfMemoryEstimation() throws Exception {
+		addActor(ACTOR_SIZE);
+		addActor(ACTOR_SIZE);
+		addActor(ACTOR_SIZE);
+		final IActor fourth = addActor(ACTOR_SIZE / 4);
+		undoAll();
+		verify(fourth).undo();
+		assertThat(undoHandler.canRedo()).isTrue();
+		undoHandler.redo();
+		undoHandler.redo();
+		undoHandler.redo();
+		assertThat(undoHandler.canRedo()).isFalse();
+	}
+
+	@Test
+	public void keepLatestEntryExceedingMemoryLimit() throws Exception {
+		final IActor first = addActor(ACTOR_SIZE);
+		final IActor large = addActor(3 * ACTOR_SIZE);
+		undoAll();
+		verify(first, never()).undo();
+		verify(large).undo();
+	}
+}
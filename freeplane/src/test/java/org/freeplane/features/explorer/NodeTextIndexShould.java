@@ -0,0 +1,61 @@
+package org.freeplane.features.explorer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class NodeTextIndexShould {
+	private final MapModel map = Mockito.mock(MapModel.class);
+	private final NodeModel root = new NodeModel("root", map);
+	private final NodeModel first = new NodeModel("text", map);
+	private final NodeModel firstChild = new NodeModel("text", map);
+	private final NodeModel second = new NodeModel("text and more", map);
+	private final NodeModel other = new NodeModel("other", map);
+	private final NodeTextIndex index = new NodeTextIndex();
+
+	public NodeTextIndexShould() {
+		root.insert(first);
+		first.insert(firstChild);
+		root.insert(second);
+		root.insert(other);
+		index.addBranch(root);
+	}
+
+	@Test
+	public void findDescendantsWithTextInDepthFirstOrder() throws Exception {
+		assertThat(index.findDescendants(root, new NodeMatcher("'text'"))).containsExactly(first, firstChild);
+	}
+
+	@Test
+	public void findDescendantsWithTextStart() throws Exception {
+		assertThat(index.findDescendants(root, new NodeMatcher("'text...'"))).containsExactly(first, firstChild, second);
+	}
+
+	@Test
+	public void findOnlyDescendantsOfStartNode() throws Exception {
+		assertThat(index.findDescendants(first, new NodeMatcher("'text'"))).containsExactly(firstChild);
+	}
+
+	@Test
+	public void findChangedNodes() throws Exception {
+		other.setText("text");
+		index.updateIndexed(other);
+		assertThat(index.findDescendants(root, new NodeMatcher("'text'"))).containsExactly(first, firstChild, other);
+	}
+
+	@Test
+	public void notFindRemovedBranches() throws Exception {
+		index.removeBranch(first);
+		assertThat(index.findDescendants(root, new NodeMatcher("'text...'"))).containsExactly(second);
+	}
+
+	@Test
+	public void notIndexNodesBeforeInsertion() throws Exception {
+		final NodeModel detached = new NodeModel("text", map);
+		index.updateIndexed(detached);
+		assertThat(index.nodesWithText("text")).containsOnly(first, firstChild);
+	}
+}
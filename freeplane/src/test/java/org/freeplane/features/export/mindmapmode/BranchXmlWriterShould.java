@@ -0,0 +1,75 @@
+package org.freeplane.features.export.mindmapmode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.xml.transform.Source;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+
+import org.freeplane.core.ui.menubuilders.HeadlessFreeplaneRunner;
+import org.freeplane.features.map.MapController;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.MapWriter.Mode;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.mode.Controller;
+import org.junit.Test;
+
+public class BranchXmlWriterShould {
+	static {
+		new HeadlessFreeplaneRunner();
+	}
+
+	private static MapModel loadMap() throws Exception {
+		final MapController mapController = Controller.getCurrentModeController().getMapController();
+		final MapModel map = new MapModel(mapController.duplicator());
+		try (Reader reader = new InputStreamReader(BranchXmlWriterShould.class.getResourceAsStream("/org/freeplane/features/map/branches.mm"),
+		    StandardCharsets.UTF_8)) {
+			mapController.getMapReader().createNodeTreeFromXml(map, reader, Mode.FILE);
+		}
+		return map;
+	}
+
+	private static final String COPYING_STYLESHEET = "<xsl:stylesheet version='1.0' xmlns:xsl='http://www.w3.org/1999/XSL/Transform'>"
+	        + "<xsl:template match='/'><xsl:copy-of select='/'/></xsl:template>"
+	        + "</xsl:stylesheet>";
+
+	private static String copy(Source source) throws Exception {
+		final StringWriter result = new StringWriter();
+		TransformerFactory.newInstance().newTemplates(new StreamSource(new StringReader(COPYING_STYLESHEET)))
+		    .newTransformer().transform(source, new StreamResult(result));
+		return result.toString();
+	}
+
+	private static String parsedXmlText(BranchXmlWriter branchXmlWriter) throws Exception {
+		final StringWriter xml = new StringWriter();
+		branchXmlWriter.writeXml(xml, Mode.FILE);
+		return copy(new StreamSource(new StringReader(xml.toString())));
+	}
+
+	@Test
+	public void passMapToTransformerLikeParsedXmlText() throws Exception {
+		final BranchXmlWriter branchXmlWriter = new BranchXmlWriter(Collections.singletonList(loadMap().getRootNode()));
+		final String transformedXml = copy(branchXmlWriter.toSource(Mode.FILE));
+		assertThat(transformedXml).contains("ID_FIRST_CHILD");
+		assertThat(transformedXml).isEqualTo(parsedXmlText(branchXmlWriter));
+	}
+
+	@Test
+	public void passBranchesToTransformerLikeParsedXmlText() throws Exception {
+		final MapModel map = loadMap();
+		final NodeModel root = map.getRootNode();
+		final BranchXmlWriter branchXmlWriter = new BranchXmlWriter(Arrays.asList(root.getChildAt(0), root.getChildAt(1)));
+		final String transformedXml = copy(branchXmlWriter.toSource(Mode.FILE));
+		assertThat(transformedXml).contains("<map>");
+		assertThat(transformedXml).isEqualTo(parsedXmlText(branchXmlWriter));
+	}
+}
@@ -0,0 +1,108 @@
+package org.freeplane.features.export.mindmapmode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.sax.SAXTransformerFactory;
+import javax.xml.transform.sax.TransformerHandler;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+
+import org.junit.Test;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+public class SaxEventsWriterShould {
+	private static final String XML = "<!DOCTYPE mindmap [\n"
+	        + "    <!ENTITY nbsp \"&#160;\"> \n"
+	        + "]>\n"
+	        + "<map version=\"freeplane 1.9.13\">\n"
+	        + "<!--To view this file, download free mind mapping software Freeplane-->\n"
+	        + "<node TEXT=\"a &lt;b&gt; &amp; &quot;c&quot;&#xa;d\" ID='ID_1'>\n"
+	        + "<richcontent TYPE=\"NOTE\"><html>\r\n<body><p>x&nbsp;y &#228; <![CDATA[<raw>]]></p>"
+	        + "<svg:svg xmlns:svg=\"http://www.w3.org/2000/svg\" svg:width=\"1\"/></body></html></richcontent>\n"
+	        + "<?freeplane instruction?>"
+	        + "<node TEXT=\"child\"/>\n"
+	        + "</node>\n"
+	        + "</map>\n";
+
+	private static String parsed(String xml) throws Exception {
+		final StringWriter result = new StringWriter();
+		TransformerFactory.newInstance().newTransformer().transform(new StreamSource(new StringReader(xml)), new StreamResult(result));
+		return result.toString();
+	}
+
+	private static SaxEventsWriter saxEventsWriter(StringWriter result) throws Exception {
+		final TransformerHandler handler = ((SAXTransformerFactory) TransformerFactory.newInstance()).newTransformerHandler();
+		handler.setResult(new StreamResult(result));
+		handler.startDocument();
+		return new SaxEventsWriter(handler, handler) {
+			@Override
+			void checkFailure() throws SAXException {
+				super.checkFailure();
+				handler.endDocument();
+			}
+		};
+	}
+
+	@Test
+	public void reportWrittenXmlLikeParser() throws Exception {
+		final StringWriter result = new StringWriter();
+		final SaxEventsWriter writer = saxEventsWriter(result);
+		writer.write(XML);
+		writer.close();
+		writer.checkFailure();
+		assertThat(result.toString()).isEqualTo(parsed(XML));
+	}
+
+	@Test
+	public void reportXmlWrittenCharacterByCharacterLikeParser() throws Exception {
+		final StringWriter result = new StringWriter();
+		final SaxEventsWriter writer = saxEventsWriter(result);
+		for (char c : XML.toCharArray())
+			writer.write(c);
+		writer.close();
+		writer.checkFailure();
+		assertThat(result.toString()).isEqualTo(parsed(XML));
+	}
+
+	@Test
+	public void reportCompleteMarkupBeforeXmlIsClosed() throws Exception {
+		final List<String> startedElements = new ArrayList<>();
+		final SaxEventsWriter writer = new SaxEventsWriter(new DefaultHandler() {
+			@Override
+			public void startElement(String uri, String localName, String qName, Attributes attributes) {
+				startedElements.add(qName);
+			}
+		}, null);
+		writer.write("<map><node TEXT=\"a\"/><node TE");
+		assertThat(startedElements).containsExactly("map", "node");
+		writer.write("XT=\"b\"/></map>");
+		writer.close();
+		writer.checkFailure();
+		assertThat(startedElements).containsExactly("map", "node", "node");
+	}
+
+	@Test
+	public void failOnUnclosedElement() throws Exception {
+		final SaxEventsWriter writer = saxEventsWriter(new StringWriter());
+		writer.write("<map><node>");
+		writer.close();
+		assertThatThrownBy(writer::checkFailure).isInstanceOf(SAXException.class).hasMessageContaining("node");
+	}
+
+	@Test
+	public void failOnUndeclaredEntity() throws Exception {
+		final SaxEventsWriter writer = saxEventsWriter(new StringWriter());
+		writer.write("<map>&copy;</map>");
+		writer.close();
+		assertThatThrownBy(writer::checkFailure).isInstanceOf(SAXException.class).hasMessageContaining("copy");
+	}
+}
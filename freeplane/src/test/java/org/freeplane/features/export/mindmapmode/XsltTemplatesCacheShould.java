@@ -0,0 +1,61 @@
+package org.freeplane.features.export.mindmapmode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import javax.xml.transform.Templates;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class XsltTemplatesCacheShould {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static String stylesheet(String output) {
+		return "<xsl:stylesheet version='1.0' xmlns:xsl='http://www.w3.org/1999/XSL/Transform'>"
+		        + "<xsl:output method='text'/>"
+		        + "<xsl:template match='/'>" + output + "</xsl:template>"
+		        + "</xsl:stylesheet>";
+	}
+
+	private static String transform(Templates templates) throws Exception {
+		final StringWriter result = new StringWriter();
+		templates.newTransformer().transform(new StreamSource(new StringReader("<map/>")), new StreamResult(result));
+		return result.toString();
+	}
+
+	private File writeStylesheet(File file, String output, long lastModified) throws Exception {
+		Files.write(file.toPath(), stylesheet(output).getBytes(StandardCharsets.UTF_8));
+		file.setLastModified(lastModified);
+		return file;
+	}
+
+	@Test
+	public void reuseTemplatesOfUnchangedStylesheet() throws Exception {
+		final URL stylesheet = writeStylesheet(folder.newFile("unchanged.xsl"), "first", 1_000_000_000L).toURI().toURL();
+		final Templates templates = XsltTemplatesCache.getTemplates(stylesheet);
+		assertThat(XsltTemplatesCache.getTemplates(stylesheet)).isSameAs(templates);
+		assertThat(transform(templates)).isEqualTo("first");
+	}
+
+	@Test
+	public void compileModifiedStylesheetAgain() throws Exception {
+		final File file = folder.newFile("modified.xsl");
+		final URL stylesheet = writeStylesheet(file, "first", 1_000_000_000L).toURI().toURL();
+		final Templates templates = XsltTemplatesCache.getTemplates(stylesheet);
+		writeStylesheet(file, "second", 2_000_000_000L);
+		final Templates modifiedTemplates = XsltTemplatesCache.getTemplates(stylesheet);
+		assertThat(modifiedTemplates).isNotSameAs(templates);
+		assertThat(transform(modifiedTemplates)).isEqualTo("second");
+	}
+}
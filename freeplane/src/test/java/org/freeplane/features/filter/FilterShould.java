@@ -0,0 +1,181 @@
+package org.freeplane.features.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.core.ui.menubuilders.HeadlessFreeplaneRunner;
+import org.freeplane.features.filter.condition.ICondition;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.text.AbstractContentTransformer;
+import org.freeplane.features.text.IContentTransformer;
+import org.freeplane.features.text.NodeContainsCondition;
+import org.freeplane.features.text.TextController;
+import org.junit.After;
+import org.junit.Test;
+
+public class FilterShould {
+	static {
+		new HeadlessFreeplaneRunner();
+	}
+
+	private final ResourceController resourceController = ResourceController.getResourceController();
+	private final boolean parallelFiltering = resourceController.getBooleanProperty(Filter.PARALLEL_FILTERING_PROPERTY);
+	private final MapModel map = new MapModel(null, null, null);
+	private final NodeModel root = new NodeModel("root", map);
+	private final List<NodeModel> nodes = new ArrayList<>();
+	private final Set<String> checkingThreadNames = ConcurrentHashMap.newKeySet();
+
+	private final ICondition threadSafeCondition = new ICondition() {
+		@Override
+		public boolean checkNode(NodeModel node) {
+			checkingThreadNames.add(Thread.currentThread().getName());
+			return node.getText().endsWith("3");
+		}
+
+		@Override
+		public boolean isThreadSafe() {
+			return true;
+		}
+	};
+
+	public FilterShould() {
+		map.setRoot(root);
+		nodes.add(root);
+		addChildren(root, 3);
+	}
+
+	private void addChildren(NodeModel parent, int depth) {
+		if (depth == 0)
+			return;
+		for (int i = 0; i < 5; i++) {
+			final NodeModel child = new NodeModel(parent.getText() + "." + i, map);
+			parent.insert(child);
+			nodes.add(child);
+			addChildren(child, depth - 1);
+		}
+	}
+
+	@After
+	public void restoreParallelFiltering() {
+		resourceController.setProperty(Filter.PARALLEL_FILTERING_PROPERTY, parallelFiltering);
+	}
+
+	private List<String> filter(boolean parallel) {
+		resourceController.setProperty(Filter.PARALLEL_FILTERING_PROPERTY, parallel);
+		final Filter filter = Filter.createFilter(threadSafeCondition, true, false, false, null);
+		filter.calculateFilterResults(root);
+		final List<String> results = new ArrayList<>(nodes.size());
+		for (NodeModel node : nodes)
+			results.add(node.getText() + " visible=" + filter.isVisible(node)
+			        + " matched=" + filter.isMatched(node));
+		return results;
+	}
+
+	@Test
+	public void filterInParallelLikeSerially() throws Exception {
+		final List<String> serialResults = filter(false);
+		final List<String> parallelResults = filter(true);
+		assertThat(parallelResults).isEqualTo(serialResults);
+		assertThat(serialResults).contains("root.3 visible=true matched=true", "root.0.3 visible=true matched=true",
+		    "root.0 visible=true matched=false", "root.0.1.1 visible=false matched=false");
+	}
+
+	@Test
+	public void checkThreadSafeConditionsOnWorkerPool() throws Exception {
+		filter(true);
+		assertThat(checkingThreadNames).isNotEmpty().allMatch(name -> name.startsWith("worker "));
+	}
+
+	@Test
+	public void checkOtherConditionsOnCallingThread() throws Exception {
+		resourceController.setProperty(Filter.PARALLEL_FILTERING_PROPERTY, true);
+		final ICondition condition = node -> {
+			checkingThreadNames.add(Thread.currentThread().getName());
+			return false;
+		};
+		Filter.createFilter(condition, true, false, false, null).calculateFilterResults(root);
+		assertThat(checkingThreadNames).containsExactly(Thread.currentThread().getName());
+	}
+
+	@Test
+	public void keepFilterInfosOfNodesApart() throws Exception {
+		final Filter filter = new Filter(threadSafeCondition, false, false, false, false, null);
+		final NodeModel first = root.getChildAt(0);
+		final NodeModel second = root.getChildAt(1);
+		assertThat(filter.getFilterInfo(first).isNotChecked()).isTrue();
+		filter.showAsMatched(first);
+		assertThat(filter.isMatched(first)).isTrue();
+		assertThat(filter.canBeAncestor(root)).isTrue();
+		assertThat(filter.isMatched(second)).isFalse();
+		assertThat(filter.getFilterInfo(second).isNotChecked()).isTrue();
+		filter.getFilterInfo(first).reset();
+		assertThat(filter.getFilterInfo(first).isNotChecked()).isTrue();
+	}
+
+	@Test
+	public void forgetFilterInfosOfNodesMovedToOtherMaps() throws Exception {
+		final Filter filter = new Filter(threadSafeCondition, false, false, false, false, null);
+		final NodeModel node = root.getChildAt(0);
+		filter.showAsMatched(node);
+		root.remove(0);
+		node.setMap(new MapModel(null, null, null));
+		assertThat(filter.isMatched(node)).isFalse();
+		assertThat(filter.getFilterInfo(node).isNotChecked()).isTrue();
+	}
+
+	@Test
+	public void matchTransformedNodeTextsOnWorkerPool() throws Exception {
+		resourceController.setProperty(Filter.PARALLEL_FILTERING_PROPERTY, true);
+		final Set<String> transformingThreadNames = ConcurrentHashMap.newKeySet();
+		final IContentTransformer transformer = new AbstractContentTransformer(1) {
+			@Override
+			public Object transformContent(NodeModel node, Object nodeProperty, Object content,
+			                               TextController textController, Mode mode) {
+				transformingThreadNames.add(Thread.currentThread().getName());
+				return content;
+			}
+		};
+		final TextController textController = TextController.getController();
+		textController.addTextTransformer(transformer);
+		try {
+			final NodeContainsCondition condition = new NodeContainsCondition(TextController.FILTER_NODE, "3", false,
+			    false, false) {
+				@Override
+				public BooleanSupplier prepareCheck(NodeModel node) {
+					final BooleanSupplier check = super.prepareCheck(node);
+					return () -> {
+						checkingThreadNames.add(Thread.currentThread().getName());
+						return check.getAsBoolean();
+					};
+				}
+			};
+			final Filter filter = Filter.createFilter(condition, true, false, false, null);
+			filter.calculateFilterResults(root);
+			assertThat(filter.isMatched(root.getChildAt(3))).isTrue();
+			assertThat(filter.isMatched(root.getChildAt(2))).isFalse();
+		}
+		finally {
+			textController.removeTextTransformer(transformer);
+		}
+		assertThat(checkingThreadNames).isNotEmpty().allMatch(name -> name.startsWith("worker "));
+		assertThat(transformingThreadNames).containsExactly(Thread.currentThread().getName());
+	}
+
+	@Test
+	public void checkTransformedNodeTextsSerially() throws Exception {
+		assertThat(new NodeContainsCondition(TextController.FILTER_NODE, "a", false, true, false).isThreadSafe())
+		    .isFalse();
+		assertThat(new NodeContainsCondition(TextController.FILTER_ANYTEXT, "a", false, true, false).isThreadSafe())
+		    .isFalse();
+		assertThat(new NodeContainsCondition(TextController.FILTER_NOTE, "a", false, true, false).isThreadSafe())
+		    .isTrue();		assertThat(new NodeContainsCondition(TextController.FILTER_NODE, "a", false, true, false).canPrepareChecks())
+		    .isTrue();
+	}
+}
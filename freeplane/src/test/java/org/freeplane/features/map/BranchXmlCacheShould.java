@@ -0,0 +1,65 @@
+package org.freeplane.features.map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class BranchXmlCacheShould {
+	private final MapModel map = Mockito.mock(MapModel.class);
+	private final BranchXmlCache cache = new BranchXmlCache("");
+	private NodeModel root;
+	private NodeModel first;
+	private NodeModel second;
+
+	@Before
+	public void setup() {
+		root = new NodeModel("root", map);
+		Mockito.when(map.getRootNode()).thenReturn(root);
+		Mockito.when(map.getExtension(BranchXmlCache.class)).thenReturn(cache);
+		first = new NodeModel("first", map);
+		second = new NodeModel("second", map);
+		root.insert(first);
+		root.insert(second);
+		cache.put(first, "<node TEXT=\"first\"/>");
+		cache.put(second, "<node TEXT=\"second\"/>");
+	}
+
+	@Test
+	public void invalidateTopLevelBranchOfChangedDescendant() throws Exception {
+		final NodeModel child = new NodeModel("child", map);
+		first.insert(child);
+		final NodeModel grandchild = new NodeModel("grandchild", map);
+		child.insert(grandchild);
+		BranchXmlCache.invalidate(grandchild);
+		assertThat(cache.get(first)).isNull();
+		assertThat(cache.get(second)).isEqualTo("<node TEXT=\"second\"/>");
+	}
+
+	@Test
+	public void keepBranchesOnRootChange() throws Exception {
+		BranchXmlCache.invalidate(root);
+		assertThat(cache.get(first)).isNotNull();
+		assertThat(cache.get(second)).isNotNull();
+	}
+
+	@Test
+	public void invalidateDeletedTopLevelBranch() throws Exception {
+		root.remove(1);
+		new BranchXmlCache.Updater().onNodeDeleted(new NodeDeletionEvent(root, second, 1));
+		assertThat(cache.get(first)).isNotNull();
+		assertThat(cache.get(second)).isNull();
+	}
+
+	@Test
+	public void invalidateBothBranchesOnMove() throws Exception {
+		final NodeModel child = new NodeModel("child", map);
+		first.insert(child);
+		first.remove(0);
+		second.insert(child);
+		new BranchXmlCache.Updater().onNodeMoved(new NodeMoveEvent(first, 0, false, second, child, 0, false));
+		assertThat(cache.get(first)).isNull();
+		assertThat(cache.get(second)).isNull();
+	}
+}
@@ -0,0 +1,87 @@
+package org.freeplane.features.map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.Test;
+
+public class MapBranchSplitterShould {
+	private static MapBranchSplitter split(String xml) throws IOException {
+		return MapBranchSplitter.read(new StringReader(xml));
+	}
+
+	private static List<String> branches(String xml) throws IOException {
+		return split(xml).getBranches();
+	}
+
+	private static String readMap(MapBranchSplitter splitter) throws IOException {
+		final StringBuilder map = new StringBuilder();
+		final char[] buffer = new char[3];
+		try (Reader reader = splitter.readMap()) {
+			for (int count = reader.read(buffer); count >= 0; count = reader.read(buffer))
+				map.append(buffer, 0, count);
+		}
+		return map.toString();
+	}
+
+	@Test
+	public void findChildNodesOfRootNode() throws Exception {
+		final String xml = "<?xml version='1.0'?><map version=\"1.0\"><!-- <node> -->"
+		        + "<node TEXT=\"root\"><hook NAME=\"MapStyle\"/>"
+		        + "<node TEXT=\"a > b\"><node TEXT=\"a1\"/></node>"
+		        + "<node TEXT='c'/>"
+		        + "</node></map>";
+		assertThat(branches(xml)).containsExactly("<node TEXT=\"a > b\"><node TEXT=\"a1\"/></node>",
+		    "<node TEXT='c'/>");
+	}
+
+	@Test
+	public void keepRootNodeWithoutBranches() throws Exception {
+		final String xml = "<map><node TEXT=\"root\"><node/><font/><node><![CDATA[</node>]]></node></node></map>";
+		assertThat(split(xml).getSkeleton()).isEqualTo("<map><node TEXT=\"root\"><font/></node></map>");
+	}
+
+	@Test
+	public void readWholeMap() throws Exception {
+		final String xml = "<!DOCTYPE map [<!ENTITY nbsp \"&#160;\">]><map><node ID=\"1\"><node ID=\"2\"/>"
+		        + "<font/><node ID=\"3\">&nbsp;</node></node></map>";
+		assertThat(readMap(split(xml))).isEqualTo(xml);
+	}
+
+	@Test
+	public void ignoreNodesOutsideOfMap() throws Exception {
+		assertThat(branches("<node><node><node/></node></node>")).isEmpty();
+	}
+
+	@Test
+	public void returnNothingForIncompleteDocument() throws Exception {
+		assertThat(branches("<map><node><node TEXT=\"a\"></node>")).isEmpty();
+		assertThat(branches("<map><node><node TEXT=\"a")).isEmpty();
+	}
+
+	@Test
+	public void readWholeIncompleteDocument() throws Exception {
+		final String xml = "<map><node><node TEXT=\"a\"><node>";
+		assertThat(readMap(split(xml))).isEqualTo(xml);
+	}
+
+	@Test
+	public void returnNothingForMapsWithClones() throws Exception {
+		assertThat(branches("<map><node><node ID=\"1\"/><node TREE_ID=\"1\"/></node></map>")).isEmpty();
+		assertThat(branches("<map><node><node ID=\"1\"/><node><node CONTENT_ID='1'/></node></node></map>")).isEmpty();
+	}
+
+	@Test
+	public void returnNothingForMapsWithDuplicateIds() throws Exception {
+		assertThat(branches("<map><node ID=\"1\"><node ID=\"2\"/><node ID = '1'/></node></map>")).isEmpty();
+	}
+
+	@Test
+	public void acceptUniqueIds() throws Exception {
+		assertThat(branches("<map><node ID=\"1\"><node ID=\"2\"/><node ID=\"3\"/></node></map>")).hasSize(2);
+	}
+}
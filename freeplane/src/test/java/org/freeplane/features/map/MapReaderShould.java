@@ -0,0 +1,110 @@
+package org.freeplane.features.map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.core.ui.menubuilders.HeadlessFreeplaneRunner;
+import org.freeplane.features.link.NodeLinkModel;
+import org.freeplane.features.link.NodeLinks;
+import org.freeplane.features.map.MapWriter.Mode;
+import org.freeplane.features.mode.Controller;
+import org.junit.After;
+import org.junit.Test;
+
+public class MapReaderShould {
+	static {
+		new HeadlessFreeplaneRunner();
+	}
+
+	private final ResourceController resourceController = ResourceController.getResourceController();
+	private final boolean parallelLoading = resourceController.getBooleanProperty(MapReader.PARALLEL_MAP_LOADING_PROPERTY);
+
+	@After
+	public void restoreParallelLoading() {
+		resourceController.setProperty(MapReader.PARALLEL_MAP_LOADING_PROPERTY, parallelLoading);
+	}
+
+	@Test
+	public void loadBranchesInParallelLikeSerially() throws Exception {
+		try (Reader reader = openResource("branches.mm")) {
+			assertThat(MapBranchSplitter.read(reader).getBranches()).hasSize(3);
+		}
+		final MapModel serialMap = load("branches.mm", false);
+		final MapModel parallelMap = load("branches.mm", true);
+		assertThat(describe(parallelMap.getRootNode())).isEqualTo(describe(serialMap.getRootNode()));
+		assertThat(save(parallelMap)).isEqualTo(save(serialMap));
+	}
+
+	@Test
+	public void resolveConnectorsBetweenBranchesLoadedInParallel() throws Exception {
+		final MapModel map = load("branches.mm", true);
+		final NodeModel thirdChild = map.getNodeForID("ID_THIRD_CHILD");
+		assertThat(NodeLinks.getLinks(thirdChild)).extracting(NodeLinkModel::getTargetID)
+		    .containsExactly("ID_ROOT", "ID_SECOND_CHILD");
+		assertThat(NodeLinks.getLinks(map.getNodeForID("ID_SECOND_CHILD"))).extracting(NodeLinkModel::getTargetID)
+		    .containsExactly("ID_FIRST_CHILD");
+		assertThat(map.getNodeForID("ID_FIRST_CHILD").getParentNode()).isSameAs(map.getNodeForID("ID_FIRST"));
+	}
+
+	@Test
+	public void loadMapsWithClonesLikeSerially() throws Exception {
+		final MapModel serialMap = load("clones.mm", false);
+		final MapModel parallelMap = load("clones.mm", true);
+		assertThat(parallelMap.getNodeForID("ID_CLONE").isCloneTreeRoot()).isTrue();
+		assertThat(describe(parallelMap.getRootNode())).isEqualTo(describe(serialMap.getRootNode()));
+		assertThat(save(parallelMap)).isEqualTo(save(serialMap));
+	}
+
+	@Test
+	public void resolveDuplicateIdsLikeSerially() throws Exception {
+		final MapModel serialMap = load("duplicateIds.mm", false);
+		final MapModel parallelMap = load("duplicateIds.mm", true);
+		assertThat(describe(parallelMap.getRootNode())).isEqualTo(describe(serialMap.getRootNode()));
+	}
+
+	private MapModel load(String fileName, boolean parallel) throws Exception {
+		resourceController.setProperty(MapReader.PARALLEL_MAP_LOADING_PROPERTY, parallel);
+		final MapController mapController = Controller.getCurrentModeController().getMapController();
+		final MapModel map = new MapModel(mapController.duplicator());
+		try (Reader reader = openResource(fileName)) {
+			mapController.getMapReader().createNodeTreeFromXml(map, reader, Mode.FILE);
+		}
+		return map;
+	}
+
+	private Reader openResource(String fileName) {
+		return new InputStreamReader(getClass().getResourceAsStream(fileName), StandardCharsets.UTF_8);
+	}
+
+	private String save(MapModel map) throws Exception {
+		final StringWriter savedMap = new StringWriter();
+		Controller.getCurrentModeController().getMapController().getMapWriter()
+		    .writeMapAsXml(map, savedMap, Mode.FILE, true, false);
+		return savedMap.toString();
+	}
+
+	/** describes the branch without generated ids, connector targets are described by their text */
+	private String describe(NodeModel node) {
+		final StringBuilder description = new StringBuilder();
+		describe(node, 0, description);
+		return description.toString();
+	}
+
+	private void describe(NodeModel node, int depth, StringBuilder description) {
+		description.append(depth).append(' ').append(node.getText())
+		    .append(" clones=").append(node.allClones().size())
+		    .append(" folded=").append(node.isFolded());
+		for (NodeLinkModel link : NodeLinks.getLinks(node)) {
+			final NodeModel target = link.getTarget();
+			description.append(" -> ").append(target == null ? null : target.getText());
+		}
+		description.append('\n');
+		for (NodeModel child : node.getChildren())
+			describe(child, depth + 1, description);
+	}
+}
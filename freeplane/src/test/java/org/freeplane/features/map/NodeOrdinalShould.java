@@ -0,0 +1,46 @@
+package org.freeplane.features.map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+public class NodeOrdinalShould {
+	private final MapModel map = new MapModel(null, null, null);
+
+	@Test
+	public void beUniqueAmongNodesOfMap() throws Exception {
+		final NodeModel first = new NodeModel("first", map);
+		final NodeModel second = new NodeModel("second", map);
+		assertThat(first.getOrdinal()).isNotEqualTo(second.getOrdinal());
+		assertThat(first.getOrdinal()).isEqualTo(first.getOrdinal());
+	}
+
+	@Test
+	public void beMissingForNodesWithoutMap() throws Exception {
+		assertThat(new NodeModel("node", null).getOrdinal()).isEqualTo(-1);
+	}
+
+	@Test
+	public void changeWhenNodeIsMovedToOtherMap() throws Exception {
+		final NodeModel node = new NodeModel("node", map);
+		node.getOrdinal();
+		final MapModel otherMap = new MapModel(null, null, null);
+		new NodeModel("other", otherMap).getOrdinal();
+		node.setMap(otherMap);
+		assertThat(node.getOrdinal()).isEqualTo(1);
+	}
+
+	@Test
+	public void beTheSameForConcurrentCallers() throws Exception {
+		for (int i = 0; i < 100; i++) {
+			final NodeModel node = new NodeModel("node", map);
+			final List<Integer> ordinals = IntStream.range(0, 8).parallel().mapToObj(j -> node.getOrdinal())
+			    .collect(Collectors.toList());
+			assertThat(ordinals).containsOnly(node.getOrdinal());
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package org.freeplane.features.map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import org.freeplane.features.map.NodeIterator.Algorithm;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class NodeStreamShould {
+	private final MapModel map = Mockito.mock(MapModel.class);
+	private final NodeModel root = new NodeModel("root", map);
+	private final NodeModel first = new NodeModel("first", map);
+	private final NodeModel firstChild = new NodeModel("firstChild", map);
+	private final NodeModel second = new NodeModel("second", map);
+	private final NodeModel secondChild = new NodeModel("secondChild", map);
+	private final NodeModel third = new NodeModel("third", map);
+
+	public NodeStreamShould() {
+		root.insert(first);
+		first.insert(firstChild);
+		root.insert(second);
+		second.insert(secondChild);
+		root.insert(third);
+	}
+
+	@Test
+	public void streamNodesTopDown() throws Exception {
+		assertThat(NodeStream.of(root).collect(Collectors.toList()))
+			.containsExactly(root, first, firstChild, second, secondChild, third);
+	}
+
+	@Test
+	public void streamNodesBottomUp() throws Exception {
+		assertThat(NodeStream.bottomUpOf(root).collect(Collectors.toList()))
+			.containsExactly(firstChild, first, secondChild, second, third, root);
+	}
+
+	@Test
+	public void keepOrderOfParallelStreams() throws Exception {
+		assertThat(NodeStream.parallelOf(root).collect(Collectors.toList()))
+			.containsExactly(root, first, firstChild, second, secondChild, third);
+		assertThat(NodeStream.bottomUpOf(root).parallel().collect(Collectors.toList()))
+			.containsExactly(firstChild, first, secondChild, second, third, root);
+	}
+
+	@Test
+	public void runParallelStreamsOnWorkerPool() throws Exception {
+		assertThat(NodeStream.parallelOf(root).map(node -> Thread.currentThread().getName()).collect(Collectors.toSet()))
+			.allMatch(name -> name.startsWith("worker "));
+		assertThat(NodeStream.parallelOf(root).filter(node -> node.getParentNode() == root)
+			.mapToInt(node -> Thread.currentThread().getName().startsWith("worker ") ? 1 : 0).sum())
+			.isEqualTo(3);
+	}
+
+	@Test
+	public void rethrowExceptionsOfParallelStreams() throws Exception {
+		assertThatThrownBy(() -> NodeStream.parallelOf(root).parallel().forEach(node -> {
+			throw new IllegalStateException();
+		})).isInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	public void estimateSizeFromSubtreeNodeCounts() throws Exception {
+		assertThat(new NodeSpliterator(root, Algorithm.TOP_DOWN).estimateSize()).isEqualTo(6);
+	}
+
+	@Test
+	public void splitOnChildListBoundaries() throws Exception {
+		final NodeSpliterator rest = new NodeSpliterator(root, Algorithm.TOP_DOWN);
+		final Spliterator<NodeModel> rootOnly = rest.trySplit();
+		final Spliterator<NodeModel> firstChildren = rest.trySplit();
+		assertThat(nodesOf(rootOnly)).containsExactly(root);
+		assertThat(nodesOf(firstChildren)).containsExactly(first, firstChild);
+		assertThat(nodesOf(rest)).containsExactly(second, secondChild, third);
+	}
+
+	private static List<NodeModel> nodesOf(Spliterator<NodeModel> spliterator) {
+		final List<NodeModel> nodes = new ArrayList<>();
+		spliterator.forEachRemaining(nodes::add);
+		return nodes;
+	}
+}
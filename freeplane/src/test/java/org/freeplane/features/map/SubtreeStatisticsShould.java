@@ -0,0 +1,61 @@
+package org.freeplane.features.map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class SubtreeStatisticsShould {
+	private final MapModel map = Mockito.mock(MapModel.class);
+	private final NodeModel root = new NodeModel("root", map);
+	private final NodeModel first = new NodeModel("first", map);
+	private final NodeModel firstChild = new NodeModel("firstChild", map);
+	private final NodeModel second = new NodeModel("second", map);
+
+	public SubtreeStatisticsShould() {
+		root.insert(first);
+		first.insert(firstChild);
+		root.insert(second);
+	}
+
+	@Test
+	public void countDescendantsAndLevels() throws Exception {
+		final SubtreeStatistics statistics = root.getSubtreeStatistics();
+		assertThat(statistics.getDescendantCount()).isEqualTo(3);
+		assertThat(statistics.getMaximumDepth()).isEqualTo(2);
+		assertThat(statistics.getFoldedDescendantCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void describeLeavesAsEmpty() throws Exception {
+		final SubtreeStatistics statistics = second.getSubtreeStatistics();
+		assertThat(statistics.getDescendantCount()).isEqualTo(0);
+		assertThat(statistics.getMaximumDepth()).isEqualTo(0);
+	}
+
+	@Test
+	public void updateAncestorsOnInsertion() throws Exception {
+		root.getSubtreeStatistics();
+		firstChild.insert(new NodeModel("grandChild", map));
+		assertThat(root.getSubtreeStatistics().getDescendantCount()).isEqualTo(4);
+		assertThat(root.getSubtreeStatistics().getMaximumDepth()).isEqualTo(3);
+		assertThat(first.getSubtreeStatistics().getDescendantCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void updateAncestorsOnRemoval() throws Exception {
+		root.getSubtreeStatistics();
+		first.remove(0);
+		assertThat(root.getSubtreeStatistics().getDescendantCount()).isEqualTo(2);
+		assertThat(root.getSubtreeStatistics().getMaximumDepth()).isEqualTo(1);
+	}
+
+	@Test
+	public void countDescendantsOfFoldedNodes() throws Exception {
+		root.getSubtreeStatistics();
+		first.setFolded(true);
+		assertThat(root.getSubtreeStatistics().getFoldedDescendantCount()).isEqualTo(1);
+		assertThat(first.getSubtreeStatistics().getFoldedDescendantCount()).isEqualTo(1);
+		assertThat(root.getSubtreeStatistics().getDescendantCount()).isEqualTo(3);
+	}
+}
@@ -0,0 +1,90 @@
+package org.freeplane.features.styles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.styles.LogicalStyleController.StyleOption;
+import org.freeplane.features.styles.ResolvedStyleCache.ResolvedStyles;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class ResolvedStyleCacheShould {
+	private final MapModel map = Mockito.mock(MapModel.class);
+	private final ResolvedStyleCache cache = ResolvedStyleCache.of(map, 0);
+	private final NodeModel root = new NodeModel("root", map);
+	private final NodeModel parent = new NodeModel("parent", map);
+	private final NodeModel node = new NodeModel("node", map);
+	private final NodeModel child = new NodeModel("child", map);
+	private final NodeModel sibling = new NodeModel("sibling", map);
+	private final IStyle nodeStyle = new StyleNode(node);
+	private final IStyle style = new StyleString("style");
+
+	public ResolvedStyleCacheShould() {
+		when(map.getRootNode()).thenReturn(root);
+		root.insert(parent);
+		parent.insert(node);
+		parent.insert(sibling);
+		node.insert(child);
+	}
+
+	private ResolvedStyles resolvedStyles() {
+		return new ResolvedStyles(new LinkedHashSet<IStyle>(Arrays.asList(nodeStyle, style, MapStyleModel.DEFAULT_STYLE)));
+	}
+
+	@Test
+	public void returnStylesForEachOption() throws Exception {
+		final ResolvedStyles styles = resolvedStyles();
+		assertThat(styles.getStyles(StyleOption.FOR_UNSELECTED_NODE)).containsExactly(nodeStyle, style, MapStyleModel.DEFAULT_STYLE);
+		assertThat(styles.getStyles(StyleOption.FOR_SELECTED_NODE)).containsExactly(MapStyleModel.SELECTION_STYLE, nodeStyle, style, MapStyleModel.DEFAULT_STYLE);
+		assertThat(styles.getStyles(StyleOption.STYLES_ONLY)).containsExactly(style, MapStyleModel.DEFAULT_STYLE);
+	}
+
+	@Test
+	public void resolveValueOncePerOption() throws Exception {
+		final ResolvedStyles styles = resolvedStyles();
+		final Object key = new Object();
+		assertThat(styles.getValue(StyleOption.FOR_UNSELECTED_NODE, key, () -> "first")).isEqualTo("first");
+		assertThat(styles.getValue(StyleOption.FOR_UNSELECTED_NODE, key, () -> "second")).isEqualTo("first");
+		assertThat(styles.getValue(StyleOption.FOR_SELECTED_NODE, key, () -> "second")).isEqualTo("second");
+	}
+
+	@Test
+	public void keepResolvedNullValues() throws Exception {
+		final ResolvedStyles styles = resolvedStyles();
+		final Object key = new Object();
+		assertThat(styles.<Object> getValue(StyleOption.FOR_UNSELECTED_NODE, key, () -> null)).isNull();
+		assertThat(styles.<Object> getValue(StyleOption.FOR_UNSELECTED_NODE, key, () -> "second")).isNull();
+	}
+
+	@Test
+	public void removeAncestorsAndDescendantsOfChangedNode() throws Exception {
+		for (final NodeModel cachedNode : Arrays.asList(root, parent, node, child, sibling))
+			cache.put(cachedNode, resolvedStyles());
+		cache.removeLineage(node);
+		assertThat(cache.get(root)).isNull();
+		assertThat(cache.get(parent)).isNull();
+		assertThat(cache.get(node)).isNull();
+		assertThat(cache.get(child)).isNull();
+		assertThat(cache.get(sibling)).isNotNull();
+	}
+
+	@Test
+	public void removeAllNodesWhenRootChanges() throws Exception {
+		cache.put(sibling, resolvedStyles());
+		cache.removeLineage(root);
+		assertThat(cache.get(sibling)).isNull();
+	}
+
+	@Test
+	public void returnNewCacheForNewGeneration() throws Exception {
+		cache.put(node, resolvedStyles());
+		when(map.getExtension(ResolvedStyleCache.class)).thenReturn(cache);
+		assertThat(ResolvedStyleCache.of(map, 0)).isSameAs(cache);
+		assertThat(ResolvedStyleCache.of(map, 1).get(node)).isNull();
+	}
+}
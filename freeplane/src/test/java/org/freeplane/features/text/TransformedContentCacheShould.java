@@ -0,0 +1,60 @@
+package org.freeplane.features.text;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+
+import org.freeplane.core.util.Hyperlink;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.text.IContentTransformer.Mode;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class TransformedContentCacheShould {
+	private final MapModel map = Mockito.mock(MapModel.class);
+	private final TransformedContentCache cache = TransformedContentCache.of(map, 0);
+	private final NodeModel node = new NodeModel("node", map);
+	private final String content = "=1+1";
+
+	@Test
+	public void returnPutResultForSameContent() throws Exception {
+		cache.put(node, node, content, Mode.VIEW, true, 2);
+		assertThat(cache.get(node, node, content, Mode.VIEW, true)).isEqualTo(2);
+	}
+
+	@Test
+	public void returnNullForOtherContentObject() throws Exception {
+		cache.put(node, node, content, Mode.VIEW, true, 2);
+		assertThat(cache.get(node, node, new String(content), Mode.VIEW, true)).isNull();
+	}
+
+	@Test
+	public void distinguishModeAndNodeNumbering() throws Exception {
+		cache.put(node, node, content, Mode.VIEW, true, 2);
+		assertThat(cache.get(node, node, content, Mode.TEXT, true)).isNull();
+		assertThat(cache.get(node, node, content, Mode.VIEW, false)).isNull();
+	}
+
+	@Test
+	public void replaceResultOfChangedContent() throws Exception {
+		cache.put(node, node, content, Mode.VIEW, true, 2);
+		final String newContent = "=2+2";
+		cache.put(node, node, newContent, Mode.VIEW, true, 4);
+		assertThat(cache.get(node, node, newContent, Mode.VIEW, true)).isEqualTo(4);
+		assertThat(cache.get(node, node, content, Mode.VIEW, true)).isNull();
+	}
+
+	@Test
+	public void forgetRemovedNode() throws Exception {
+		cache.put(node, node, content, Mode.VIEW, true, 2);
+		cache.remove(node);
+		assertThat(cache.get(node, node, content, Mode.VIEW, true)).isNull();
+	}
+
+	@Test
+	public void notCacheLinks() throws Exception {
+		assertThat(TransformedContentCache.isCacheable(node, new Hyperlink(URI.create("#ID_1")))).isFalse();
+		assertThat(TransformedContentCache.isCacheable(node, content)).isTrue();
+	}
+}
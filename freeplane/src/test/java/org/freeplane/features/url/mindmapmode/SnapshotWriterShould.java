@@ -0,0 +1,67 @@
+package org.freeplane.features.url.mindmapmode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class SnapshotWriterShould {
+	private static String longString(char c) {
+		final StringBuilder text = new StringBuilder();
+		for (int i = 0; i < SnapshotWriter.SHARED_STRING_MINIMUM_LENGTH; i++)
+			text.append(c);
+		return text.toString();
+	}
+
+	@Test
+	public void writeCollectedTextInOrder() throws Exception {
+		final SnapshotWriter snapshot = new SnapshotWriter();
+		final PrintWriter printWriter = new PrintWriter(snapshot);
+		printWriter.print('<');
+		printWriter.print("map");
+		printWriter.write(longString('a'));
+		printWriter.write("xyz", 1, 2);
+		printWriter.print(new char[] { '/', '>' });
+		printWriter.flush();
+		final StringWriter file = new StringWriter();
+		snapshot.writeTo(file);
+		assertThat(file.toString()).isEqualTo("<map" + longString('a') + "yz/>");
+	}
+
+	@Test
+	public void shareLongStrings() throws Exception {
+		final String branch = longString('b');
+		final SnapshotWriter snapshot = new SnapshotWriter();
+		snapshot.write("<node>");
+		snapshot.write(branch);
+		snapshot.write("</node>");
+		final List<CharSequence> writtenParts = new ArrayList<>();
+		snapshot.writeTo(new Writer() {
+			@Override
+			public Writer append(CharSequence csq) {
+				writtenParts.add(csq);
+				return this;
+			}
+
+			@Override
+			public void write(char[] cbuf, int off, int len) {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public void flush() {
+			}
+
+			@Override
+			public void close() {
+			}
+		});
+		assertThat(writtenParts).hasSize(3);
+		assertThat(writtenParts.get(1)).isSameAs(branch);
+	}
+}
@@ -0,0 +1,55 @@
+package org.freeplane.main.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.freeplane.main.application.CommandLineParser.Options;
+import org.junit.Test;
+
+public class CommandLineParserShould {
+	@Test
+	public void parseBatchOptionsWithAttachedValues() throws Exception {
+		final Options options = CommandLineParser.parseArguments(
+		    new String[] { "-B4", "-Rscript.groovy", "-Ehtml", "a.mm", "b.mm" });
+		assertThat(options.isBatch()).isTrue();
+		assertThat(options.isNonInteractive()).isTrue();
+		assertThat(options.shouldStopAfterLaunch()).isTrue();
+		assertThat(options.getBatchThreadCount()).isEqualTo(4);
+		assertThat(options.getBatchScriptFile()).isEqualTo("script.groovy");
+		assertThat(options.getBatchExportFileExtension()).isEqualTo("html");
+		assertThat(options.getFilesToOpen()).containsExactly("a.mm", "b.mm");
+	}
+
+	@Test
+	public void parseBatchOptionsWithSeparateValues() throws Exception {
+		final Options options = CommandLineParser.parseArguments(
+		    new String[] { "-B", "-R", "script.groovy", "-E", "html", "a.mm" });
+		assertThat(options.isBatch()).isTrue();
+		assertThat(options.getBatchThreadCount()).isEqualTo(0);
+		assertThat(options.getBatchScriptFile()).isEqualTo("script.groovy");
+		assertThat(options.getBatchExportFileExtension()).isEqualTo("html");
+		assertThat(options.getFilesToOpen()).containsExactly("a.mm");
+	}
+
+	@Test
+	public void notStartBatchModeWithoutBatchOption() throws Exception {
+		final Options options = CommandLineParser.parseArguments(new String[] { "-N", "a.mm" });
+		assertThat(options.isBatch()).isFalse();
+		assertThat(options.getBatchScriptFile()).isNull();
+		assertThat(options.getBatchExportFileExtension()).isNull();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectScriptOptionWithoutBatchOption() throws Exception {
+		CommandLineParser.parseArguments(new String[] { "-Rscript.groovy", "a.mm" });
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectExportOptionWithoutBatchOption() throws Exception {
+		CommandLineParser.parseArguments(new String[] { "-E", "html", "a.mm" });
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectBatchOptionWithInvalidThreadCount() throws Exception {
+		CommandLineParser.parseArguments(new String[] { "-Bxyz", "a.mm" });
+	}
+}
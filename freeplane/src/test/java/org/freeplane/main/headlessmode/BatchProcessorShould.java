@@ -0,0 +1,68 @@
+package org.freeplane.main.headlessmode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.core.ui.menubuilders.HeadlessFreeplaneRunner;
+import org.freeplane.features.mode.Controller;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BatchProcessorShould {
+	static {
+		new HeadlessFreeplaneRunner();
+	}
+
+	private final List<File> files = Arrays.asList(new File("missing1.mm"), new File("missing2.mm"), new File("missing3.mm"));
+	private final AtomicInteger createdControllerCount = new AtomicInteger();
+	private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+	private PrintStream standardOutput;
+
+	@Before
+	public void captureOutput() {
+		standardOutput = System.out;
+		System.setOut(new PrintStream(output, true));
+	}
+
+	@After
+	public void restoreOutput() {
+		System.setOut(standardOutput);
+	}
+
+	/** creates a controller without modes, so that processing any map fails */
+	private Controller createStubController() {
+		createdControllerCount.incrementAndGet();
+		final Controller controller = new Controller(ResourceController.getResourceController());
+		controller.setViewController(new HeadlessUIController(controller, new HeadlessMapViewController(), ""));
+		Controller.setCurrentThreadController(controller);
+		return controller;
+	}
+
+	@Test(timeout = 10000)
+	public void countMapsFailingOnEachThread() throws Exception {
+		final boolean success = new BatchProcessor(this::createStubController, 2).process(files);
+		assertThat(success).isFalse();
+		assertThat(output.toString()).contains("Processed 3 maps on 2 threads in ").contains(", 3 failed");
+		assertThat(createdControllerCount.get()).isBetween(1, 2);
+	}
+
+	@Test(timeout = 10000)
+	public void failMapsWhenControllerCanNotBeCreated() throws Exception {
+		final boolean success = new BatchProcessor(() -> {
+			createdControllerCount.incrementAndGet();
+			throw new IllegalStateException("no controller");
+		}, 2).process(files);
+		assertThat(success).isFalse();
+		assertThat(output.toString()).contains("missing1.mm: failed after ").contains("no controller")
+		    .contains("Processed 3 maps on 2 threads in ").contains(", 3 failed");
+		assertThat(createdControllerCount.get()).isEqualTo(3);
+	}
+}
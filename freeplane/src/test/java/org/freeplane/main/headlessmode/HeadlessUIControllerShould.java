@@ -0,0 +1,52 @@
+package org.freeplane.main.headlessmode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.core.ui.menubuilders.HeadlessFreeplaneRunner;
+import org.freeplane.features.mode.Controller;
+import org.junit.After;
+import org.junit.Test;
+
+public class HeadlessUIControllerShould {
+	static {
+		new HeadlessFreeplaneRunner();
+	}
+
+	private final Controller secondController = new Controller(ResourceController.getResourceController());
+	private final HeadlessUIController first = createUIController(
+	    new Controller(ResourceController.getResourceController()));
+	private final HeadlessUIController second = createUIController(secondController);
+
+	private static HeadlessUIController createUIController(Controller controller) {
+		return new HeadlessUIController(controller, new HeadlessMapViewController(), "");
+	}
+
+	@After
+	public void shutdown() {
+		first.shutdown();
+		second.shutdown();
+	}
+
+	@Test
+	public void runTasksOnOwnDispatchThread() throws Exception {
+		final AtomicReference<Thread> firstThread = new AtomicReference<>();
+		final AtomicReference<Thread> secondThread = new AtomicReference<>();
+		first.invokeAndWait(() -> firstThread.set(Thread.currentThread()));
+		second.invokeAndWait(() -> secondThread.set(Thread.currentThread()));
+		assertThat(firstThread.get()).isNotSameAs(secondThread.get());
+		assertThat(first.isDispatchThread()).isFalse();
+		final AtomicReference<Boolean> isDispatchThreadOfOther = new AtomicReference<>();
+		first.invokeAndWait(() -> isDispatchThreadOfOther.set(second.isDispatchThread()));
+		assertThat(isDispatchThreadOfOther.get()).isFalse();
+	}
+
+	@Test
+	public void bindControllerToDispatchThread() throws Exception {
+		final AtomicReference<Controller> currentController = new AtomicReference<>();
+		second.invokeAndWait(() -> currentController.set(Controller.getCurrentController()));
+		assertThat(currentController.get()).isSameAs(secondController);
+	}
+}
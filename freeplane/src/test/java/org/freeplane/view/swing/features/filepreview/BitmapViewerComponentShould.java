@@ -0,0 +1,41 @@
+package org.freeplane.view.swing.features.filepreview;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.imageio.ImageIO;
+
+import org.freeplane.core.ui.menubuilders.HeadlessFreeplaneRunner;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class BitmapViewerComponentShould {
+	static {
+		new HeadlessFreeplaneRunner();
+	}
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void readImageSizeImmediatelyWithoutScreen() throws Exception {
+		final File file = temporaryFolder.newFile("image.png");
+		ImageIO.write(new BufferedImage(30, 20, BufferedImage.TYPE_INT_RGB), "png", file);
+		final AtomicReference<Dimension> initializedSize = new AtomicReference<>();
+		final BitmapViewerComponent viewer = new BitmapViewerComponent(file.toURI(),
+		    component -> initializedSize.set(component.getOriginalSize()));
+		assertThat(viewer.getOriginalSize()).isEqualTo(new Dimension(30, 20));
+		assertThat(initializedSize.get()).isEqualTo(new Dimension(30, 20));
+	}
+
+	@Test(expected = IOException.class)
+	public void reportMissingImageWithoutScreen() throws Exception {
+		new BitmapViewerComponent(new File(temporaryFolder.getRoot(), "missing.png").toURI(), component -> {});
+	}
+}
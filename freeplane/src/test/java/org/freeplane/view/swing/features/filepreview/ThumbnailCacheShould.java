@@ -0,0 +1,61 @@
+package org.freeplane.view.swing.features.filepreview;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ThumbnailCacheShould {
+	private static final long IMAGE_SIZE = 4 * 10 * 10;
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private static BufferedImage image() {
+		return new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+	}
+
+	@Test
+	public void returnImageFromMemory() throws Exception {
+		final ThumbnailCache cache = new ThumbnailCache(temporaryFolder.getRoot(), () -> 0, IMAGE_SIZE);
+		final BufferedImage image = image();
+		cache.put("key", image, false);
+		assertThat(cache.get("key", false)).isSameAs(image);
+	}
+
+	@Test
+	public void evictLeastRecentlyUsedImageFromMemory() throws Exception {
+		final ThumbnailCache cache = new ThumbnailCache(temporaryFolder.getRoot(), () -> 0, 2 * IMAGE_SIZE);
+		cache.put("first", image(), false);
+		cache.put("second", image(), false);
+		cache.get("first", false);
+		cache.put("third", image(), false);
+		assertThat(cache.get("first", false)).isNotNull();
+		assertThat(cache.get("second", false)).isNull();
+		assertThat(cache.get("third", false)).isNotNull();
+	}
+
+	@Test
+	public void returnImageFromDiskAfterMemoryEviction() throws Exception {
+		final ThumbnailCache cache = new ThumbnailCache(temporaryFolder.getRoot(), () -> Long.MAX_VALUE, 0);
+		cache.put("key", image(), true);
+		final BufferedImage cachedImage = cache.get("key", true);
+		assertThat(cachedImage).isNotNull();
+		assertThat(cachedImage.getWidth()).isEqualTo(10);
+		assertThat(cache.get("key", false)).isNull();
+	}
+
+	@Test
+	public void limitTotalSizeOnDisk() throws Exception {
+		final File directory = temporaryFolder.getRoot();
+		new ThumbnailCache(directory, () -> Long.MAX_VALUE, 0).put("first", image(), true);
+		final long fileSize = directory.listFiles()[0].length();
+		final ThumbnailCache cache = new ThumbnailCache(directory, () -> fileSize, 0);
+		cache.put("second", image(), true);
+		assertThat(directory.listFiles()).hasSize(1);
+	}
+}
@@ -0,0 +1,100 @@
+package org.freeplane.view.swing.map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.Graphics;
+import java.awt.Point;
+import java.awt.Rectangle;
+
+import org.freeplane.features.link.ConnectorModel;
+import org.freeplane.view.swing.map.link.ILinkView;
+import org.junit.Test;
+
+public class ConnectorViewIndexShould {
+	private static class LinkViewFake implements ILinkView {
+		private final Rectangle bounds;
+		private final boolean selected;
+
+		LinkViewFake(Rectangle bounds, boolean selected) {
+			this.bounds = bounds;
+			this.selected = selected;
+		}
+
+		@Override
+		public boolean detectCollision(Point p, boolean selectedOnly) {
+			return (selected || ! selectedOnly) && bounds.contains(p);
+		}
+
+		@Override
+		public ConnectorModel getModel() {
+			return null;
+		}
+
+		@Override
+		public void paint(Graphics graphics) {
+		}
+
+		@Override
+		public void increaseBounds(Rectangle innerBounds) {
+			innerBounds.add(bounds);
+		}
+	}
+
+	private final ConnectorViewIndex index = new ConnectorViewIndex();
+	private final Rectangle noFallbackBounds = new Rectangle(0, 0, -1, -1);
+
+	private LinkViewFake add(int x, int y, int width, int height, boolean selected) {
+		final LinkViewFake view = new LinkViewFake(new Rectangle(x, y, width, height), selected);
+		index.add(view, noFallbackBounds);
+		return view;
+	}
+
+	@Test
+	public void findViewsIntersectingAreaInPaintingOrder() throws Exception {
+		final LinkViewFake second = add(1000, 1000, 50, 50, false);
+		add(5000, 5000, 50, 50, false);
+		final LinkViewFake wide = add(-2000, 1020, 4000, 20, false);
+		assertThat(index.getViewsIntersecting(new Rectangle(990, 950, 100, 100))).containsExactly(second, wide);
+		assertThat(index.getViewsIntersecting(new Rectangle(-3000, -3000, 10, 10))).isEmpty();
+		assertThat(index.getViewsIntersecting(null)).hasSize(3);
+	}
+
+	@Test
+	public void findViewsAddedAfterSearch() throws Exception {
+		add(0, 0, 10, 10, false);
+		assertThat(index.getViewsIntersecting(new Rectangle(700, 700, 10, 10))).isEmpty();
+		final LinkViewFake added = add(700, 700, 10, 10, false);
+		assertThat(index.getViewsIntersecting(new Rectangle(700, 700, 10, 10))).containsExactly(added);
+	}
+
+	@Test
+	public void preferSelectedViewsWhenDetectingView() throws Exception {
+		final LinkViewFake unselected = add(0, 0, 100, 100, false);
+		final LinkViewFake selected = add(50, 50, 100, 100, true);
+		assertThat(index.detectView(new Point(60, 60))).isSameAs(selected);
+		assertThat(index.detectView(new Point(10, 10))).isSameAs(unselected);
+		assertThat(index.detectView(new Point(300, 300))).isNull();
+	}
+
+	@Test
+	public void useFallbackBoundsOfViewsWithoutBounds() throws Exception {
+		final ILinkView view = new LinkViewFake(new Rectangle(0, 0, -1, -1), false) {
+			@Override
+			public boolean detectCollision(Point p, boolean selectedOnly) {
+				return true;
+			}
+		};
+		index.add(view, new Rectangle(400, 400, 10, 10));
+		assertThat(index.detectView(new Point(405, 405))).isSameAs(view);
+		assertThat(index.detectView(new Point(100, 100))).isNull();
+	}
+
+	@Test
+	public void coverOnlyCollectedArea() throws Exception {
+		assertThat(index.covers(null)).isTrue();
+		index.setCoveredArea(new Rectangle(0, 0, 100, 100));
+		assertThat(index.covers(new Rectangle(10, 10, 50, 50))).isTrue();
+		assertThat(index.covers(new Rectangle(60, 60, 50, 50))).isFalse();
+		assertThat(index.covers(null)).isFalse();
+	}
+}
@@ -0,0 +1,89 @@
+package org.freeplane.view.swing.map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.image.Raster;
+
+import org.freeplane.core.ui.menubuilders.HeadlessFreeplaneRunner;
+import org.junit.Test;
+
+public class MapStripImageShould {
+	static {
+		new HeadlessFreeplaneRunner();
+	}
+
+	private static final Rectangle PRINTED_AREA = new Rectangle(10, 20, 10, 10);
+	private final MapView view = mock(MapView.class);
+	private final MapStripImage image = new MapStripImage(view, PRINTED_AREA, 1, 30);
+
+	public MapStripImageShould() {
+		doAnswer(invocation -> {
+			final Graphics g = invocation.getArgument(0);
+			for (int y = PRINTED_AREA.y; y < PRINTED_AREA.y + PRINTED_AREA.height; y++) {
+				g.setColor(new Color(y));
+				g.fillRect(PRINTED_AREA.x, y, PRINTED_AREA.width, 1);
+			}
+			return null;
+		}).when(view).print(any(Graphics.class));
+	}
+
+	private static int printedRow(Raster raster, int x, int y) {
+		return raster.getSample(x, y, 2) + (raster.getSample(x, y, 1) << 8) + (raster.getSample(x, y, 0) << 16)
+		        - PRINTED_AREA.y;
+	}
+
+	@Test
+	public void splitImageIntoStrips() throws Exception {
+		assertThat(image.getWidth()).isEqualTo(10);
+		assertThat(image.getHeight()).isEqualTo(10);
+		assertThat(image.getTileHeight()).isEqualTo(3);
+		assertThat(image.getNumYTiles()).isEqualTo(4);
+		final Raster lastStrip = image.getTile(0, 3);
+		assertThat(lastStrip.getBounds()).isEqualTo(new Rectangle(0, 9, 10, 3));
+		assertThat(printedRow(lastStrip, 0, 9)).isEqualTo(9);
+	}
+
+	@Test
+	public void renderEachStripOnceWhenReadRowByRow() throws Exception {
+		for (int strip = 0; strip < image.getNumYTiles(); strip++) {
+			for (int y = 0; y < image.getTileHeight(); y++) {
+				final Raster tile = image.getTile(0, strip);
+				final int row = strip * image.getTileHeight() + y;
+				if (row < image.getHeight())
+					assertThat(printedRow(tile, 5, row)).isEqualTo(row);
+			}
+		}
+		verify(view, times(4)).print(any(Graphics.class));
+	}
+
+	@Test
+	public void collectDataAcrossStrips() throws Exception {
+		final Rectangle area = new Rectangle(2, 2, 5, 6);
+		final Raster data = image.getData(area);
+		assertThat(data.getBounds()).isEqualTo(area);
+		for (int y = area.y; y < area.y + area.height; y++)
+			assertThat(printedRow(data, 4, y)).isEqualTo(y);
+		verify(view, times(3)).print(any(Graphics.class));
+	}
+
+	@Test
+	public void keepViewPreparedForPrintingUntilClosed() throws Exception {
+		image.getData();
+		verify(view, never()).endPrinting();
+		image.close();
+		image.close();
+		verify(view).endPrinting();
+		verify(view, never()).preparePrinting();
+		assertThatThrownBy(() -> image.getTile(0, 0)).isInstanceOf(IllegalStateException.class);
+	}
+}
@@ -0,0 +1,182 @@
+package org.freeplane.view.swing.map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.Rectangle;
+
+import javax.swing.JViewport;
+
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.core.ui.menubuilders.HeadlessFreeplaneRunner;
+import org.freeplane.features.map.MapController;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.mode.Controller;
+import org.freeplane.features.mode.ModeController;
+import org.junit.After;
+import org.junit.Test;
+
+public class OffscreenBranchViewsShould {
+	static {
+		new HeadlessFreeplaneRunner();
+	}
+
+	private final ResourceController resourceController = ResourceController.getResourceController();
+	private final boolean virtualizesOffscreenBranches = resourceController
+	    .getBooleanProperty(OffscreenBranchViews.VIRTUALIZE_OFFSCREEN_BRANCHES_PROPERTY);
+	private final ModeController modeController = Controller.getCurrentModeController();
+	private final MapModel map;
+	private MapView mapView;
+	private JViewport viewport;
+	private final NodeModel branch;
+	private final NodeModel branchChild;
+	private final NodeModel branchGrandchild;
+
+	public OffscreenBranchViewsShould() {
+		final MapController mapController = modeController.getMapController();
+		map = new MapModel(mapController.duplicator());
+		map.createNewRoot();
+		mapController.fireMapCreated(map);
+		final NodeModel root = map.getRootNode();
+		for (int i = 0; i < 3; i++) {
+			final NodeModel child = new NodeModel("child " + i, map);
+			root.insert(child);
+			for (int j = 0; j < 3; j++) {
+				final NodeModel grandchild = new NodeModel("grandchild " + i + j, map);
+				child.insert(grandchild);
+				grandchild.insert(new NodeModel("great grandchild " + i + j, map));
+			}
+		}
+		branch = root.getChildAt(0);
+		branchChild = branch.getChildAt(1);
+		branchGrandchild = branchChild.getChildAt(0);
+		createMapView(300, 200);
+	}
+
+	private void createMapView(int width, int height) {
+		mapView = new MapView(map, modeController);
+		final MapViewScrollPane scrollPane = new MapViewScrollPane();
+		scrollPane.setViewportView(mapView);
+		scrollPane.setSize(width, height);
+		viewport = scrollPane.getViewport();
+		viewport.addNotify();
+		viewport.setSize(width, height);
+		viewport.validate();
+	}
+
+	private void createMapViewVirtualizingOffscreenBranches(int width, int height) {
+		resourceController.setProperty(OffscreenBranchViews.VIRTUALIZE_OFFSCREEN_BRANCHES_PROPERTY, true);
+		createMapView(width, height);
+	}
+
+	@After
+	public void restoreVirtualizationProperty() {
+		resourceController.setProperty(OffscreenBranchViews.VIRTUALIZE_OFFSCREEN_BRANCHES_PROPERTY,
+		    virtualizesOffscreenBranches);
+	}
+
+	private NodeView releaseBranch() {
+		final NodeView branchView = mapView.getNodeView(branch);
+		mapView.getOffscreenBranchViews().release(branchView);
+		return branchView;
+	}
+
+	@Test
+	public void releaseChildViewsKeepingBranchBounds() throws Exception {
+		final NodeView branchView = mapView.getNodeView(branch);
+		final Rectangle branchBounds = branchView.getBounds();
+		final Rectangle siblingBounds = mapView.getNodeView(map.getRootNode().getChildAt(1)).getBounds();
+		releaseBranch();
+		mapView.validate();
+		assertThat(branchView.areChildViewsReleased()).isTrue();
+		assertThat(branchView.getChildrenViews()).isEmpty();
+		assertThat(branchView.getBounds()).isEqualTo(branchBounds);
+		assertThat(mapView.getNodeView(map.getRootNode().getChildAt(1)).getBounds()).isEqualTo(siblingBounds);
+	}
+
+	@Test
+	public void notRestoreReleasedBranchesOnLookup() throws Exception {
+		final NodeView branchView = releaseBranch();
+		assertThat(mapView.getNodeView(branchChild)).isNull();
+		assertThat(mapView.getMapSelection().isSelected(branchChild)).isFalse();
+		assertThat(branchView.areChildViewsReleased()).isTrue();
+	}
+
+	@Test
+	public void restoreReleasedBranchOnDisplayRequest() throws Exception {
+		final NodeView branchView = releaseBranch();
+		mapView.display(branchChild);
+		assertThat(branchView.areChildViewsReleased()).isFalse();
+		assertThat(branchView.getChildrenViews()).hasSize(3);
+		assertThat(mapView.getNodeView(branchChild)).isNotNull();
+		assertThat(mapView.getOffscreenBranchViews().hasReleasedViews()).isFalse();
+	}
+
+	@Test
+	public void restoreReleasedBranchOnScrollRequest() throws Exception {
+		final NodeView branchView = releaseBranch();
+		mapView.getMapSelection().scrollNodeToVisible(branchChild);
+		assertThat(branchView.areChildViewsReleased()).isFalse();
+		assertThat(mapView.getNodeView(branchChild)).isNotNull();
+	}
+
+	@Test
+	public void restoreReleasedBranchesBeforePrinting() throws Exception {
+		final NodeView branchView = releaseBranch();
+		mapView.preparePrinting();
+		try {
+			assertThat(branchView.areChildViewsReleased()).isFalse();
+			assertThat(mapView.getNodeView(branchChild)).isNotNull();
+		}
+		finally {
+			mapView.endPrinting();
+		}
+	}
+
+	@Test
+	public void createOnlyViewsOfRootAndItsChildrenOnOpeningFarFromVisibleArea() throws Exception {
+		createMapViewVirtualizingOffscreenBranches(1, 1);
+		final NodeView branchView = mapView.getNodeView(branch);
+		assertThat(branchView).isNotNull();
+		assertThat(branchView.areChildViewsReleased()).isTrue();
+		assertThat(branchView.getChildrenViews()).isEmpty();
+		assertThat(mapView.getNodeView(branchChild)).isNull();
+	}
+
+	@Test
+	public void createDeferredViewsNearVisibleAreaAfterLayout() throws Exception {
+		createMapViewVirtualizingOffscreenBranches(1, 1);
+		viewport.getParent().setSize(1000, 1000);
+		viewport.setSize(1000, 1000);
+		viewport.validate();
+		for (int level = 0; level < 3; level++) {
+			mapView.getOffscreenBranchViews().restoreBranchesNearVisibleArea();
+			viewport.validate();
+		}
+		assertThat(mapView.getNodeView(branchGrandchild)).isNotNull();
+		assertThat(mapView.getOffscreenBranchViews().hasReleasedViews()).isFalse();
+	}
+
+	@Test
+	public void createDeferredViewsOnDisplayRequest() throws Exception {
+		createMapViewVirtualizingOffscreenBranches(1, 1);
+		mapView.display(branchGrandchild);
+		assertThat(mapView.getNodeView(branchGrandchild)).isNotNull();
+		assertThat(mapView.getNodeView(branch.getChildAt(0)).areChildViewsReleased()).isTrue();
+	}
+
+	@Test
+	public void keepFarBranchesReleasedOnUpdate() throws Exception {
+		createMapView(1, 1);
+		final NodeView branchView = releaseBranch();
+		branchView.update();
+		assertThat(branchView.areChildViewsReleased()).isTrue();
+	}
+
+	@Test
+	public void restoreNearBranchesOnUpdate() throws Exception {
+		final NodeView branchView = releaseBranch();
+		branchView.update();
+		assertThat(branchView.areChildViewsReleased()).isFalse();
+	}
+}
@@ -0,0 +1,29 @@
+<map version="freeplane 1.9.13">
+<!--To view this file, download free mind mapping software Freeplane from https://www.freeplane.org -->
+<node CREATED="1600000000000" MODIFIED="1600000000000" TEXT="root" FOLDED="false" ID="ID_ROOT">
+<hook NAME="AutomaticEdgeColor" COUNTER="2" RULE="ON_BRANCH_CREATION"/>
+<node CREATED="1600000000000" MODIFIED="1600000000000" TEXT="first" POSITION="right" ID="ID_FIRST">
+<arrowlink DESTINATION="ID_THIRD_CHILD" STARTARROW="NONE" ENDARROW="DEFAULT"/>
+<attribute NAME="weight" VALUE="1"/>
+<node CREATED="1600000000000" MODIFIED="1600000000000" TEXT="first child" ID="ID_FIRST_CHILD" LINK="#ID_SECOND"/>
+<node CREATED="1600000000000" MODIFIED="1600000000000" TEXT="first &amp; second child" ID="ID_FIRST_SECOND_CHILD">
+<richcontent TYPE="NOTE" CONTENT-TYPE="xml/"><html><head></head><body><p>note with <b>bold</b> text</p></body></html></richcontent>
+</node>
+</node>
+<node CREATED="1600000000000" MODIFIED="1600000000000" TEXT="second" POSITION="left" ID="ID_SECOND">
+<attribute NAME="weight" VALUE="2"/>
+<attribute NAME="color" VALUE="red"/>
+<node CREATED="1600000000000" MODIFIED="1600000000000" ID="ID_SECOND_CHILD"><richcontent TYPE="NODE"><html><head></head><body><p>rich <i>node</i> text</p></body></html></richcontent>
+<arrowlink DESTINATION="ID_FIRST_CHILD" STARTARROW="NONE" ENDARROW="DEFAULT"/>
+</node>
+</node>
+<node CREATED="1600000000000" MODIFIED="1600000000000" TEXT="third" POSITION="right" ID="ID_THIRD" FOLDED="true">
+<icon BUILTIN="yes"/>
+<node CREATED="1600000000000" MODIFIED="1600000000000" TEXT="third child" ID="ID_THIRD_CHILD">
+<node CREATED="1600000000000" MODIFIED="1600000000000" ID="ID_CLONE" TREE_ID="ID_FIRST_CHILD"/>
+<arrowlink DESTINATION="ID_ROOT" STARTARROW="NONE" ENDARROW="DEFAULT"/>
+<arrowlink DESTINATION="ID_SECOND_CHILD" STARTARROW="NONE" ENDARROW="DEFAULT"/>
+</node>
+</node>
+</node>
+</map>
@@ -2,6 +2,7 @@ package org.freeplane.api;
 
 import java.awt.Color;
 import java.io.File;
+import java.util.stream.Stream;
 
 /** The map a node belongs to: <code>node.map</code> - read-only. 
  * 
@@ -15,6 +16,10 @@ public interface MindMapRO {
 	@Deprecated
 	Node getRootNode();
 
+	/** Returns a parallel stream of all nodes of the map, see {@link NodeRO#parallelStream()}.
+	 * @since 1.9.15 */
+	Stream<? extends Node> parallelStream();
+
 	/** get node by id.
 	 * @return the node if the map contains it or null otherwise. */
 	Node node(String id);
@@ -0,0 +1,84 @@
+package org.freeplane.plugin.script;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the lookup throughput of the compiled script cache with the default size of 200 entries.
+ *
+ * Keys are drawn uniformly from the given number of scripts, so all lookups hit for 200 scripts
+ * and about a fifth of them hits for 1000 scripts.
+ *
+ * Run with {@code gradle :freeplane_plugin_script:jmh --args='ConcurrentCacheBenchmark'}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentCacheBenchmark {
+	private static final int CACHE_SIZE = 200;
+
+	@Param({ "200", "1000" })
+	public int scriptCount;
+
+	private ConcurrentCache<String, Object> cache;
+	private String[] scripts;
+
+	@Setup
+	public void setup() {
+		cache = new ConcurrentCache<>(() -> CACHE_SIZE);
+		scripts = new String[scriptCount];
+		for (int i = 0; i < scriptCount; i++)
+			scripts[i] = "=" + i + " + 1";
+	}
+
+	private Object lookup() {
+		final String script = scripts[ThreadLocalRandom.current().nextInt(scriptCount)];
+		return cache.computeIfAbsent(script, () -> new Object());
+	}
+
+	@Benchmark
+	@Threads(1)
+	public Object lookupOn1Thread() {
+		return lookup();
+	}
+
+	@Benchmark
+	@Threads(2)
+	public Object lookupOn2Threads() {
+		return lookup();
+	}
+
+	@Benchmark
+	@Threads(4)
+	public Object lookupOn4Threads() {
+		return lookup();
+	}
+
+	@Benchmark
+	@Threads(8)
+	public Object lookupOn8Threads() {
+		return lookup();
+	}
+
+	@Benchmark
+	@Threads(16)
+	public Object lookupOn16Threads() {
+		return lookup();
+	}
+}
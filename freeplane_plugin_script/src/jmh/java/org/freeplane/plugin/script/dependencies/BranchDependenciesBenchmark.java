@@ -0,0 +1,75 @@
+package org.freeplane.plugin.script.dependencies;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the search for formulas depending on a changed node in a map
+ * where every branch node has a formula like {@code =children.sum(0)} aggregating its children.
+ *
+ * The map has the given number of top level branches with ten children each, each child has ten leaves.
+ * The changed node is a leaf, so its parent, its top level branch and the root are searched.
+ *
+ * Run with {@code gradle :freeplane_plugin_script:jmh --args='BranchDependenciesBenchmark'}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BranchDependenciesBenchmark {
+	private static final int CHILD_COUNT = 10;
+
+	@Param({ "10", "100", "1000" })
+	public int branchCount;
+
+	private EvaluationDependencies dependencies;
+	private NodeModel changedNode;
+
+	@Setup
+	public void setup() {
+		final MapModel map = new MapModel(null, null, null);
+		final NodeModel root = new NodeModel("root", map);
+		dependencies = new EvaluationDependencies();
+		for (int i = 0; i < branchCount; i++) {
+			final NodeModel branch = addAggregatingChild(root);
+			for (int j = 0; j < CHILD_COUNT; j++) {
+				final NodeModel child = addAggregatingChild(branch);
+				for (int k = 0; k < CHILD_COUNT; k++) {
+					changedNode = new NodeModel("leaf", map);
+					child.insert(changedNode);
+				}
+			}
+		}
+	}
+
+	private NodeModel addAggregatingChild(final NodeModel parent) {
+		final NodeModel child = new NodeModel("=children.sum(0)", parent.getMap());
+		parent.insert(child);
+		dependencies.accessBranch(child, child);
+		return child;
+	}
+
+	@Benchmark
+	public Set<NodeModel> findDependentsOfChangedLeaf() {
+		final Set<NodeModel> dependentNodes = new HashSet<NodeModel>();
+		dependencies.getChangedDependencies(dependentNodes, changedNode);
+		return dependentNodes;
+	}
+}
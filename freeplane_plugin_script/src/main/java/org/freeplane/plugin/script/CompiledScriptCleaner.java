@@ -8,13 +8,20 @@ import java.nio.file.FileVisitOption;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 import org.apache.commons.io.FileUtils;
 import org.freeplane.core.util.LogUtils;
 
 class CompiledScriptCleaner {
+    static final int MAXIMUM_STRING_SCRIPT_COUNT = 2000;
+    static final long MAXIMUM_UNUSED_STRING_SCRIPT_AGE = TimeUnit.DAYS.toMillis(30);
+
     private long calculateLastDependencyModificationTime() {
         long lastModificationTime = ScriptResources.getClasspath().stream()
             .map(File::new)
@@ -60,6 +67,63 @@ class CompiledScriptCleaner {
                 LogUtils.warn(e);
             }
         }
+        removeOutdatedCompiledStringScripts(compileOnlyChangedScriptFiles);
+    }
+
+    private void removeOutdatedCompiledStringScripts(boolean compileOnlyChangedScriptFiles) {
+        File compiledStringScriptsDir = ScriptResources.getCompiledStringScriptsDir();
+        if(compileOnlyChangedScriptFiles) {
+            removeOutdatedCompiledStringScripts(compiledStringScriptsDir, calculateLastDependencyModificationTime(),
+                System.currentTimeMillis());
+        } else {
+            try {
+                FileUtils.deleteDirectory(compiledStringScriptsDir);
+            } catch (IOException e) {
+                LogUtils.warn(e);
+            }
+        }
+    }
+
+    /**
+     * Removes compiled script texts compiled before their dependencies changed or not used for a while,
+     * and the oldest ones beyond the maximum count.
+     * Directories named contentHash-threadId are left over from interrupted compilations.
+     */
+    void removeOutdatedCompiledStringScripts(File compiledStringScriptsDir, long lastDependencyModificationTime,
+                                              long currentTime) {
+        File[] cacheDirectories = compiledStringScriptsDir.listFiles();
+        if(cacheDirectories == null)
+            return;
+        final long oldestUseTime = currentTime - MAXIMUM_UNUSED_STRING_SCRIPT_AGE;
+        final List<File> keptCaches = new ArrayList<>(cacheDirectories.length);
+        for (File cache : cacheDirectories) {
+            if(cache.getName().contains(GroovyShell.COMPILATION_DIRECTORY_SEPARATOR)
+                    || compileTime(cache) <= lastDependencyModificationTime
+                    || cache.lastModified() < oldestUseTime)
+                FileUtils.deleteQuietly(cache);
+            else
+                keptCaches.add(cache);
+        }
+        if(keptCaches.size() > MAXIMUM_STRING_SCRIPT_COUNT) {
+            keptCaches.sort(Comparator.comparingLong(File::lastModified));
+            keptCaches.subList(0, keptCaches.size() - MAXIMUM_STRING_SCRIPT_COUNT)
+                .forEach(FileUtils::deleteQuietly);
+        }
+    }
+
+    /** returns 0 for directories without properties */
+    private long compileTime(File cache) {
+        File propertyFile = new File(cache, "compiled.properties");
+        if (propertyFile.exists()) {
+            Properties properties = new Properties();
+            try (InputStream in = new FileInputStream(propertyFile)) {
+                properties.load(in);
+                return Long.parseLong(properties.getProperty("time"));
+            } catch (IOException|NumberFormatException e) {
+                LogUtils.warn(e);
+            }
+        }
+        return 0;
     }
 
     private void removeOutdated(File cache, long lastDependencyModificationTime) {
@@ -1,49 +1,98 @@
 package org.freeplane.plugin.script;
 
-import java.util.LinkedHashMap;
-import java.util.Map.Entry;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.IntSupplier;
 import java.util.function.Supplier;
 
+/**
+ * Bounded cache for concurrent lookups with CLOCK eviction.
+ *
+ * Lookups of cached keys take no lock, they only mark the entry as referenced.
+ * Inserting a new key takes the clock lock, which evicts the first entry not referenced
+ * since the clock hand passed it the last time once the cache is full.
+ * The value of a new key is computed once even if several threads miss it at the same time,
+ * the other threads wait for it.
+ */
 public class ConcurrentCache <K, V> {
 
-	private static final float DEFAULT_LOAD_FACTOR = 0.75f;
+	private static class Entry<V> {
+		private volatile V value;
+		private volatile boolean referenced;
 
-    private final ReentrantReadWriteLock rwl = new ReentrantReadWriteLock();
-    private final ReentrantReadWriteLock.ReadLock readLock = rwl.readLock();
-    private final ReentrantReadWriteLock.WriteLock writeLock = rwl.writeLock();
+		V getOrCompute(Supplier<? extends V> supplier) {
+			V value = this.value;
+			if (value != null)
+				return value;
+			synchronized (this) {
+				value = this.value;
+				if (value == null) {
+					value = supplier.get();
+					this.value = value;
+				}
+				return value;
+			}
+		}
+	}
+
+	private final IntSupplier maxSize;
+	private final ConcurrentHashMap<K, Entry<V>> cache = new ConcurrentHashMap<>();
+	private final ArrayList<K> clock = new ArrayList<>();
+	private int hand;
 
-	private final LinkedHashMap<K, V> cache ;
-	@SuppressWarnings("serial")
 	public ConcurrentCache(IntSupplier maxSize) {
 		super();
-		cache = new  LinkedHashMap<K, V>(maxSize.getAsInt() + 1, DEFAULT_LOAD_FACTOR, true){
-			@Override
-			protected boolean removeEldestEntry(Entry<K, V> eldest) {
-				return size() > maxSize.getAsInt();
-			}
-		};
+		this.maxSize = maxSize;
 	}
 
 	public V computeIfAbsent(K key, Supplier<? extends V> supplier) {
-        readLock.lock();
-        try {
-            V value = cache.get(key);
-            if (null != value) {
-                return value;
-            }
-        } finally {
-            readLock.unlock();
-        }
-        V value = supplier.get();
-        writeLock.lock();
-        try {
-            V oldValue = cache.putIfAbsent(key, value);
-            return null != oldValue ? oldValue : value;
-        } finally {
-        	writeLock.unlock();
-        }
+		Entry<V> entry = cache.get(key);
+		if (entry == null) {
+			final Entry<V> newEntry = new Entry<>();
+			entry = cache.putIfAbsent(key, newEntry);
+			if (entry == null) {
+				entry = newEntry;
+				insert(key, newEntry);
+			}
+		}
+		if (! entry.referenced)
+			entry.referenced = true;
+		return entry.getOrCompute(supplier);
+	}
+
+	private void insert(K key, Entry<V> entry) {
+		synchronized (clock) {
+			final int maxSize = this.maxSize.getAsInt();
+			while (! clock.isEmpty() && clock.size() >= maxSize)
+				evictOne();
+			if (maxSize > 0)
+				clock.add(key);
+			else
+				cache.remove(key, entry);
+		}
+	}
+
+	private void evictOne() {
+		for (;;) {
+			if (hand >= clock.size())
+				hand = 0;
+			final K key = clock.get(hand);
+			final Entry<V> entry = cache.get(key);
+			if (entry != null && entry.referenced) {
+				entry.referenced = false;
+				hand++;
+			}
+			else {
+				cache.remove(key);
+				final int last = clock.size() - 1;
+				clock.set(hand, clock.get(last));
+				clock.remove(last);
+				return;
+			}
+		}
 	}
 
+	int size() {
+		return cache.size();
+	}
 }
@@ -25,7 +25,7 @@ public class FormulaCache implements IExtension{
 			}
 		}
 
-	Object getOrThrowCachedResult(final NodeScript nodeScript) {
+	synchronized Object getOrThrowCachedResult(final NodeScript nodeScript) {
 		final LinkedHashMap<String, CachedResult> cacheEntry = cache.get(nodeScript.node.getID());
 		if (cacheEntry == null)
 			return null;
@@ -42,7 +42,7 @@ public class FormulaCache implements IExtension{
 		return object;
 	}
 
-	void put(final NodeScript nodeScript, final CachedResult result) {
+	synchronized void put(final NodeScript nodeScript, final CachedResult result) {
 		getOrAdd(nodeScript.node).put(nodeScript.script, result);
 	}
 
@@ -55,7 +55,7 @@ public class FormulaCache implements IExtension{
 		return cacheEntry;
 	}
 
-	void remove(final NodeModel node) {
+	synchronized void remove(final NodeModel node) {
 		final LinkedHashMap<String, CachedResult> entry = cache.get(node.getID());
 		if (entry != null) {
 //			System.out.println("clearing cache for " + node);
@@ -75,7 +75,7 @@ public class FormulaCache implements IExtension{
 		map.removeExtension(FormulaCache.class);
 	}
 
-	RelatedElements getAccessedValues(final NodeModel node, final String script) {
+	synchronized RelatedElements getAccessedValues(final NodeModel node, final String script) {
 		if(ENABLE_CACHING) {
 			final LinkedHashMap<String, CachedResult> cacheEntry = cache.get(node.getID());
 			if (cacheEntry == null) return null;
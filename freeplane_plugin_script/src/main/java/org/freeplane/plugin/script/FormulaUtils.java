@@ -174,12 +174,21 @@ public class FormulaUtils {
 	}
 
 	public static void evaluateAllFormulas(MapModel map) {
+		if (ParallelFormulaEvaluator.isEnabled()) {
+			final ParallelFormulaEvaluator evaluator = new ParallelFormulaEvaluator(map);
+			clearCache(map);
+			evaluator.evaluate();
+			return;
+		}
 		clearCache(map);
 		evaluateOutdatedFormulas(map);
 	}
 
 	public static void evaluateOutdatedFormulas(MapModel map) {
-		cacheAllRecursively(map.getRootNode());
+		if (ParallelFormulaEvaluator.isEnabled())
+			new ParallelFormulaEvaluator(map).evaluate();
+		else
+			cacheAllRecursively(map.getRootNode());
 	}
 
 	static private void cacheAllRecursively(NodeModel node) {
@@ -100,19 +100,29 @@ public class GroovyScript implements IScript {
             final PrintStream oldOut = System.out;
             ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
             try {
-                trustedCompileAndCache(outStream);
-                Thread.currentThread().setContextClassLoader(scriptClassLoader);
-                FreeplaneScriptBaseClass scriptWithBinding = AccessController.doPrivileged(new PrivilegedAction<FreeplaneScriptBaseClass>() {
-					@Override
-					public FreeplaneScriptBaseClass run() {
-						return compiledScript.withBinding(node, scriptContext);
-					}
-				}); 
-                System.setOut(outStream);
-				final Object result = scriptWithBinding.run();
-				return result;
+                final FreeplaneScriptBaseClass scriptWithBinding;
+                // formulas may be evaluated on several threads, only the first binding uses the compiled instance
+                synchronized (this) {
+                    trustedCompileAndCache(outStream);
+                    Thread.currentThread().setContextClassLoader(scriptClassLoader);
+                    scriptWithBinding = AccessController.doPrivileged(new PrivilegedAction<FreeplaneScriptBaseClass>() {
+                        @Override
+                        public FreeplaneScriptBaseClass run() {
+                            return compiledScript.withBinding(node, scriptContext);
+                        }
+                    });
+                }
+                // System.out is shared by all threads, so formulas evaluated in parallel leave it unchanged
+                final boolean redirectsOut = ! ParallelFormulaEvaluator.isWorkerThread();
+                if (redirectsOut)
+                    System.setOut(outStream);
+                try {
+                    return scriptWithBinding.run();
+                } finally {
+                    if (redirectsOut)
+                        System.setOut(oldOut);
+                }
             } finally {
-                System.setOut(oldOut);
                 Thread.currentThread().setContextClassLoader(contextClassLoader);
             }
         } catch (final GroovyRuntimeException e) {
@@ -172,7 +182,7 @@ public class GroovyScript implements IScript {
                         createCompilerConfiguration());
                 compileTimeStrategy.scriptCompileStart();
                 if (script instanceof String) {
-                    compiledScript = (FreeplaneScriptBaseClass) shell.parse((String) script);
+                    compiledScript = (FreeplaneScriptBaseClass) shell.parse((String) script, specificPermissions);
                 } else if (script instanceof File) {
                     compiledScript = (FreeplaneScriptBaseClass) shell.parse((File) script);
                 } else {
@@ -22,6 +22,8 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.security.AccessController;
 import java.security.CodeSource;
 import java.security.NoSuchAlgorithmException;
@@ -38,6 +40,8 @@ import org.codehaus.groovy.control.SourceUnit;
 import org.codehaus.groovy.runtime.DefaultGroovyMethods;
 import org.codehaus.groovy.runtime.EncodingGroovyMethods;
 import org.codehaus.groovy.runtime.InvokerHelper;
+import org.freeplane.core.util.Compat;
+import org.freeplane.core.util.FreeplaneVersion;
 import org.freeplane.core.util.LogUtils;
 
 import groovy.lang.Binding;
@@ -45,6 +49,7 @@ import groovy.lang.GroovyClassLoader;
 import groovy.lang.GroovyCodeSource;
 import groovy.lang.GroovyObjectSupport;
 import groovy.lang.GroovyRuntimeException;
+import groovy.lang.GroovySystem;
 import groovy.lang.Script;
 
 /**
@@ -61,6 +66,8 @@ class GroovyShell extends GroovyObjectSupport {
     }
 
     private static final String DEFAULT_CODE_BASE = "/groovy/shell";
+    /** separates the content hash from the thread id in the names of directories used while compiling */
+    static final String COMPILATION_DIRECTORY_SEPARATOR = "-";
     private final Binding binding;
     private int counter;
     private final CompilerConfiguration config;
@@ -222,14 +229,101 @@ class GroovyShell extends GroovyObjectSupport {
         return parse(scriptText, generateScriptName());
     }
 
+    /**
+     * Parses the given script text and returns it ready to be run.
+     * The script class is named after a hash of the text and of everything its compilation depends on,
+     * so that the class files kept from an earlier compilation of the same text can be loaded instead.
+     */
+    Script parse(final String scriptText, final ScriptingPermissions permissions) throws CompilationFailedException {
+        if(! ClasspathScriptCompiler.compilesOnlyChangedScriptFiles())
+            return parse(scriptText);
+        final String contentHash = contentHash(scriptText, permissions);
+        return InvokerHelper.createScript(loadOrCompile(scriptText, contentHash), binding);
+    }
+
     private Script parse(final String scriptText, final String fileName) throws CompilationFailedException {
-        final GroovyCodeSource gcs = AccessController.doPrivileged(new PrivilegedAction<GroovyCodeSource>() {
+        return parse(codeSource(scriptText, fileName));
+    }
+
+    private GroovyCodeSource codeSource(final String scriptText, final String fileName) {
+        return AccessController.doPrivileged(new PrivilegedAction<GroovyCodeSource>() {
             @Override
             public GroovyCodeSource run() {
                 return new GroovyCodeSource(scriptText, fileName, DEFAULT_CODE_BASE);
             }
         });
-        return parse(gcs);
+    }
+
+    static String contentHash(final String scriptText, final ScriptingPermissions permissions) {
+        final StringBuilder key = new StringBuilder(scriptText)
+            .append('\n').append(GroovySystem.getVersion())
+            .append('\n').append(Compat.JAVA_VERSION)
+            .append('\n').append(FreeplaneVersion.getVersion())
+            .append('\n').append(ScriptResources.getClasspath());
+        for (String permissionName : ScriptingPermissions.getPermissionNames()) {
+            key.append('\n').append(permissions == null ? "default" : Boolean.toString(permissions.get(permissionName)));
+        }
+        try {
+            return EncodingGroovyMethods.sha256(key);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private Class loadOrCompile(final String scriptText, final String contentHash) {
+        final String className = "Script_" + contentHash;
+        final File compiledStringScriptsDir = ScriptResources.getCompiledStringScriptsDir();
+        File cache = new File(compiledStringScriptsDir, contentHash);
+        File propertyFile = new File(cache, "compiled.properties");
+        File classes = new File(cache, "classes");
+        if (propertyFile.exists() && classes.exists()) {
+            try (InputStream in = new FileInputStream(propertyFile)) {
+                Properties properties = new Properties();
+                properties.load(in);
+                if (scriptText.equals(properties.getProperty("script"))) {
+                    // the modification time of the directory tells the cleaner when the script was last used
+                    cache.setLastModified(System.currentTimeMillis());
+                    GroovyClassLoader loader = createClassLoader();
+                    loader.addURL(ScriptClassLoader.pathToUrl(classes));
+                    return loader.loadClass(className);
+                }
+            } catch (IOException | ClassNotFoundException e) {
+            }
+        }
+        if (cache.exists())
+            FileUtils.deleteQuietly(cache);
+        // compile into a directory of its own, so that a concurrent compilation of the same text can not mix class files
+        final File newCache = new File(compiledStringScriptsDir,
+            contentHash + COMPILATION_DIRECTORY_SEPARATOR + Thread.currentThread().getId());
+        FileUtils.deleteQuietly(newCache);
+        final File newClasses = new File(newCache, "classes");
+        newClasses.mkdirs();
+        config.setTargetDirectory(newClasses);
+        long time = System.currentTimeMillis();
+        GroovyClassLoader loader = createClassLoader();
+        final Class parsedClass;
+        try {
+            parsedClass = loader.parseClass(codeSource(scriptText, className + ".groovy"), false);
+        }
+        catch (RuntimeException | Error e) {
+            FileUtils.deleteQuietly(newCache);
+            throw e;
+        }
+        try (FileOutputStream out = new FileOutputStream(new File(newCache, "compiled.properties"))){
+            Properties properties = new Properties();
+            properties.setProperty("class", parsedClass.getName());
+            properties.setProperty("time", Long.toString(time));
+            properties.setProperty("script", scriptText);
+            properties.store(out, "");
+        } catch (IOException e) {
+            LogUtils.warn(e);
+        }
+        try {
+            Files.move(newCache.toPath(), cache.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            FileUtils.deleteQuietly(newCache);
+        }
+        return parsedClass;
     }
 
     protected synchronized String generateScriptName() {
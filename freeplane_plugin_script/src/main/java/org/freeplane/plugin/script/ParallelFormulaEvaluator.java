@@ -0,0 +1,249 @@
+package org.freeplane.plugin.script;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.features.attribute.Attribute;
+import org.freeplane.features.attribute.NodeAttributeTableModel;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.mode.Controller;
+import org.freeplane.plugin.script.dependencies.EvaluationDependencies;
+import org.freeplane.plugin.script.dependencies.RelatedElements;
+
+/**
+ * Evaluates all formulas of a map in topological waves, the formulas of each wave on a worker pool.
+ *
+ * The dependency graph is built from the values accessed by the previous evaluation of each formula,
+ * as recorded in the formula cache. Formulas evaluated for the first time, e.g. after the map is loaded,
+ * get dependencies found in their text: node ids, parent chains and children.
+ * Formulas navigating the map in other ways, formulas accessing other maps
+ * and formulas in or after a dependency cycle are evaluated one after another on the calling thread
+ * after all waves, in map order.
+ * Dependencies missing from the graph are still evaluated on demand by the formula needing them.
+ */
+class ParallelFormulaEvaluator {
+	static final String PARALLEL_FORMULA_EVALUATION_PROPERTY = "parallel_formula_evaluation";
+	private static final Pattern RELATIVE_NODES = Pattern.compile("(?<![\\w.])(?:node\\.)?(?:(parent(?:\\.parent)*)(\\.children)?|(children))\\b");
+	private static final Pattern NODE_ID = Pattern.compile("\\bID_\\w+");
+	private static final Pattern OTHER_NAVIGATION = Pattern.compile("\\b(?:parent|children|getParent|getChildren"
+	        + "|root|getRoot|map|getMap|mindMap|loadMap|find|findAll|findAllDepthFirst|at|allAt"
+	        + "|siblings|pathToRoot|next|previous|descendants|nodeAt)\\b");
+
+	private static final AtomicInteger workerCounter = new AtomicInteger();
+	final private static ExecutorService workers = Executors.newFixedThreadPool(
+	    Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+		    @Override
+		    public Thread newThread(Runnable r) {
+			    final Thread thread = new WorkerThread(r);
+			    thread.setName("formula evaluation " + workerCounter.incrementAndGet());
+			    thread.setDaemon(true);
+			    return thread;
+		    }
+	    });
+
+	private static class WorkerThread extends Thread {
+		WorkerThread(final Runnable target) {
+			super(target);
+		}
+	}
+
+	static boolean isWorkerThread() {
+		return Thread.currentThread() instanceof WorkerThread;
+	}
+
+	private static class Formula {
+		final NodeModel node;
+		final String text;
+		final List<Formula> dependents = new ArrayList<>();
+		boolean hasKnownDependencies;
+		int unevaluatedDependencyCount;
+		boolean evaluated;
+
+		Formula(final NodeModel node, final String text) {
+			this.node = node;
+			this.text = text;
+		}
+
+		void evaluate() {
+			FormulaUtils.cacheIfFormula(node, text);
+			evaluated = true;
+		}
+	}
+
+	static boolean isEnabled() {
+		return FormulaCache.ENABLE_CACHING
+		        && ResourceController.getResourceController().getBooleanProperty(PARALLEL_FORMULA_EVALUATION_PROPERTY);
+	}
+
+	private final MapModel map;
+	private final List<Formula> formulas = new ArrayList<>();
+	private final Map<NodeModel, List<Formula>> formulasByNode = new HashMap<>();
+
+	/** collects the formulas and their dependencies, call it before the formula cache is cleared */
+	ParallelFormulaEvaluator(final MapModel map) {
+		this.map = map;
+		collectFormulas(map.getRootNode());
+		final FormulaCache formulaCache = FormulaCache.of(map);
+		for (final Formula formula : formulas) {
+			final RelatedElements accessedValues = formulaCache.getAccessedValues(formula.node, FormulaUtils.scriptOf(formula.text));
+			if (accessedValues != null) {
+				if (! accessedValues.relatesOtherMaps())
+					linkDependencies(formula, new HashSet<>(accessedValues.getRelatedNodes()));
+			}
+			else
+				linkReferencedFormulas(formula);
+		}
+	}
+
+	private void linkReferencedFormulas(final Formula formula) {
+		final Set<NodeModel> referencedNodes = findReferencedNodes(formula);
+		if (referencedNodes == null)
+			return;
+		linkDependencies(formula, referencedNodes);
+		// formulas of the same node are evaluated one after another
+		final List<Formula> nodeFormulas = formulasByNode.get(formula.node);
+		final int formulaIndex = nodeFormulas.indexOf(formula);
+		if (formula.hasKnownDependencies && formulaIndex > 0) {
+			nodeFormulas.get(formulaIndex - 1).dependents.add(formula);
+			formula.unevaluatedDependencyCount++;
+		}
+	}
+
+	/** @return the nodes referenced in the formula text, or null if it navigates the map in other ways */
+	private Set<NodeModel> findReferencedNodes(final Formula formula) {
+		final String script = FormulaUtils.scriptOf(formula.text);
+		final Set<NodeModel> referencedNodes = new HashSet<>();
+		final StringBuffer unresolvedScript = new StringBuffer(script.length());
+		final Matcher relativeNodes = RELATIVE_NODES.matcher(script);
+		while (relativeNodes.find()) {
+			NodeModel referencedNode = formula.node;
+			if (relativeNodes.group(1) != null) {
+				for (int i = relativeNodes.group(1).split("\\.").length; i > 0 && referencedNode != null; i--)
+					referencedNode = referencedNode.getParentNode();
+				if (referencedNode == null)
+					return null;
+			}
+			if (relativeNodes.group(1) == null || relativeNodes.group(2) != null)
+				referencedNodes.addAll(referencedNode.getChildren());
+			else
+				referencedNodes.add(referencedNode);
+			relativeNodes.appendReplacement(unresolvedScript, " ");
+		}
+		relativeNodes.appendTail(unresolvedScript);
+		if (OTHER_NAVIGATION.matcher(unresolvedScript).find())
+			return null;
+		final Matcher nodeIds = NODE_ID.matcher(unresolvedScript);
+		while (nodeIds.find()) {
+			final NodeModel referencedNode = map.getNodeForID(nodeIds.group());
+			if (referencedNode == null)
+				return null;
+			referencedNodes.add(referencedNode);
+		}
+		return referencedNodes;
+	}
+
+	private void collectFormulas(final NodeModel node) {
+		addIfFormula(node, node.getUserObject());
+		final NodeAttributeTableModel attributeTableModel = node.getExtension(NodeAttributeTableModel.class);
+		if (attributeTableModel != null) {
+			for (final Attribute attribute : attributeTableModel.getAttributes())
+				addIfFormula(node, attribute.getValue());
+		}
+		for (final NodeModel child : node.getChildren())
+			collectFormulas(child);
+	}
+
+	private void addIfFormula(final NodeModel node, final Object value) {
+		if (value instanceof String && FormulaUtils.textContainsFormula((String) value)) {
+			final Formula formula = new Formula(node, (String) value);
+			formulas.add(formula);
+			formulasByNode.computeIfAbsent(node, x -> new ArrayList<>(1)).add(formula);
+		}
+	}
+
+	private void linkDependencies(final Formula formula, final Set<NodeModel> accessedNodes) {
+		for (final NodeModel accessedNode : accessedNodes) {
+			final List<Formula> accessedFormulas = formulasByNode.get(accessedNode);
+			if (accessedFormulas == null)
+				continue;
+			for (final Formula accessedFormula : accessedFormulas) {
+				if (accessedFormula == formula)
+					return;
+				accessedFormula.dependents.add(formula);
+				formula.unevaluatedDependencyCount++;
+			}
+		}
+		formula.hasKnownDependencies = true;
+	}
+
+	void evaluate() {
+		FormulaCache.of(map);
+		EvaluationDependencies.of(map);
+		List<Formula> wave = new ArrayList<>();
+		for (final Formula formula : formulas) {
+			if (isReady(formula))
+				wave.add(formula);
+		}
+		while (!wave.isEmpty()) {
+			evaluateConcurrently(wave);
+			final List<Formula> nextWave = new ArrayList<>();
+			for (final Formula formula : wave) {
+				for (final Formula dependent : formula.dependents) {
+					dependent.unevaluatedDependencyCount--;
+					if (isReady(dependent))
+						nextWave.add(dependent);
+				}
+			}
+			wave = nextWave;
+		}
+		for (final Formula formula : formulas) {
+			if (!formula.evaluated)
+				formula.evaluate();
+		}
+	}
+
+	private boolean isReady(final Formula formula) {
+		return formula.hasKnownDependencies && formula.unevaluatedDependencyCount == 0;
+	}
+
+	private void evaluateConcurrently(final List<Formula> wave) {
+		if (wave.size() == 1) {
+			wave.get(0).evaluate();
+			return;
+		}
+		final Controller controller = Controller.getCurrentController();
+		final List<Callable<Void>> tasks = new ArrayList<>(wave.size());
+		for (final Formula formula : wave) {
+			tasks.add(() -> {
+				// the pool is shared by all controllers, e.g. by the controllers of batch processor threads
+				Controller.setCurrentThreadController(controller);
+				try {
+					formula.evaluate();
+				}
+				finally {
+					Controller.setCurrentThreadController(null);
+				}
+				return null;
+			});
+		}
+		try {
+			workers.invokeAll(tasks);
+		}
+		catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -42,21 +42,21 @@ public class EvaluationDependencies implements IExtension{
 	private final WeakHashMap<MapModel, DependentNodeReferences> onMapDependencies = new WeakHashMap<>();
 
 	private final WeakHashMap<NodeModel, DependentNodeReferences> onNodeDependencies = new WeakHashMap<>();
-	// FIXME: organize node and branch dependencies in a tree?
 	private final WeakHashMap<NodeModel, DependentNodeReferences> onBranchDependencies = new WeakHashMap<>();
 	private final WeakHashMap<NodeModel, Void> onAnyNodeDependencies = new WeakHashMap<>();
 	private final WeakHashMap<NodeModel, Void> onGlobalNodeDependencies = new WeakHashMap<>();
 
-	public void getChangedDependencies(Set<NodeModel> accessingNodes, final NodeModel accessedNode) {
+	public synchronized void getChangedDependencies(Set<NodeModel> accessingNodes, final NodeModel accessedNode) {
 		final Iterable<NodeModel> onNode = onNodeDependencies.get(accessedNode);
 		if (onNode != null)
 			getRecursively(accessingNodes, onNode);
-		ArrayList<Entry<NodeModel, DependentNodeReferences>> onBranchDependencyList = new ArrayList<>(onBranchDependencies.entrySet());
-		for (Entry<NodeModel, DependentNodeReferences> entry : onBranchDependencyList) {
-			final NodeModel branchNode = entry.getKey();
-			if (accessedNode.isDescendantOf(branchNode)) {
-				onBranchDependencies.get(branchNode);
-				getRecursively(accessingNodes, entry.getValue());
+		if (! onBranchDependencies.isEmpty()) {
+			// branch dependencies are keyed by the branch node, so the ones containing accessedNode
+			// are found along its path to the root
+			for (NodeModel branchNode = accessedNode.getParentNode(); branchNode != null; branchNode = branchNode.getParentNode()) {
+				final Iterable<NodeModel> onBranch = onBranchDependencies.get(branchNode);
+				if (onBranch != null)
+					getRecursively(accessingNodes, onBranch);
 			}
 		}
 		if(! onAnyNodeDependencies.isEmpty()) {
@@ -67,12 +67,12 @@ public class EvaluationDependencies implements IExtension{
 //		System.out.println("dependencies on(" + node + "): " + accessingNodes);
 	}
 
-	public void getGlobalDependencies(Set<NodeModel> accessingNodes) {
+	public synchronized void getGlobalDependencies(Set<NodeModel> accessingNodes) {
 		getRecursively(accessingNodes, onGlobalNodeDependencies.keySet());
 //		System.out.println("dependencies on(" + node + "): " + accessingNodes);
 	}
 
-	public void removeAndReturnChangedDependencies(Set<NodeModel> accessingNodes, final MapModel accessedMap) {
+	public synchronized void removeAndReturnChangedDependencies(Set<NodeModel> accessingNodes, final MapModel accessedMap) {
 		final Iterable<NodeModel> onMap = onMapDependencies.remove(accessedMap);
 		if (onMap != null)
 			getRecursively(accessingNodes, onMap);
@@ -87,7 +87,7 @@ public class EvaluationDependencies implements IExtension{
 	}
 
 	/** accessedNode was accessed when accessingNode was evaluated. */
-	public void accessNode(NodeModel accessingNode, NodeModel accessedNode) {
+	public synchronized void accessNode(NodeModel accessingNode, NodeModel accessedNode) {
 		// FIXME: check if accessedNode is already covered by other accessModes
 		provideDependencySet(accessedNode, onNodeDependencies).add(accessingNode);
 		addAccessedMap(accessingNode, accessedNode);
@@ -95,7 +95,7 @@ public class EvaluationDependencies implements IExtension{
 	}
 
 	/** accessedNode.children was accessed when accessingNode was evaluated. */
-	public void accessBranch(NodeModel accessingNode, NodeModel accessedNode) {
+	public synchronized void accessBranch(NodeModel accessingNode, NodeModel accessedNode) {
 		// FIXME: check if accessedNode is already covered by other accessModes
 		provideDependencySet(accessedNode, onBranchDependencies).add(accessingNode);
 		addAccessedMap(accessingNode, accessedNode);
@@ -109,13 +109,13 @@ public class EvaluationDependencies implements IExtension{
 	}
 
 	/** a method was used on the accessingNode that may use any node in the map. */
-	public void accessAll(NodeModel accessingNode) {
+	public synchronized void accessAll(NodeModel accessingNode) {
 		// FIXME: check if accessedNode is already covered by other accessModes
 		onAnyNodeDependencies.put(accessingNode, null);
 //		System.out.println(accessingNode + " accesses all nodes. current dependencies:\n" + this);
 	}
 
-	public void accessGlobalNode(NodeModel accessingNode) {
+	public synchronized void accessGlobalNode(NodeModel accessingNode) {
 		onGlobalNodeDependencies.put(accessingNode, null);
 	}
 
@@ -129,13 +129,13 @@ public class EvaluationDependencies implements IExtension{
 		return set;
 	}
 
-	public Iterable<NodeModel> getPossibleDependencies(NodeModel node) {
+	public synchronized Iterable<NodeModel> getPossibleDependencies(NodeModel node) {
 		Iterable<NodeModel> dependencies = onNodeDependencies.get(node);
 		return dependencies != null ? dependencies : Collections.<NodeModel>emptyList();
 	}
 
 	@Override
-	public String toString() {
+	public synchronized String toString() {
 		StringBuilder builder = new StringBuilder();
 		for (Entry<NodeModel, DependentNodeReferences> entry : onNodeDependencies.entrySet()) {
 			builder.append("onNode (" + entry.getKey().getText() + "):\n");
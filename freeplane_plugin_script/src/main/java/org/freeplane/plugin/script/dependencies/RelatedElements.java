@@ -44,6 +44,10 @@ public class RelatedElements {
 		relatedMaps.add(accessedMap);
 	}
 
+	public boolean relatesOtherMaps() {
+		return relatedMaps != null;
+	}
+
 	public boolean isEmpty() {
 		return relatedElements.isEmpty();
 	}
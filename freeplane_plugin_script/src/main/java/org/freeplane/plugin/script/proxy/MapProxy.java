@@ -30,6 +30,7 @@ import java.awt.*;
 import java.io.File;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.stream.Stream;
 
 public class MapProxy extends AbstractProxy<MapModel> implements MindMap, Map {
 	public MapProxy(final MapModel map, final ScriptContext scriptContext) {
@@ -56,6 +57,12 @@ public class MapProxy extends AbstractProxy<MapModel> implements MindMap, Map {
 		return getRoot();
 	}
 
+	// MapRO: R
+	@Override
+	public Stream<? extends org.freeplane.api.Node> parallelStream() {
+		return ProxyUtils.parallelStream(getDelegate().getRootNode(), getScriptContext());
+	}
+
 	// MapRO: R
 	@Override
 	public File getFile() {
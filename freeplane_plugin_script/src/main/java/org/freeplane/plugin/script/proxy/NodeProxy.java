@@ -762,6 +762,14 @@ class NodeProxy extends AbstractProxy<NodeModel> implements Proxy.Node {
 		return ProxyUtils.findAll(delegate, getScriptContext(), true);
     }
 
+	// NodeRO: R
+	@Override
+	public Stream<? extends Node> parallelStream() {
+		final NodeModel delegate = getDelegate();
+		reportBranchAccess(delegate);
+		return ProxyUtils.parallelStream(delegate, getScriptContext());
+	}
+
 	// NodeRO: R
 	@Override
 	public Date getLastModifiedAt() {
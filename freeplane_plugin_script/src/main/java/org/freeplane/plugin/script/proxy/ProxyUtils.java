@@ -109,6 +109,12 @@ public class ProxyUtils {
 		    new DelegateCondition(node -> condition.check(new NodeProxy(node, scriptContext)), "Code"); 
 		return filterCondition;
     }
+	static Stream<? extends Node> parallelStream(final NodeModel node, final ScriptContext scriptContext) {
+		final boolean recordsAccessedNodes = scriptContext != null && scriptContext.getNodeScript() != null;
+		final Stream<NodeModel> nodes = recordsAccessedNodes ? NodeStream.of(node) : NodeStream.parallelOf(node);
+		return nodes.map(nodeModel -> new NodeProxy(nodeModel, scriptContext));
+	}
+
 	/** finds from any node downwards.
 	 * @param condition if null every node will match. */
 	@SuppressWarnings("unchecked")
@@ -0,0 +1,80 @@
+package org.freeplane.plugin.script;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CompiledScriptCleanerShould {
+	private static final long NOW = TimeUnit.DAYS.toMillis(1000);
+	private static final long DEPENDENCY_TIME = NOW - TimeUnit.DAYS.toMillis(100);
+
+	@Rule
+	public TemporaryFolder compiledStringScripts = new TemporaryFolder();
+
+	private File cache(String name, long compileTime, long lastUseTime) throws IOException {
+		final File cache = compiledStringScripts.newFolder(name);
+		new File(cache, "classes").mkdir();
+		if (compileTime > 0) {
+			try (FileOutputStream out = new FileOutputStream(new File(cache, "compiled.properties"))) {
+				final Properties properties = new Properties();
+				properties.setProperty("time", Long.toString(compileTime));
+				properties.store(out, "");
+			}
+		}
+		cache.setLastModified(lastUseTime);
+		return cache;
+	}
+
+	private void clean() {
+		new CompiledScriptCleaner().removeOutdatedCompiledStringScripts(compiledStringScripts.getRoot(),
+		    DEPENDENCY_TIME, NOW);
+	}
+
+	@Test
+	public void keepRecentlyUsedScripts() throws Exception {
+		cache("abc", NOW - 1000, NOW - 1000);
+		clean();
+		assertThat(compiledStringScripts.getRoot().list()).containsExactly("abc");
+	}
+
+	@Test
+	public void removeDirectoriesOfInterruptedCompilations() throws Exception {
+		cache("abc-12", NOW - 1000, NOW - 1000);
+		cache("abd-13", 0, NOW - 1000);
+		cache("abe", 0, NOW - 1000);
+		clean();
+		assertThat(compiledStringScripts.getRoot().list()).isEmpty();
+	}
+
+	@Test
+	public void removeScriptsCompiledBeforeDependenciesChanged() throws Exception {
+		cache("abc", DEPENDENCY_TIME - 1, NOW - 1000);
+		clean();
+		assertThat(compiledStringScripts.getRoot().list()).isEmpty();
+	}
+
+	@Test
+	public void removeScriptsNotUsedForLong() throws Exception {
+		cache("abc", DEPENDENCY_TIME + 1, NOW - CompiledScriptCleaner.MAXIMUM_UNUSED_STRING_SCRIPT_AGE - 1);
+		clean();
+		assertThat(compiledStringScripts.getRoot().list()).isEmpty();
+	}
+
+	@Test
+	public void removeLeastRecentlyUsedScriptsBeyondMaximumCount() throws Exception {
+		final int count = CompiledScriptCleaner.MAXIMUM_STRING_SCRIPT_COUNT + 2;
+		for (int i = 0; i < count; i++)
+			cache("s" + i, NOW - 1000, NOW - 1000 * (count - i));
+		clean();
+		assertThat(compiledStringScripts.getRoot().list()).hasSize(CompiledScriptCleaner.MAXIMUM_STRING_SCRIPT_COUNT)
+		    .doesNotContain("s0", "s1").contains("s2", "s" + (count - 1));
+	}
+}
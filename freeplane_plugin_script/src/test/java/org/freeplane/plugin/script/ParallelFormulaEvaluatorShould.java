@@ -0,0 +1,142 @@
+package org.freeplane.plugin.script;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.mode.Controller;
+import org.freeplane.features.filter.FilterController;
+import org.freeplane.main.headlessmode.FreeplaneHeadlessStarter;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ParallelFormulaEvaluatorShould {
+	@BeforeClass
+	public static void startHeadlessFreeplane() throws Exception {
+		if (Controller.getCurrentController() != null)
+			return;
+		if (null == System.getProperty("org.freeplane.core.dir.lib", null))
+			System.setProperty("org.freeplane.core.dir.lib", "/lib/");
+		final FreeplaneHeadlessStarter starter = new FreeplaneHeadlessStarter();
+		final Controller controller = starter.createController();
+		starter.createModeControllers(controller);
+		FilterController.getController(controller).loadDefaultConditions();
+		starter.createFrame();
+		ScriptResources.setClasspath(Collections.<String> emptyList());
+		ResourceController.getResourceController()
+		    .addDefaults(ScriptingEngine.class.getResource(ResourceController.PLUGIN_DEFAULTS_RESOURCE));
+	}
+
+	private final ResourceController resourceController = ResourceController.getResourceController();
+	private final boolean parallelEvaluation = resourceController
+	    .getBooleanProperty(ParallelFormulaEvaluator.PARALLEL_FORMULA_EVALUATION_PROPERTY);
+
+	@After
+	public void restoreParallelEvaluation() {
+		resourceController.setProperty(ParallelFormulaEvaluator.PARALLEL_FORMULA_EVALUATION_PROPERTY,
+		    parallelEvaluation);
+	}
+
+	/**
+	 * creates independent chains of formulas, each formula adds its depth to the value of its parent.
+	 * The formula text transformer belongs to another plugin, so the parent formula is evaluated explicitly.
+	 * Formulas of the same depth have the same text, so that the same script runs on several threads.
+	 * The formula cache needs node ids.
+	 */
+	private MapModel createMap() {
+		final MapModel map = new MapModel(Controller.getCurrentModeController().getMapController().duplicator());
+		final NodeModel root = new NodeModel("=1", map);
+		map.setRoot(root);
+		root.createID();
+		for (int chain = 0; chain < 8; chain++) {
+			NodeModel parent = new NodeModel("=" + (chain + 1), map);
+			root.insert(parent);
+			parent.createID();
+			for (int depth = 0; depth < 5; depth++) {
+				final NodeModel child = new NodeModel("=" + FormulaUtils.class.getName()
+				        + ".evalIfScript(node.parent.getDelegate(), node.parent.text) + " + (depth + 1),
+				    map);
+				parent.insert(child);
+				child.createID();
+				parent = child;
+			}
+		}
+		return map;
+	}
+
+	private List<Object> evaluate(boolean parallel) {
+		resourceController.setProperty(ParallelFormulaEvaluator.PARALLEL_FORMULA_EVALUATION_PROPERTY, parallel);
+		final MapModel map = createMap();
+		FormulaUtils.evaluateAllFormulas(map);
+		final List<Object> values = new ArrayList<>();
+		collectValues(map.getRootNode(), values);
+		return values;
+	}
+
+	private void collectValues(NodeModel node, List<Object> values) {
+		values.add(FormulaUtils.evalIfScript(node, node.getText()));
+		for (NodeModel child : node.getChildren())
+			collectValues(child, values);
+	}
+
+	@Test
+	public void evaluateDependentFormulasInParallelLikeSerially() throws Exception {
+		final List<Object> serialValues = evaluate(false);
+		assertThat(serialValues).hasSize(49).startsWith(1, 1, 2, 4, 7, 11, 16).endsWith(8, 9, 11, 14, 18, 23);
+		assertThat(evaluate(true)).isEqualTo(serialValues);
+	}
+
+	/** evaluates formulas returning the name of their thread in a new map */
+	private List<Object> evaluateThreadNames(String formula) {
+		resourceController.setProperty(ParallelFormulaEvaluator.PARALLEL_FORMULA_EVALUATION_PROPERTY, true);
+		final MapModel map = new MapModel(Controller.getCurrentModeController().getMapController().duplicator());
+		final NodeModel root = new NodeModel("threads", map);
+		map.setRoot(root);
+		root.createID();
+		for (int i = 0; i < 8; i++) {
+			final NodeModel child = new NodeModel(formula, map);
+			root.insert(child);
+			child.createID();
+		}
+		FormulaUtils.evaluateAllFormulas(map);
+		final List<Object> threadNames = new ArrayList<>();
+		for (NodeModel child : root.getChildren())
+			threadNames.add(FormulaUtils.evalIfScript(child, child.getText()));
+		return threadNames;
+	}
+
+	@Test
+	public void evaluateNewFormulasOnWorkerThreads() throws Exception {
+		assertThat(evaluateThreadNames("=java.lang.Thread.currentThread().name + node.parent.text"))
+		    .allSatisfy(name -> assertThat((String) name).startsWith("formula evaluation"));
+	}
+
+	@Test
+	public void evaluateNewFormulasOnSeveralThreads() throws Exception {
+		assumeTrue(Runtime.getRuntime().availableProcessors() > 1);
+		assertThat(new HashSet<>(evaluateThreadNames("=java.lang.Thread.currentThread().name"))).hasSizeGreaterThan(1);
+	}
+
+	@Test
+	public void evaluateNewFormulasNavigatingOtherwiseOnCallingThread() throws Exception {
+		final String callingThreadName = Thread.currentThread().getName();
+		assertThat(evaluateThreadNames("=java.lang.Thread.currentThread().name + node.map.root.text"))
+		    .containsOnly(callingThreadName + "threads");
+	}
+
+	@Test
+	public void keepSystemOutWhileEvaluatingInParallel() throws Exception {
+		final PrintStream out = System.out;
+		evaluate(true);
+		assertThat(System.out).isSameAs(out);
+	}
+}